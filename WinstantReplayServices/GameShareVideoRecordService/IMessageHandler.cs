@@ -4,7 +4,7 @@
 // Created          : 04-13-2016
 //
 // Last Modified By : acscheiner
-// Last Modified On : 04-22-2016
+// Last Modified On : 10-17-2020
 // ***********************************************************************
 // <copyright file="IMessageHandler.cs" company="Castle Hill Gaming, LLC">
 //     Copyright ©  2016
@@ -30,5 +30,11 @@ namespace CastleHillGaming.GameShare.VideoRecorder
         /// </summary>
         /// <param name="message">The message.</param>
         void HandleMessage(ITextMessage message);
+
+        /// <summary>
+        /// Handles a message holding encoded recall data (see RecallDataEncoding).
+        /// </summary>
+        /// <param name="message">The message.</param>
+        void HandleMessage(IBytesMessage message);
     }
 }
\ No newline at end of file
@@ -4,7 +4,7 @@
 // Created          : 04-13-2016
 //
 // Last Modified By : acscheiner
-// Last Modified On : 04-25-2016
+// Last Modified On : 10-17-2020
 // ***********************************************************************
 // <copyright file="MessageHandler.cs" company="Castle Hill Gaming, LLC">
 //     Copyright ©  2016
@@ -72,13 +72,48 @@ namespace CastleHillGaming.GameShare.VideoRecorder
 
             if (null == message) throw new ArgumentNullException("message");
 
+            HandleRecallData(message, message.Text);
+        }
+
+        /// <summary>
+        /// Handles a message holding encoded recall data (see RecallDataEncoding).
+        /// </summary>
+        /// <param name="message">The message.</param>
+        /// <exception cref="System.ArgumentNullException">message</exception>
+        public void HandleMessage(IBytesMessage message)
+        {
+            Logger.Debug("Entered HandleMessage");
+
+            if (null == message) throw new ArgumentNullException("message");
+
+            string recallData;
+            try
+            {
+                recallData = RecallDataEncoding.Decode(message.Content);
+            }
+            catch (InvalidDataException e)
+            {
+                // handled as missing recall data (so the job is failed)
+                Logger.Error("HandleMessage - undecodable recall data", e);
+                recallData = null;
+            }
+
+            HandleRecallData(message, recallData);
+        }
+
+        /// <summary>
+        /// Handles the recall data of a message.
+        /// </summary>
+        /// <param name="message">The message.</param>
+        /// <param name="recallData">The (decoded) recall data.</param>
+        /// <exception cref="System.ArgumentException">if any message value is missing or invalid</exception>
+        private void HandleRecallData(IMessage message, string recallData)
+        {
             var ticketUuid = message.Properties.GetString(MessageKeys.TicketMessageKey);
             var gameTitle = message.Properties.GetString(MessageKeys.GameTitleMessageKey);
             var casino = message.Properties.GetString(MessageKeys.CasinoNameMessageKey);
             var gamePlayedAt = message.Properties.GetLong(MessageKeys.GamePlayTimeMessageKey);
 
-            var recallData = message.Text;
-
             var ticketIdOk = true;
             var gameTitleOk = true;
             var recallDataOk = true;
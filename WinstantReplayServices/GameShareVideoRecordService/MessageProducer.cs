@@ -29,6 +29,12 @@ namespace CastleHillGaming.GameShare.VideoRecorder
     /// <seealso cref="CastleHillGaming.GameShare.VideoRecorder.IMessageProducer" />
     public class MessageProducer : NmsGatewaySupport, IMessageProducer
     {
+        /// <summary>
+        /// The message group property (JMSXGroupID) job messages are sent with: the
+        /// broker dispatches each ticket's messages to one consumer, in order.
+        /// </summary>
+        private const string JobMessageGroupKey = "NMSXGroupID";
+
         /// <summary>
         /// Gets the job information destination.
         /// </summary>
@@ -53,6 +59,7 @@ namespace CastleHillGaming.GameShare.VideoRecorder
                 {
                     var msg = session.CreateMessage();
                     msg.Properties.SetString(MessageKeys.TicketMessageKey, ticketId);
+                    msg.Properties.SetString(JobMessageGroupKey, ticketId);
                     msg.Properties.SetInt(MessageKeys.JobStatusMessageKey, (int) jobStatus);
                     return msg;
                 });
@@ -71,6 +78,7 @@ namespace CastleHillGaming.GameShare.VideoRecorder
                 {
                     var msg = session.CreateBytesMessage();
                     msg.Properties.SetString(MessageKeys.TicketMessageKey, ticketId);
+                    msg.Properties.SetString(JobMessageGroupKey, ticketId);
                     msg.Properties.SetInt(MessageKeys.JobStatusMessageKey, (int) jobStatus);
                     msg.WriteBytes(videoBytes);
                     return msg;
@@ -0,0 +1,75 @@
+﻿// ***********************************************************************
+// Assembly         : CastleHillGaming.GameShare.VideoRecorder
+// Author           : acscheiner
+// Created          : 10-17-2020
+//
+// Last Modified By : acscheiner
+// Last Modified On : 10-17-2020
+// ***********************************************************************
+// <copyright file="RecallDataEncoding.cs" company="Castle Hill Gaming, LLC">
+//     Copyright ©  2020
+// </copyright>
+// <summary></summary>
+// ***********************************************************************
+
+namespace CastleHillGaming.GameShare.VideoRecorder
+{
+    #region
+
+    using System;
+    using System.IO;
+    using System.IO.Compression;
+    using System.Text;
+
+    #endregion
+
+    /// <summary>
+    /// Class RecallDataEncoding decodes the game recall data sent by the GameShare web service
+    /// (see its RecallDataEncoding class). The first byte of the encoded recall data is its
+    /// format version:
+    /// 0 - the UTF-8 recall data, uncompressed;
+    /// 1 - the UTF-8 recall data, raw Deflate compressed.
+    /// </summary>
+    public static class RecallDataEncoding
+    {
+        /// <summary>
+        /// The format version of uncompressed UTF-8 recall data
+        /// </summary>
+        public const byte VersionUtf8 = 0;
+
+        /// <summary>
+        /// The format version of raw Deflate compressed UTF-8 recall data
+        /// </summary>
+        public const byte VersionDeflate = 1;
+
+        /// <summary>
+        /// Decodes encoded recall data.
+        /// </summary>
+        /// <param name="encoded">The encoded recall data.</param>
+        /// <returns>The recall data.</returns>
+        /// <exception cref="System.ArgumentNullException">encoded</exception>
+        /// <exception cref="System.IO.InvalidDataException">if the recall data cannot be decoded</exception>
+        public static string Decode(byte[] encoded)
+        {
+            if (null == encoded) throw new ArgumentNullException("encoded");
+            if (0 == encoded.Length) throw new InvalidDataException("empty recall data");
+
+            switch (encoded[0])
+            {
+                case VersionUtf8:
+                    return Encoding.UTF8.GetString(encoded, 1, encoded.Length - 1);
+
+                case VersionDeflate:
+                    using (var deflateStream = new DeflateStream(new MemoryStream(encoded, 1, encoded.Length - 1),
+                        CompressionMode.Decompress))
+                    using (var reader = new StreamReader(deflateStream, Encoding.UTF8))
+                    {
+                        return reader.ReadToEnd();
+                    }
+
+                default:
+                    throw new InvalidDataException($"unknown recall data format version {encoded[0]}");
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jms.annotation.EnableJms;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.castlehillgaming.gameshare_commonutils.SharedConstants;
 
@@ -23,6 +24,7 @@ import com.castlehillgaming.gameshare_commonutils.SharedConstants;
 @EnableJpaRepositories(basePackages = "com.castlehillgaming.gameshare.dao")
 @EntityScan(basePackages = "com.castlehillgaming.gameshare.model")
 @EnableJms
+@EnableScheduling
 public class GameShareServiceApplication {
 
     /**
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.castlehillgaming.gameshare.model.TicketIdCipher;
+
+/**
+ * The Class AesGcmTicketIdCipher protects ticketIds with AES-GCM authenticated
+ * encryption (using a random IV per value) and indexes them with an
+ * HMAC-SHA256 blind index. Both keys are derived from the configured password
+ * and salt once, at construction, so that no per-lookup key derivation is
+ * needed.
+ */
+public class AesGcmTicketIdCipher implements TicketIdCipher {
+
+    /** The key derivation algorithm. */
+    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /** The encryption transformation. */
+    private static final String ENCRYPTION_TRANSFORMATION = "AES/GCM/NoPadding";
+
+    /** The blind index algorithm. */
+    private static final String INDEX_ALGORITHM = "HmacSHA256";
+
+    /** The key length in bytes (for each of the two derived keys). */
+    private static final int KEY_LENGTH = 32;
+
+    /** The GCM IV length in bytes. */
+    private static final int IV_LENGTH = 12;
+
+    /** The GCM authentication tag length in bits. */
+    private static final int TAG_LENGTH_BITS = 128;
+
+    /** The random source for IVs. */
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /** The encryption key. */
+    private final SecretKey encryptionKey;
+
+    /** The blind index key. */
+    private final SecretKey indexKey;
+
+    /** The per-thread blind index MAC (Mac instances are not thread-safe). */
+    private final ThreadLocal<Mac> indexMac;
+
+    /** The per-thread cipher (Cipher instances are not thread-safe). */
+    private final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(ENCRYPTION_TRANSFORMATION);
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("could not initialize ticketId cipher", e);
+        }
+    });
+
+    /**
+     * Instantiates a new AES-GCM ticket id cipher.
+     *
+     * @param password   the password to derive the keys from
+     * @param salt       the salt to derive the keys with
+     * @param iterations the number of key derivation iterations
+     */
+    public AesGcmTicketIdCipher(final String password, final String salt, final int iterations) {
+        final byte[] keyMaterial;
+        try {
+            final PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8),
+                    iterations, 2 * KEY_LENGTH * Byte.SIZE);
+            keyMaterial = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM).generateSecret(keySpec)
+                    .getEncoded();
+            keySpec.clearPassword();
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("could not derive ticketId keys", e);
+        }
+
+        encryptionKey = new SecretKeySpec(keyMaterial, 0, KEY_LENGTH, "AES");
+        indexKey = new SecretKeySpec(keyMaterial, KEY_LENGTH, KEY_LENGTH, INDEX_ALGORITHM);
+        Arrays.fill(keyMaterial, (byte) 0);
+
+        indexMac = ThreadLocal.withInitial(() -> {
+            try {
+                final Mac mac = Mac.getInstance(INDEX_ALGORITHM);
+                mac.init(indexKey);
+                return mac;
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException("could not initialize ticketId index", e);
+            }
+        });
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.model.TicketIdCipher#protect(java.lang.
+     * String)
+     */
+    @Override
+    public String protect(final String ticketId) {
+        final byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+
+        try {
+            final Cipher cipher = this.cipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            final byte[] cipherText = cipher.doFinal(ticketId.getBytes(StandardCharsets.UTF_8));
+
+            return Base64.getEncoder()
+                    .encodeToString(ByteBuffer.allocate(IV_LENGTH + cipherText.length).put(iv).put(cipherText).array());
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("could not encrypt ticketId", e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.model.TicketIdCipher#unprotect(java.lang.
+     * String)
+     */
+    @Override
+    public String unprotect(final String protectedTicketId) {
+        final byte[] ivAndCipherText = Base64.getDecoder().decode(protectedTicketId);
+
+        try {
+            final Cipher cipher = this.cipher.get();
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey,
+                    new GCMParameterSpec(TAG_LENGTH_BITS, ivAndCipherText, 0, IV_LENGTH));
+            return new String(cipher.doFinal(ivAndCipherText, IV_LENGTH, ivAndCipherText.length - IV_LENGTH),
+                    StandardCharsets.UTF_8);
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("could not decrypt ticketId", e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.model.TicketIdCipher#index(java.lang.
+     * String)
+     */
+    @Override
+    public String index(final String ticketId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(indexMac.get().doFinal(ticketId.getBytes(StandardCharsets.UTF_8)));
+    }
+}
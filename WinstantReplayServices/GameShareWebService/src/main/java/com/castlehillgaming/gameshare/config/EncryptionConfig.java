@@ -15,6 +15,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import com.castlehillgaming.gameshare.model.TicketIdCipher;
+
 /**
  * The Class EncryptionConfig.
  */
@@ -44,7 +46,21 @@ public class EncryptionConfig {
     }
 
     /**
-     * Hibernate fixed salt string encryptor.
+     * The ticketId cipher. Its keys are derived once, here, so ticketId lookups
+     * (which are made by blind index) never pay for PBE key derivation.
+     *
+     * @return the ticket id cipher
+     */
+    @Bean
+    public TicketIdCipher ticketIdCipher() {
+        return new AesGcmTicketIdCipher(jfseProps.getPassword(), jfseProps.getSalt(),
+                jfseProps.getKeyObtentionIterations());
+    }
+
+    /**
+     * Hibernate fixed salt string encryptor. Ticket ids are no longer stored
+     * with this encryptor; it is only used to read ticketIds written before
+     * the ticketId blind index was introduced (see TicketIdIndexMigration).
      *
      * @return the hibernate PBE string encryptor
      */
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import javax.jms.ConnectionFactory;
+
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+
+/**
+ * The Class JmsTopicConfig.
+ */
+@Configuration
+public class JmsTopicConfig {
+
+    /** The Constant TOPIC_LISTENER_CONTAINER_FACTORY. */
+    public static final String TOPIC_LISTENER_CONTAINER_FACTORY = "topicListenerContainerFactory";
+
+    /**
+     * Listener container factory for topic (publish/subscribe) listeners. It is
+     * configured like the default (queue) listener container factory, except
+     * that each topic listener has exactly one consumer (more would each receive
+     * their own copy of every message).
+     *
+     * @param configurer        the listener container factory configurer
+     * @param connectionFactory the JMS connection factory
+     * @return the topic listener container factory
+     */
+    @Bean(name = TOPIC_LISTENER_CONTAINER_FACTORY)
+    public DefaultJmsListenerContainerFactory topicListenerContainerFactory(
+            final DefaultJmsListenerContainerFactoryConfigurer configurer, final ConnectionFactory connectionFactory) {
+        final DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setPubSubDomain(true);
+        factory.setConcurrency("1");
+        return factory;
+    }
+}
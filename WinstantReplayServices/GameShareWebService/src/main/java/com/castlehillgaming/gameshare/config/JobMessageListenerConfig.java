@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.Session;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.castlehillgaming.gameshare.messaging.JobMessageBatchListenerContainer;
+import com.castlehillgaming.gameshare.messaging.JobMessageConsumerProperties;
+import com.castlehillgaming.gameshare.messaging.JobMessageConsumerProperties.TransactionMode;
+import com.castlehillgaming.gameshare.messaging.JobStatusBatchConsumer;
+import com.castlehillgaming.gameshare.messaging.JobStatusBatchProperties;
+import com.castlehillgaming.gameshare_commonutils.SharedConstants;
+
+import bitronix.tm.resource.jms.PoolingConnectionFactory;
+
+/**
+ * The Class JobMessageListenerConfig.
+ */
+@Configuration
+public class JobMessageListenerConfig {
+
+    /** The Constant JOB_LISTENER_CONTAINER_FACTORY. */
+    public static final String JOB_LISTENER_CONTAINER_FACTORY = "jobListenerContainerFactory";
+
+    /**
+     * Listener container factory for the Game Share Job Message Queue listener.
+     * In XA mode it is configured like the default listener container factory,
+     * so each message is received in a JTA transaction. In local mode messages
+     * are received outside any transaction, on a client acknowledged session,
+     * and acknowledged once the listener has returned; the listener's database
+     * transaction is then the only resource in its JTA transaction, so it is
+     * committed in one phase (without a transaction log write).
+     * <p>
+     * Each container keeps its consumer (CACHE_CONSUMER), so the message groups
+     * the broker has assigned to it - and the messages prefetched for them -
+     * stay with it; a consumer closed after each message would release its
+     * groups before its transaction has committed. When job status batching is
+     * enabled, the containers are not started.
+     *
+     * @param configurer        the listener container factory configurer
+     * @param connectionFactory the JMS connection factory
+     * @param consumerProps     the job message consumer properties
+     * @param batchProps        the job status batch properties
+     * @return the job listener container factory
+     */
+    @Bean(name = JOB_LISTENER_CONTAINER_FACTORY)
+    public DefaultJmsListenerContainerFactory jobListenerContainerFactory(
+            final DefaultJmsListenerContainerFactoryConfigurer configurer, final ConnectionFactory connectionFactory,
+            final JobMessageConsumerProperties consumerProps, final JobStatusBatchProperties batchProps) {
+        final DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
+        factory.setAutoStartup(!batchProps.isEnabled());
+        if (TransactionMode.LOCAL == consumerProps.getTransactionMode()) {
+            factory.setTransactionManager(null);
+            factory.setSessionTransacted(false);
+            factory.setSessionAcknowledgeMode(Session.CLIENT_ACKNOWLEDGE);
+        }
+        return factory;
+    }
+
+    /**
+     * Listener container receiving the batches of job messages consumed by the
+     * JobStatusBatchConsumer, in place of the job listener containers. Like the job listener containers,
+     * it receives each batch in a JTA transaction in XA mode, and on a client
+     * acknowledged session, outside any transaction, in local mode.
+     *
+     * @param connectionFactory  the JMS connection factory
+     * @param transactionManager the (JTA) transaction manager
+     * @param consumerProps      the job message consumer properties
+     * @param batchProps         the job status batch properties
+     * @param batchConsumer      the job status batch consumer
+     * @return the job message batch listener container
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "job-status-batch", name = "enabled", havingValue = "true")
+    public JobMessageBatchListenerContainer jobMessageBatchListenerContainer(final ConnectionFactory connectionFactory,
+            final PlatformTransactionManager transactionManager, final JobMessageConsumerProperties consumerProps,
+            final JobStatusBatchProperties batchProps, final JobStatusBatchConsumer batchConsumer) {
+        final JobMessageBatchListenerContainer container = new JobMessageBatchListenerContainer(batchConsumer,
+                batchProps);
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName(SharedConstants.JOB_INFO_MESSAGE_QUEUE_NAME);
+        if (TransactionMode.LOCAL == consumerProps.getTransactionMode()) {
+            container.setSessionAcknowledgeMode(Session.CLIENT_ACKNOWLEDGE);
+        } else {
+            container.setTransactionManager(transactionManager);
+        }
+        return container;
+    }
+
+    /**
+     * The post-processor allowing the (JTA) JMS connection factory to be used
+     * outside XA transactions, which job messages consumed in local
+     * transactions are received in.
+     *
+     * @return the bean post processor
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "job-message-consumer", name = "transaction-mode", havingValue = "local")
+    public static BeanPostProcessor localJmsTransactionsPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+                if (bean instanceof PoolingConnectionFactory) {
+                    ((PoolingConnectionFactory) bean).setAllowLocalTransactions(true);
+                }
+
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.model.TicketIdCipher;
+
+/**
+ * The Class PlainTicketIdCipher is the TicketIdCipher used when the
+ * dataencrypt configuration profile is not active: ticketIds are stored as-is
+ * and are their own blind index.
+ */
+@Component
+@Profile("!dataencrypt")
+public class PlainTicketIdCipher implements TicketIdCipher {
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.model.TicketIdCipher#protect(java.lang.
+     * String)
+     */
+    @Override
+    public String protect(final String ticketId) {
+        return ticketId;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.model.TicketIdCipher#unprotect(java.lang.
+     * String)
+     */
+    @Override
+    public String unprotect(final String protectedTicketId) {
+        return protectedTicketId;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.model.TicketIdCipher#index(java.lang.
+     * String)
+     */
+    @Override
+    public String index(final String ticketId) {
+        return ticketId;
+    }
+}
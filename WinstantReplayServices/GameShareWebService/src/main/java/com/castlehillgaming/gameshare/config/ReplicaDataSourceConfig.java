@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class ReplicaDataSourceConfig routes read-only transactions to the
+ * configured replicas, by wrapping the (auto-configured, JTA) primary
+ * datasource in a ReplicaRoutingDataSource, and keeps the replicas' lag
+ * checked.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica-datasource", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    /** The datasource. */
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * The post-processor wrapping the primary datasource. It is static, and
+     * only looks up its dependencies once the datasource is created, so it does
+     * not cause them to be created early.
+     *
+     * @param replicaProps  the replica properties
+     * @param meterRegistry the meter registry
+     * @return the bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor replicaRoutingDataSourcePostProcessor(
+            final ObjectProvider<ReplicaDataSourceProperties> replicaProps,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof ReplicaRoutingDataSource)) {
+                    return new ReplicaRoutingDataSource((DataSource) bean, replicaProps.getObject(),
+                            meterRegistry.getObject());
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Check the lag of the replicas.
+     *
+     * @throws SQLException if the datasource is not a replica routing one
+     */
+    @Scheduled(fixedDelayString = "${replica-datasource.lag-check-interval-millis:1000}")
+    public void checkReplicaLag() throws SQLException {
+        dataSource.unwrap(ReplicaRoutingDataSource.class).checkReplicaLag();
+    }
+}
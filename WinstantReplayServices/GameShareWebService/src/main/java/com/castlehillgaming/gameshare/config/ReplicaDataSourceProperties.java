@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class ReplicaDataSourceProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "replica-datasource")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replicas (rather than
+     * to the primary datasource).
+     */
+    private @Getter @Setter boolean enabled;
+
+    /** The replicas. */
+    private @Getter @Setter List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * The most (in milliseconds) a replica may lag behind the primary and still
+     * be read from.
+     */
+    private @Getter @Setter long maxLagMillis = 1000;
+
+    /** The time (in milliseconds) between checks of each replica's lag. */
+    private @Getter @Setter long lagCheckIntervalMillis = 1000;
+
+    /**
+     * The Class Replica.
+     */
+    public static class Replica {
+
+        /** The replica name (used in its pool name and metrics). */
+        private @Getter @Setter String name;
+
+        /** The JDBC url of the replica. */
+        private @Getter @Setter String url;
+
+        /** The username. */
+        private @Getter @Setter String username;
+
+        /** The password. */
+        private @Getter @Setter String password;
+
+        /** The maximum number of pooled connections to the replica. */
+        private @Getter @Setter int maxPoolSize = 20;
+    }
+}
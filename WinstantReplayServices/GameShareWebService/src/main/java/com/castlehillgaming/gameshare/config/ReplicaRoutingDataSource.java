@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.castlehillgaming.gameshare.config.ReplicaDataSourceProperties.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+
+import bitronix.tm.resource.jdbc.PoolingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The Class ReplicaRoutingDataSource routes the connections of read-only
+ * transactions to the replicas (in turn), and all other connections to the
+ * primary datasource. Replica connections are plain read-only connections, not
+ * enlisted in the JTA transaction, so a read-only transaction must not write
+ * or enlist any other resource.
+ * <p>
+ * A replica is only read from while its last lag check (see checkReplicaLag)
+ * is recent and found it no further behind the primary than the configured
+ * maximum lag. A read-only transaction joined by (or joining) a read-write one
+ * uses the read-write transaction's primary connection, so it sees that
+ * transaction's writes; reads which must see the writes of an earlier
+ * transaction have to be made in a read-write transaction.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /** The route (metric tag) of the primary datasource. */
+    private static final String PRIMARY_ROUTE = "primary";
+
+    /**
+     * The replica lag query. A replica which has replayed all the WAL it has
+     * received is not lagging, however long ago its last replayed transaction
+     * was (an idle primary writes nothing to replay). A database which is not
+     * a standby at all is never lagging, so a second local database can stand
+     * in for a replica.
+     */
+    private static final String LAG_QUERY = "select case when not pg_is_in_recovery()"
+            + " or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    /** The number of lag check intervals after which a lag check is stale. */
+    private static final int STALE_LAG_CHECKS = 3;
+
+    /** The primary datasource. */
+    private final DataSource primary;
+
+    /** The replica routes. */
+    private final List<ReplicaRoute> replicaRoutes;
+
+    /** The replica properties. */
+    private final ReplicaDataSourceProperties replicaProps;
+
+    /** The time taken to acquire primary connections. */
+    private final Timer primaryAcquireTimer;
+
+    /** The number of read-only connections routed to the primary because no replica was usable. */
+    private final Counter laggingFallbackCounter;
+
+    /** The number of read-only connections routed to the primary because a replica refused a connection. */
+    private final Counter unavailableFallbackCounter;
+
+    /** The index of the next replica to route to. */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Instantiates a new replica routing data source.
+     *
+     * @param primary       the primary datasource
+     * @param replicaProps  the replica properties
+     * @param meterRegistry the meter registry
+     */
+    public ReplicaRoutingDataSource(final DataSource primary, final ReplicaDataSourceProperties replicaProps,
+            final MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaProps = replicaProps;
+        replicaRoutes = replicaProps.getReplicas().stream().map(replica -> new ReplicaRoute(replica, meterRegistry))
+                .collect(Collectors.toList());
+
+        primaryAcquireTimer = acquireTimer(PRIMARY_ROUTE, meterRegistry);
+        laggingFallbackCounter = fallbackCounter("lagging", meterRegistry);
+        unavailableFallbackCounter = fallbackCounter("unavailable", meterRegistry);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.sql.DataSource#getConnection()
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            final ReplicaRoute replicaRoute = nextUsableReplica();
+            if (null == replicaRoute) {
+                laggingFallbackCounter.increment();
+            } else {
+                try {
+                    return acquire(replicaRoute.dataSource, replicaRoute.acquireTimer);
+                } catch (final SQLException e) {
+                    logger.warn("could not connect to replica " + replicaRoute.name + ", reading from the primary", e);
+                    replicaRoute.lagMillis = Long.MAX_VALUE;
+                    unavailableFallbackCounter.increment();
+                }
+            }
+        }
+
+        return acquire(primary, primaryAcquireTimer);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.sql.DataSource#getConnection(java.lang.String,
+     * java.lang.String)
+     */
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Check the lag of each replica behind the primary. A replica which cannot
+     * be checked is treated as lagging until it can be.
+     */
+    public void checkReplicaLag() {
+        for (final ReplicaRoute replicaRoute : replicaRoutes) {
+            try (Connection connection = replicaRoute.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                replicaRoute.lagMillis = resultSet.getLong(1);
+            } catch (final SQLException e) {
+                logger.warn("could not check the lag of replica " + replicaRoute.name, e);
+                replicaRoute.lagMillis = Long.MAX_VALUE;
+            }
+            replicaRoute.checkedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Close the replica connection pools and the primary datasource.
+     */
+    public void close() {
+        replicaRoutes.forEach(replicaRoute -> replicaRoute.dataSource.close());
+        if (primary instanceof PoolingDataSource) {
+            ((PoolingDataSource) primary).close();
+        }
+    }
+
+    /**
+     * Gets the next replica (in turn) which is usable.
+     *
+     * @return the replica route (null if no replica is usable)
+     */
+    private ReplicaRoute nextUsableReplica() {
+        final long checkedSinceMillis = System.currentTimeMillis()
+                - STALE_LAG_CHECKS * replicaProps.getLagCheckIntervalMillis();
+        final int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicaRoutes.size(); i++) {
+            final ReplicaRoute replicaRoute = replicaRoutes.get(Math.floorMod(start + i, replicaRoutes.size()));
+            if (replicaRoute.lagMillis <= replicaProps.getMaxLagMillis()
+                    && replicaRoute.checkedAtMillis >= checkedSinceMillis) {
+                return replicaRoute;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Acquire a connection, timing how long it takes.
+     *
+     * @param dataSource   the datasource
+     * @param acquireTimer the acquire timer
+     * @return the connection
+     * @throws SQLException if a connection could not be acquired
+     */
+    private static Connection acquire(final DataSource dataSource, final Timer acquireTimer) throws SQLException {
+        final Timer.Sample sample = Timer.start();
+        try {
+            return dataSource.getConnection();
+        } finally {
+            sample.stop(acquireTimer);
+        }
+    }
+
+    /**
+     * Register a connection acquire timer for a route.
+     *
+     * @param route         the route (primary, or the replica name)
+     * @param meterRegistry the meter registry
+     * @return the timer
+     */
+    private static Timer acquireTimer(final String route, final MeterRegistry meterRegistry) {
+        return Timer.builder("gameshare.datasource.acquire").tag("route", route)
+                .description("time taken to acquire a connection on each datasource route").register(meterRegistry);
+    }
+
+    /**
+     * Register a counter of read-only connections routed to the primary.
+     *
+     * @param reason        why the connections were routed to the primary
+     * @param meterRegistry the meter registry
+     * @return the counter
+     */
+    private static Counter fallbackCounter(final String reason, final MeterRegistry meterRegistry) {
+        return Counter.builder("gameshare.datasource.replica.fallback").tag("reason", reason)
+                .description("read-only connections routed to the primary datasource").register(meterRegistry);
+    }
+
+    /**
+     * The Class ReplicaRoute holds a replica's connection pool and lag.
+     */
+    private static class ReplicaRoute {
+
+        /** The replica name. */
+        private final String name;
+
+        /** The replica connection pool. */
+        private final HikariDataSource dataSource;
+
+        /** The time taken to acquire replica connections. */
+        private final Timer acquireTimer;
+
+        /** The lag (in milliseconds) found by the last check (unknown until checked). */
+        private volatile long lagMillis = Long.MAX_VALUE;
+
+        /** When the lag was last checked. */
+        private volatile long checkedAtMillis;
+
+        /**
+         * Instantiates a new replica route.
+         *
+         * @param replica       the replica
+         * @param meterRegistry the meter registry
+         */
+        ReplicaRoute(final Replica replica, final MeterRegistry meterRegistry) {
+            name = replica.getName();
+            dataSource = new HikariDataSource();
+            dataSource.setPoolName("gameShareReplica-" + name);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaxPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setMetricRegistry(meterRegistry);
+            acquireTimer = acquireTimer(name, meterRegistry);
+
+            Gauge.builder("gameshare.datasource.replica.lag", this,
+                    route -> Long.MAX_VALUE == route.lagMillis ? Double.NaN : route.lagMillis)
+                    .tag("replica", name).baseUnit("milliseconds")
+                    .description("the lag of each replica behind the primary found by its last check")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import java.util.List;
+
+import org.jasypt.hibernate5.encryptor.HibernatePBEStringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.model.TicketIdCipher;
+
+/**
+ * The Class TicketIdIndexMigration is a one-off migration, run at startup when
+ * the ticketidmigration configuration profile is active, which rewrites every
+ * ticket still lacking a ticketId blind index: the ticketId is read (and, when
+ * the dataencrypt profile is active, decrypted with the legacy PBE encryptor),
+ * then re-stored in the form produced by the TicketIdCipher together with its
+ * blind index. See db/postgres/002-ticket-id-blind-index.sql.
+ */
+@Component
+@Profile("ticketidmigration")
+public class TicketIdIndexMigration implements ApplicationRunner {
+
+    /** The Constant logger. */
+    private static final Logger logger = LoggerFactory.getLogger(TicketIdIndexMigration.class);
+
+    /** The number of tickets migrated per transaction. */
+    private static final int PAGE_SIZE = 500;
+
+    /** The jdbc template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The ticket id cipher. */
+    @Autowired
+    private TicketIdCipher ticketIdCipher;
+
+    /**
+     * The legacy ticketId encryptor (only present when the dataencrypt
+     * configuration profile is active).
+     */
+    @Autowired(required = false)
+    private HibernatePBEStringEncryptor legacyEncryptor;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.springframework.boot.ApplicationRunner#run(org.springframework.boot.
+     * ApplicationArguments)
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        long migrated = 0;
+        Integer pageMigrated;
+        while (0 < (pageMigrated = transactionTemplate.execute(status -> migratePage()))) {
+            migrated += pageMigrated;
+            logger.info("migrated {} ticketIds", migrated);
+        }
+
+        logger.info("ticketId blind index migration complete ({} tickets migrated)", migrated);
+    }
+
+    /**
+     * Migrate the next page of tickets lacking a ticketId blind index.
+     *
+     * @return the number of tickets migrated
+     */
+    private int migratePage() {
+        final List<Object[]> updates = jdbcTemplate.query(
+                "select id, ticket_id from ticket where ticket_id_index is null order by id limit ?",
+                (rs, rowNum) -> {
+                    final String storedTicketId = rs.getString("ticket_id");
+                    final String ticketId = null == legacyEncryptor ? storedTicketId
+                            : legacyEncryptor.decrypt(storedTicketId);
+                    return new Object[] { ticketIdCipher.protect(ticketId), ticketIdCipher.index(ticketId),
+                            rs.getLong("id") };
+                }, PAGE_SIZE);
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update ticket set ticket_id = ?, ticket_id_index = ? where id = ?", updates);
+        }
+
+        return updates.size();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The Class ContentHashLocks serializes the transactions submitting the same
+ * game share (see SubmitDedupProperties), so that of two concurrent
+ * submissions one finds the ticket the other created rather than both
+ * creating one. Each content hash is mapped to one of a fixed number of
+ * stripes, and each stripe to a transaction-level advisory lock, so a bulk
+ * submission holds a bounded number of locks however many game shares it
+ * has. The stripes are locked in ascending order, so transactions locking
+ * several cannot deadlock.
+ * <p>
+ * Tickets are looked up at REPEATABLE_READ, where the snapshot is taken by the
+ * first statement, i.e. before a lock is waited for; so the locking
+ * transaction is first set to READ COMMITTED, for its lookup to see the ticket
+ * committed by the transaction it waited for.
+ */
+@Repository
+public class ContentHashLocks {
+
+    /**
+     * The advisory lock class id the stripes are locked under (the first of
+     * the two int keys), so they cannot clash with other advisory locks
+     * ("dedu" in ASCII).
+     */
+    private static final int LOCK_CLASS_ID = 0x64656475;
+
+    /** The lock statement (taking the locks in the order of the array). */
+    private static final String LOCK_SQL = "select pg_advisory_xact_lock(?, s) from unnest(?) as s";
+
+    /** The JDBC template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lock the stripes of content hashes until the current transaction ends,
+     * waiting for any transaction holding one of them. This must be called
+     * before any other statement of the transaction, which it sets to READ
+     * COMMITTED.
+     *
+     * @param contentHashes the content hashes
+     * @param stripes       the number of stripes content hashes are mapped to
+     */
+    public void lock(final Collection<String> contentHashes, final int stripes) {
+        final TreeSet<Integer> lockedStripes = new TreeSet<>();
+        contentHashes.forEach(contentHash -> lockedStripes.add(Math.floorMod(contentHash.hashCode(), stripes)));
+
+        jdbcTemplate.execute("set transaction isolation level read committed");
+        jdbcTemplate.query(LOCK_SQL, statement -> {
+            statement.setInt(1, LOCK_CLASS_ID);
+            statement.setArray(2, statement.getConnection().createArrayOf("integer", lockedStripes.toArray()));
+        }, (RowCallbackHandler) resultSet -> {
+        });
+    }
+}
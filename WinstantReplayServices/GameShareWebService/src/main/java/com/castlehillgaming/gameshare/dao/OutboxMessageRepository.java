@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.castlehillgaming.gameshare.model.OutboxMessage;
+
+/**
+ * The Spring JPA Repository for data store entities of type OutboxMessage.
+ */
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Find and lock the oldest outbox messages which are not already locked by
+     * another relay. Messages locked by a concurrent relay are skipped rather
+     * than waited on, so several relays can drain the outbox in parallel.
+     *
+     * @param batchSize the maximum number of outbox messages to lock
+     * @return the locked outbox messages, oldest first
+     */
+    @Query(value = "select * from outbox_message order by id limit :batchSize for update skip locked",
+            nativeQuery = true)
+    List<OutboxMessage> lockNextBatch(@Param("batchSize") int batchSize);
+
+    /**
+     * Find and lock the next outbox messages by priority which are not already
+     * locked by another relay (see lockNextBatch): the highest priority first,
+     * counting messages created before a date-time as of the highest priority,
+     * and the oldest first within a priority. The outbox only holds the
+     * messages waiting to be sent, so it is sorted without an index.
+     *
+     * @param agedBefore      the date-time before which messages count as of
+     *                        the highest priority
+     * @param highestPriority the highest priority
+     * @param batchSize       the maximum number of outbox messages to lock
+     * @return the locked outbox messages, in priority order
+     */
+    @Query(value = "select * from outbox_message order by case when created_at < :agedBefore"
+            + " then :highestPriority else priority end desc, id limit :batchSize for update skip locked",
+            nativeQuery = true)
+    List<OutboxMessage> lockNextBatchByPriority(@Param("agedBefore") Date agedBefore,
+            @Param("highestPriority") int highestPriority, @Param("batchSize") int batchSize);
+
+    /**
+     * Find and lock the oldest outbox messages created before a date-time which
+     * are not already locked by another transaction (see lockNextBatch).
+     *
+     * @param createdBefore the date-time
+     * @param batchSize     the maximum number of outbox messages to lock
+     * @return the locked outbox messages, oldest first
+     */
+    @Query(value = "select * from outbox_message where created_at < :createdBefore order by id limit :batchSize"
+            + " for update skip locked", nativeQuery = true)
+    List<OutboxMessage> lockNextBatchCreatedBefore(@Param("createdBefore") Date createdBefore,
+            @Param("batchSize") int batchSize);
+}
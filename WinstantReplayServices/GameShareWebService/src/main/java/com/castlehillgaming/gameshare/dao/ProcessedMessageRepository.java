@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.castlehillgaming.gameshare.model.ProcessedMessage;
+
+/**
+ * The Spring JPA Repository for data store entities of type ProcessedMessage.
+ */
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    /**
+     * Record a message as processed, unless it already is. A concurrent
+     * transaction recording the same message makes this wait for it to
+     * complete.
+     *
+     * @param messageId   the JMS message id
+     * @param processedAt the processed-at date-time to record
+     * @return 1 if the message was recorded; 0 if it was already processed
+     */
+    @Modifying
+    @Query(value = "insert into processed_message (message_id, processed_at) values (:messageId, :processedAt)"
+            + " on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("messageId") String messageId, @Param("processedAt") Date processedAt);
+
+    /**
+     * Delete the records of messages processed before the specified date-time.
+     *
+     * @param processedBefore the date-time
+     * @return the number of records deleted
+     */
+    @Modifying
+    @Query("delete from ProcessedMessage m where m.processedAt < :processedBefore")
+    int deleteProcessedBefore(@Param("processedBefore") Date processedBefore);
+}
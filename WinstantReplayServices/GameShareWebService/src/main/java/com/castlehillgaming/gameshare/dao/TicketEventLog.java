@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.model.TicketEvent;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+/**
+ * The Class TicketEventLog appends the status changes made to Ticket entities
+ * to the ticket event log (see TicketEvent), as one JDBC batch. The status
+ * changes applied by guarded updates are appended by the same statement (see
+ * TicketStatusTransitions).
+ * <p>
+ * The tickets in flight to the recorders are counted from the log too, rather
+ * than by an index on ticket.status, so status updates stay HOT updates.
+ */
+@Repository
+public class TicketEventLog {
+
+    /** The insert statement. */
+    private static final String INSERT_SQL = "insert into ticket_event (ticket_id, status, at_millis)"
+            + " values (?, ?, ?)";
+
+    /**
+     * The in-flight count query: the tickets Dispatched since a date-time
+     * which have not moved on past Recording since (Recorded, or any later
+     * status, Failed included). Statuses are stored as their ordinals, which
+     * follow the order tickets move through them.
+     */
+    private static final String COUNT_IN_FLIGHT_SQL = "select count(*) from ticket_event d"
+            + " where d.status = ? and d.at_millis > ? and not exists (select 1 from ticket_event e"
+            + " where e.ticket_id = d.ticket_id and e.status > ? and e.at_millis >= d.at_millis)";
+
+    /** The JDBC template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Append the status changes made to tickets since they were last appended.
+     * The tickets must have been saved (so they have their ids), but need not
+     * have been flushed.
+     *
+     * @param tickets the tickets
+     */
+    public void append(final Collection<Ticket> tickets) {
+        final List<TicketEvent> events = tickets.stream()
+                .flatMap(ticket -> ticket.takeUnloggedStages().stream()
+                        .map(stage -> new TicketEvent(ticket.getId(), stage.getStatus(), stage.getReachedAtMillis())))
+                .collect(Collectors.toList());
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.getTicketId());
+            statement.setShort(2, (short) event.getStatus().ordinal());
+            statement.setLong(3, event.getAtMillis());
+        });
+    }
+
+    /**
+     * Count the tickets in flight to the recorders, i.e. Dispatched (since a
+     * date-time) but neither Recorded nor Failed yet. The Dispatched events are
+     * found by the BRIN index on at_millis, and each is checked for a later
+     * event by the primary key.
+     *
+     * @param dispatchedAfterMillis the date-time (in epoch milliseconds)
+     * @return the number of tickets in flight
+     */
+    public long countInFlight(final long dispatchedAfterMillis) {
+        return jdbcTemplate.queryForObject(COUNT_IN_FLIGHT_SQL, Long.class,
+                (short) TicketStatusEnum.Dispatched.ordinal(), dispatchedAfterMillis,
+                (short) TicketStatusEnum.Recording.ordinal());
+    }
+}
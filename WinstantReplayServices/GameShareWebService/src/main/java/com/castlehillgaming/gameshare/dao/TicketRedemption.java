@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+/**
+ * The TicketRedemption projection exposes only the Ticket columns needed to
+ * redeem a ticket, so that batch redemption does not load whole Ticket
+ * entities.
+ */
+public interface TicketRedemption {
+
+    /**
+     * Gets the ticket id blind index.
+     *
+     * @return the ticket id blind index
+     */
+    String getTicketIdIndex();
+
+    /**
+     * Gets the ticket status.
+     *
+     * @return the ticket status
+     */
+    TicketStatusEnum getStatus();
+
+    /**
+     * Gets the ticket version.
+     *
+     * @return the ticket version
+     */
+    int getVersion();
+
+    /**
+     * Gets the URL of the uploaded video.
+     *
+     * @return the video url (null if the video has not yet been uploaded)
+     */
+    String getVideoUrl();
+}
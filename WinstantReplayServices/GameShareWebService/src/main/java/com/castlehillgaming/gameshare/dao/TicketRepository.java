@@ -3,9 +3,14 @@
  */
 package com.castlehillgaming.gameshare.dao;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.castlehillgaming.gameshare.model.Ticket;
 
@@ -15,12 +20,72 @@ import com.castlehillgaming.gameshare.model.Ticket;
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     /**
-     * Find the Ticket entity with the specified ticketId.
+     * Find the Ticket entity with the specified ticketId blind index.
      *
-     * @param ticketId the ticketId value used for uniquely ID-ing a Winstant Reply
-     *                 request
+     * @param ticketIdIndex the blind index (see TicketIdCipher#index) of the
+     *                      ticketId value used for uniquely ID-ing a Winstant
+     *                      Reply request
      * @return an Optional Ticket instance (which will be null-valued if no entity
-     *         was found with the specified ticketId String).
+     *         was found with the specified ticketId blind index).
      */
-    Optional<Ticket> findByTicketId(String ticketId);
+    Optional<Ticket> findByTicketIdIndex(String ticketIdIndex);
+
+    /**
+     * Find all Ticket entities with the specified ticketId blind indexes using a
+     * single query.
+     *
+     * @param ticketIdIndexes the ticketId blind indexes
+     * @return the tickets found (tickets which were not found are omitted)
+     */
+    List<Ticket> findByTicketIdIndexIn(Collection<String> ticketIdIndexes);
+
+    /**
+     * Find all Ticket entities with the specified ids, together with their game
+     * recall data, using a single query.
+     *
+     * @param ids the ticket ids (primary keys)
+     * @return the tickets found
+     */
+    @Query("select t from Ticket t join fetch t.gameRecallData where t.id in :ids")
+    List<Ticket> findWithGameRecallDataByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find all Tickets created after a date-time, and not Failed, with any of
+     * the specified content hashes using a single query.
+     *
+     * @param contentHashes the content hashes
+     * @param createdAfter  the date-time
+     * @return the tickets found, oldest first
+     */
+    @Query("select t from Ticket t where t.contentHash in :contentHashes and t.status.createdAt > :createdAfter"
+            + " and t.status.status <> com.castlehillgaming.gameshare_commonutils.TicketStatusEnum.Failed"
+            + " order by t.status.createdAt")
+    List<Ticket> findUnfailedByContentHashInCreatedAfter(@Param("contentHashes") Collection<String> contentHashes,
+            @Param("createdAfter") Date createdAfter);
+
+    /**
+     * Count the Tickets created after a date-time in each status. Only the
+     * partitions holding tickets created after it are scanned.
+     *
+     * @param createdAfter the date-time
+     * @return the number of tickets in each status (statuses no ticket is in are
+     *         omitted)
+     */
+    @Query("select t.status.status as status, count(t) as count from Ticket t"
+            + " where t.status.createdAt > :createdAfter group by t.status.status")
+    List<TicketStatusCount> countByStatusCreatedAfter(@Param("createdAfter") Date createdAfter);
+
+    /**
+     * Find the redemption status (ticketId blind index, status, version and
+     * videoUrl only) of all Tickets with the specified ticketId blind indexes using a
+     * single query.
+     *
+     * @param ticketIdIndexes the ticketId blind indexes
+     * @return the redemption status of each ticket found (tickets which were
+     *         not found are omitted)
+     */
+    @Query("select t.ticketIdIndex as ticketIdIndex, t.status.status as status, t.version as version,"
+            + " t.videoUrl as videoUrl from Ticket t where t.ticketIdIndex in :ticketIdIndexes")
+    List<TicketRedemption> findRedemptionsByTicketIdIndexIn(
+            @Param("ticketIdIndexes") Collection<String> ticketIdIndexes);
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.castlehillgaming.gameshare.model.TicketStage;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The Class TicketStatusChange holds the outcome of a guarded status update
+ * (see TicketStatusTransitions) of one Ticket: the statuses it moved through,
+ * and what is needed to refresh its cached status and publish its stage
+ * metrics.
+ */
+@AllArgsConstructor
+public class TicketStatusChange {
+
+    /** The ticket id blind index. */
+    private final @Getter String ticketIdIndex;
+
+    /** The statuses the ticket moved through, in order (empty if none applied). */
+    private final @Getter List<TicketStatusEnum> appliedStatuses;
+
+    /** The date-time the ticket moved to its previous status. */
+    private final Date previousStatusAt;
+
+    /** The date-time the statuses were applied at. */
+    private final Date changedAt;
+
+    /** The ticket status (after the update). */
+    private final @Getter TicketStatusEnum status;
+
+    /** The date-time the ticket was created at. */
+    private final Date createdAt;
+
+    /** The casino. */
+    private final @Getter String casino;
+
+    /** The cabinet type. */
+    private final @Getter String cabinetType;
+
+    /** The game title. */
+    private final @Getter String gameTitle;
+
+    /** The cents won. */
+    private final @Getter int centsWon;
+
+    /** The URL of the uploaded video (after the update). */
+    private final @Getter String videoUrl;
+
+    /** The ticket version (after the update). */
+    private final @Getter int version;
+
+    /**
+     * Whether any status was applied.
+     *
+     * @return true, if the ticket's status changed
+     */
+    public boolean isApplied() {
+        return !appliedStatuses.isEmpty();
+    }
+
+    /**
+     * Gets the stages the ticket reached.
+     *
+     * @return the stages reached, oldest first
+     */
+    public List<TicketStage> getReachedStages() {
+        final List<TicketStage> stages = new ArrayList<>(appliedStatuses.size());
+        Date stageStartedAt = previousStatusAt;
+        for (final TicketStatusEnum appliedStatus : appliedStatuses) {
+            stages.add(new TicketStage(appliedStatus, changedAt.getTime(),
+                    changedAt.getTime() - stageStartedAt.getTime(), changedAt.getTime() - createdAt.getTime()));
+            stageStartedAt = changedAt;
+        }
+
+        return stages;
+    }
+}
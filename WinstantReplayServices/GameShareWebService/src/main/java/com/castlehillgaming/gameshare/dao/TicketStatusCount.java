@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+/**
+ * The TicketStatusCount projection holds the number of Tickets in a status.
+ */
+public interface TicketStatusCount {
+
+    /**
+     * Gets the ticket status.
+     *
+     * @return the ticket status
+     */
+    TicketStatusEnum getStatus();
+
+    /**
+     * Gets the number of tickets in the status.
+     *
+     * @return the number of tickets
+     */
+    long getCount();
+}
@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.castlehillgaming.gameshare.model.TicketStatusTally;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+/**
+ * The Spring JPA Repository for data store entities of type TicketStatusTally.
+ */
+public interface TicketStatusTallyRepository extends JpaRepository<TicketStatusTally, TicketStatusEnum> {
+}
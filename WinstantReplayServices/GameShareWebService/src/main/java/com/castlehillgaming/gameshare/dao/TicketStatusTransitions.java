@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * The Class TicketStatusTransitions moves Tickets to new statuses with single
+ * guarded UPDATE statements, rather than by loading, changing and saving each
+ * Ticket entity. Each statement first locks the tickets it is given, then
+ * applies the transition rule (see Ticket#isTransitionPermitted, though a
+ * ticket is never moved to the status it already holds) to the status each
+ * held when it was locked, so concurrent updates of the same ticket are
+ * applied in turn by the database instead of failing on the Ticket's
+ * optimistic lock. Only the tickets a transition applies to (or which are
+ * given a new video) are written, and have their version incremented, so a
+ * repeated or out-of-order update writes nothing and a Ticket entity loaded
+ * before a real change cannot be saved over it.
+ * <p>
+ * The same statement appends the statuses applied to the ticket event log
+ * (see TicketEvent), and returns each ticket found (changed or not) together
+ * with its previous status and the date-time it was reached, so there is no
+ * separate read of the ticket; a ticket which is not returned was not found.
+ */
+@Repository
+public class TicketStatusTransitions {
+
+    /** The maximum number of tickets updated by one statement. */
+    private static final int MAX_TICKETS_PER_STATEMENT = 1000;
+
+    /** The statuses in order, as a SQL array (a status's position in it orders it). */
+    private static final String STATUS_ORDER = Arrays.stream(TicketStatusEnum.values())
+            .sorted(Comparator.comparingInt(TicketStatusEnum::getIntValue))
+            .map(status -> "'" + status.name() + "'").collect(Collectors.joining(", ", "array[", "]::varchar[]"));
+
+    /** The creation date-time (in epoch milliseconds) of a locked ticket. */
+    private static final String CREATED_AT_MILLIS = "(extract(epoch from o.created_at) * 1000)::bigint";
+
+    /**
+     * The values row of each ticket updated: its blind index, the statuses to
+     * apply in order (comma separated), the last of them, the date-time (in
+     * epoch milliseconds) they are applied at, and the video url and stored
+     * video to set (if any).
+     */
+    private static final String VALUES_ROW = "(?, string_to_array(?, ',')::varchar[], ?::varchar, ?::bigint,"
+            + " ?::varchar, ?::varchar, ?::bigint, ?::varchar)";
+
+    /** The update statement, up to its values rows. */
+    private static final String UPDATE_HEAD = "with v (ticket_id_index, statuses, status, changed_at_millis, video_url,"
+            + " storage_handle, size_bytes, checksum) as (values ";
+
+    /**
+     * The update statement, after its values rows. The tickets are first read
+     * and locked (old), so each ticket's previous status is the one it held
+     * when it was locked. Only the tickets which the transition is permitted
+     * for, or which are given a new video, are updated (changed); the
+     * statuses logged are those permitted from the previous status (see
+     * followingStatuses; an event already logged is not logged again). Every
+     * ticket found is returned, changed or not, and the date-time of its
+     * previous status is read from the event log as it was before the
+     * statement (or is the creation date-time, if Received).
+     */
+    private static final String UPDATE_TAIL = "),"
+            + " old as (select t.id, t.created_at, t.ticket_id_index, t.status, t.casino, t.cabinet_type,"
+            + " t.game_title, t.cents_won, t.video_url, t.storage_handle, t.size_bytes, t.checksum, t.version"
+            + " from ticket t join v on t.ticket_id_index = v.ticket_id_index for update of t),"
+            + " changed as (update ticket t set status = case when " + permitted("o.status", "v.status")
+            + " then v.status else o.status end"
+            + ", video_url = coalesce(v.video_url, o.video_url)"
+            + ", storage_handle = coalesce(v.storage_handle, o.storage_handle)"
+            + ", size_bytes = coalesce(v.size_bytes, o.size_bytes)"
+            + ", checksum = coalesce(v.checksum, o.checksum)"
+            + ", version = o.version + 1 from old o join v on v.ticket_id_index = o.ticket_id_index"
+            + " where t.id = o.id and t.created_at = o.created_at and (" + permitted("o.status", "v.status")
+            + " or v.video_url is not null and v.video_url is distinct from o.video_url"
+            + " or v.storage_handle is not null and (v.storage_handle, v.size_bytes, v.checksum)"
+            + " is distinct from (o.storage_handle, o.size_bytes, o.checksum))"
+            + " returning t.id, t.status, t.video_url, t.version),"
+            + " logged as (insert into ticket_event (ticket_id, status, at_millis)"
+            + " select c.id, array_position(" + STATUS_ORDER + ", s.status) - 1, v.changed_at_millis"
+            + " from changed c join old o on o.id = c.id join v on v.ticket_id_index = o.ticket_id_index,"
+            + " unnest(v.statuses) as s (status) where " + permitted("o.status", "s.status")
+            + " on conflict do nothing)"
+            + " select o.ticket_id_index, o.status as previous_status, coalesce((select max(e.at_millis)"
+            + " from ticket_event e where e.ticket_id = o.id and e.status = array_position(" + STATUS_ORDER
+            + ", o.status) - 1 and e.at_millis >= " + CREATED_AT_MILLIS + "), " + CREATED_AT_MILLIS
+            + ") as previous_status_at_millis, coalesce(c.status, o.status) as status, " + CREATED_AT_MILLIS
+            + " as created_at_millis, o.casino, o.cabinet_type, o.game_title, o.cents_won,"
+            + " coalesce(c.video_url, o.video_url) as video_url, coalesce(c.version, o.version) as version"
+            + " from old o left join changed c on c.id = o.id";
+
+    /** The JDBC template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * The Class TicketUpdate holds what is to be applied to one ticket.
+     */
+    @AllArgsConstructor
+    private static final class TicketUpdate {
+
+        /** The ticket id blind index. */
+        private final String ticketIdIndex;
+
+        /** The statuses to apply, in order. */
+        private final List<TicketStatusEnum> statuses;
+
+        /** The video url to set (null to leave it unchanged). */
+        private final String videoUrl;
+
+        /** The stored video to set (null to leave it unchanged). */
+        private final StoredVideo storedVideo;
+    }
+
+    /**
+     * Move a ticket to a status, if the transition is permitted, and set its
+     * video url or stored video (whether or not it is).
+     *
+     * @param ticketIdIndex the ticket id blind index
+     * @param status        the new status
+     * @param videoUrl      the video url to set (null to leave it unchanged)
+     * @param storedVideo   the stored video to set (null to leave it
+     *                      unchanged)
+     * @param changedAt     the date-time to record the status change at
+     * @return the status change (null if the ticket was not found)
+     */
+    public TicketStatusChange transition(final String ticketIdIndex, final TicketStatusEnum status,
+            final String videoUrl, final StoredVideo storedVideo, final Date changedAt) {
+        final List<TicketStatusChange> changes = update(
+                List.of(new TicketUpdate(ticketIdIndex, List.of(status), videoUrl, storedVideo)), changedAt);
+        return changes.isEmpty() ? null : changes.get(0);
+    }
+
+    /**
+     * Move tickets through statuses, applying each ticket's statuses in order
+     * (those which are not permitted are skipped).
+     *
+     * @param statusesByTicketIdIndex the statuses to apply in order, keyed by
+     *                                ticket id blind index
+     * @param changedAt               the date-time to record the status
+     *                                changes at
+     * @return the status changes (tickets which were not found are omitted)
+     */
+    public List<TicketStatusChange> transition(final Map<String, List<TicketStatusEnum>> statusesByTicketIdIndex,
+            final Date changedAt) {
+        final List<TicketUpdate> updates = statusesByTicketIdIndex.entrySet().stream()
+                .map(entry -> new TicketUpdate(entry.getKey(), entry.getValue(), null, null))
+                .collect(Collectors.toList());
+
+        final List<TicketStatusChange> changes = new ArrayList<>(updates.size());
+        for (int from = 0; from < updates.size(); from += MAX_TICKETS_PER_STATEMENT) {
+            changes.addAll(
+                    update(updates.subList(from, Math.min(from + MAX_TICKETS_PER_STATEMENT, updates.size())),
+                            changedAt));
+        }
+
+        return changes;
+    }
+
+    /**
+     * Apply updates to tickets in one statement.
+     *
+     * @param updates   the ticket updates
+     * @param changedAt the date-time to record the status changes at
+     * @return the status changes (tickets which were not found are omitted)
+     */
+    private List<TicketStatusChange> update(final List<TicketUpdate> updates, final Date changedAt) {
+        if (updates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final Map<String, List<TicketStatusEnum>> statusesByTicketIdIndex = new HashMap<>();
+        final List<Object> args = new ArrayList<>(8 * updates.size());
+        for (final TicketUpdate update : updates) {
+            final List<TicketStatusEnum> statuses = followingStatuses(update.statuses);
+            statusesByTicketIdIndex.put(update.ticketIdIndex, statuses);
+
+            args.add(update.ticketIdIndex);
+            args.add(statuses.stream().map(TicketStatusEnum::name).collect(Collectors.joining(",")));
+            args.add(statuses.isEmpty() ? null : statuses.get(statuses.size() - 1).name());
+            args.add(changedAt.getTime());
+            args.add(update.videoUrl);
+            args.add(null == update.storedVideo ? null : update.storedVideo.getStorageHandle());
+            args.add(null == update.storedVideo ? null : update.storedVideo.getSizeBytes());
+            args.add(null == update.storedVideo ? null : update.storedVideo.getChecksum());
+        }
+
+        final String sql = UPDATE_HEAD + String.join(", ", Collections.nCopies(updates.size(), VALUES_ROW))
+                + UPDATE_TAIL;
+        return jdbcTemplate.query(sql,
+                (resultSet, rowNum) -> statusChange(resultSet,
+                        statusesByTicketIdIndex.get(resultSet.getString("ticket_id_index")), changedAt),
+                args.toArray());
+    }
+
+    /**
+     * Map a returned row to the status change it describes.
+     *
+     * @param resultSet the result set
+     * @param statuses  the statuses which were to be applied, in order
+     * @param changedAt the date-time the status changes were recorded at
+     * @return the status change
+     * @throws SQLException if a column could not be read
+     */
+    private static TicketStatusChange statusChange(final ResultSet resultSet, final List<TicketStatusEnum> statuses,
+            final Date changedAt) throws SQLException {
+        final TicketStatusEnum previousStatus = TicketStatusEnum.valueOf(resultSet.getString("previous_status"));
+        return new TicketStatusChange(resultSet.getString("ticket_id_index"),
+                statuses.stream().filter(status -> applies(previousStatus, status))
+                        .collect(Collectors.toList()),
+                new Date(resultSet.getLong("previous_status_at_millis")), changedAt,
+                TicketStatusEnum.valueOf(resultSet.getString("status")),
+                new Date(resultSet.getLong("created_at_millis")),
+                resultSet.getString("casino"), resultSet.getString("cabinet_type"),
+                resultSet.getString("game_title"), resultSet.getInt("cents_won"), resultSet.getString("video_url"),
+                resultSet.getInt("version"));
+    }
+
+    /**
+     * Drop the statuses which may not follow the status before them (including
+     * repeats of it, such as a redelivered Failed), so that the statuses which
+     * remain each apply exactly when they are permitted from the ticket's
+     * current status, are logged at most once, and the last of them is the one
+     * the ticket ends in. Claimed can only follow Completed, so is only kept
+     * first.
+     *
+     * @param statuses the statuses, in order
+     * @return the statuses to apply, in order
+     */
+    static List<TicketStatusEnum> followingStatuses(final List<TicketStatusEnum> statuses) {
+        final List<TicketStatusEnum> following = new ArrayList<>(statuses.size());
+        for (final TicketStatusEnum status : statuses) {
+            if (following.isEmpty() || !status.equals(TicketStatusEnum.Claimed)
+                    && applies(following.get(following.size() - 1), status)) {
+                following.add(status);
+            }
+        }
+
+        return following;
+    }
+
+    /**
+     * Whether a ticket in one status is moved to another: the transition must
+     * be permitted, and to a different status.
+     *
+     * @param from the current status
+     * @param to   the new status
+     * @return true, if the ticket is moved
+     */
+    private static boolean applies(final TicketStatusEnum from, final TicketStatusEnum to) {
+        return !from.equals(to) && Ticket.isTransitionPermitted(from, to);
+    }
+
+    /**
+     * The SQL condition under which a ticket is moved from one status to
+     * another (see applies).
+     *
+     * @param from the SQL expression of the current status
+     * @param to   the SQL expression of the new status
+     * @return the SQL condition
+     */
+    private static String permitted(final String from, final String to) {
+        return "(" + from + " <> " + to + " and (" + to + " = '" + TicketStatusEnum.Failed.name() + "' or " + to
+                + " = '" + TicketStatusEnum.Claimed.name() + "' and " + from + " = '"
+                + TicketStatusEnum.Completed.name() + "' or " + to + " <> '" + TicketStatusEnum.Claimed.name()
+                + "' and array_position(" + STATUS_ORDER + ", " + from + ") < array_position(" + STATUS_ORDER
+                + ", " + to + ")))";
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.MessageEOFException;
+
+/**
+ * The Class BytesMessageInputStream adapts the body of a JMS BytesMessage to
+ * an InputStream, so that it can be consumed in chunks rather than copied into
+ * a single byte array.
+ */
+class BytesMessageInputStream extends InputStream {
+
+    /** The bytes message. */
+    private final BytesMessage bytesMessage;
+
+    /**
+     * Instantiates a new bytes message input stream.
+     *
+     * @param bytesMessage the bytes message (positioned at the start of its
+     *                     body)
+     */
+    BytesMessageInputStream(final BytesMessage bytesMessage) {
+        this.bytesMessage = bytesMessage;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#read()
+     */
+    @Override
+    public int read() throws IOException {
+        try {
+            return bytesMessage.readUnsignedByte();
+        } catch (final MessageEOFException e) {
+            return -1;
+        } catch (final JMSException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (0 == len) {
+            return 0;
+        }
+
+        try {
+            if (0 == off) {
+                return bytesMessage.readBytes(b, len);
+            }
+
+            final byte[] chunk = new byte[len];
+            final int numRead = bytesMessage.readBytes(chunk, len);
+            if (numRead > 0) {
+                System.arraycopy(chunk, 0, b, off, numRead);
+            }
+            return numRead;
+        } catch (final JMSException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+/**
+ * The Class DirectRecallDataDispatcher sends the recall data message of a new
+ * ticket straight away, so it is committed together with the ticket by a
+ * two-phase (XA) commit spanning the database and the message broker.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recall-data-outbox", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class DirectRecallDataDispatcher implements RecallDataDispatcher {
+
+    /** The message producer. */
+    @Autowired
+    private GameShareMessageProducer msgProducer;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.messaging.RecallDataDispatcher#dispatch(com.
+     * castlehillgaming.gameshare.model.Ticket)
+     */
+    @Override
+    public void dispatch(final Ticket gameShareTicket) {
+        msgProducer.sendGameShareProcessRecallDataMessage(gameShareTicket);
+        gameShareTicket.setStatus(TicketStatusEnum.Dispatched);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.messaging.RecallDataDispatcher#dispatchAll(
+     * java.util.List)
+     */
+    @Override
+    public void dispatchAll(final List<Ticket> gameShareTickets) {
+        msgProducer.sendGameShareProcessRecallDataMessages(gameShareTickets);
+        gameShareTickets.forEach(gameShareTicket -> gameShareTicket.setStatus(TicketStatusEnum.Dispatched));
+    }
+}
@@ -12,9 +12,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.JmsUtils;
 import org.springframework.stereotype.Component;
 
+import com.castlehillgaming.gameshare.config.JobMessageListenerConfig;
+import com.castlehillgaming.gameshare.model.StoredVideo;
+import com.castlehillgaming.gameshare.model.Ticket;
 import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare.storage.VideoStore;
+import com.castlehillgaming.gameshare.web.InvalidTicketException;
+import com.castlehillgaming.gameshare.web.TicketNotFoundException;
 import com.castlehillgaming.gameshare_commonutils.SharedConstants;
 import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
 
@@ -28,15 +35,102 @@ public class GameShareJobMessageListener {
     @Autowired
     private GameShareService gameShareService;
 
+    /** The video store. */
+    @Autowired
+    private VideoStore videoStore;
+
+    /**
+     * The idempotent message processor (only present when job messages are
+     * consumed in local transactions).
+     */
+    @Autowired(required = false)
+    private IdempotentMessageProcessor idempotentProcessor;
+
     /**
-     * Consume message on the Game Share Job Message Queue.
+     * Consume message on the Game Share Job Message Queue. When job status
+     * batching is enabled, this listener is not started, and all job messages
+     * are consumed by the JobStatusBatchConsumer instead.
+     * <p>
+     * Messages are consumed by spring.jms.listener.concurrency (up to
+     * spring.jms.listener.max-concurrency) concurrent listeners. The job
+     * messages for a ticket are sent in one message group (JMSXGroupID is the
+     * ticket UUID), which the broker dispatches to a single consumer, in order;
+     * as each consumer processes its messages one at a time, a ticket's
+     * messages are processed in the order they were sent, each once the
+     * previous one has been committed. A message without a valid ticket UUID
+     * is logged and dropped.
+     * <p>
+     * Each message is processed in the listener container's XA transaction or,
+     * when job messages are consumed in local transactions, by the idempotent
+     * message processor.
      *
      * @param message the message
      */
-    @JmsListener(destination = SharedConstants.JOB_INFO_MESSAGE_QUEUE_NAME)
+    @JmsListener(destination = SharedConstants.JOB_INFO_MESSAGE_QUEUE_NAME,
+            containerFactory = JobMessageListenerConfig.JOB_LISTENER_CONTAINER_FACTORY)
     public void consumeMessage(final Message message) {
+        final String ticketUuid = ticketUuidOf(message);
+        if (null == ticketUuid) {
+            return;
+        }
+
+        try {
+            if (null == idempotentProcessor) {
+                processMessage(ticketUuid, message);
+            } else {
+                idempotentProcessor.processOnce(message, () -> processMessage(ticketUuid, message));
+            }
+        } catch (final JMSException e) {
+            throw failed(e);
+        }
+    }
+
+    /**
+     * Gets the UUID of the ticket a job message is for, logging a message
+     * which has none, or one which is not a valid ticketId (which must not
+     * reach the video store, where it names the video's file).
+     *
+     * @param message the message
+     * @return the ticket UUID, or null if the message should be dropped
+     * @throws org.springframework.jms.JmsException if the message could not be
+     *                                               read
+     */
+    static String ticketUuidOf(final Message message) {
+        final String ticketUuid;
+        try {
+            ticketUuid = message.getStringProperty(SharedConstants.TICKET_MESSAGE_KEY);
+        } catch (final JMSException e) {
+            throw failed(e);
+        }
+
+        if (null == ticketUuid) {
+            logger.warn("Dropped job message without a " + SharedConstants.TICKET_MESSAGE_KEY + ": " + message);
+            return null;
+        }
+
+        try {
+            Ticket.validateTicketValue(ticketUuid);
+        } catch (final InvalidTicketException e) {
+            logger.warn("Dropped job message with an invalid " + SharedConstants.TICKET_MESSAGE_KEY + ": " + message);
+            return null;
+        }
+        return ticketUuid;
+    }
+
+    /**
+     * Process a message on the Game Share Job Message Queue. A message which
+     * cannot be read fails its transaction, so it is redelivered rather than
+     * acknowledged (or recorded as processed) without being applied. The
+     * video of a Recorded message whose ticket is not found is deleted from the
+     * video store.
+     *
+     * @param ticketUuid the UUID of the ticket the message is for
+     * @param message    the message
+     * @throws org.springframework.jms.JmsException if the message could not be
+     *                                               read
+     */
+    void processMessage(final String ticketUuid, final Message message) {
         try {
-            final String ticketUuid = message.getStringProperty(SharedConstants.TICKET_MESSAGE_KEY);
             final TicketStatusEnum jobStatus = TicketStatusEnum
                     .getInstance(message.getIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY));
             logger.debug("Received job status update message for job with Ticket UUID = " + ticketUuid
@@ -44,22 +138,20 @@ public class GameShareJobMessageListener {
 
             if (jobStatus.equals(TicketStatusEnum.Recorded)) {
                 final BytesMessage bytesMessage = (BytesMessage) message;
+                logger.debug("length of BytesMessage byte[]: " + bytesMessage.getBodyLength());
 
-                byte[] videoBytes = null;
+                // copy the video to the video store in chunks rather than
+                // reading the whole message payload into a single byte[]
+                final StoredVideo storedVideo = videoStore.store(ticketUuid,
+                        new BytesMessageInputStream(bytesMessage));
 
-                final long numBytes = bytesMessage.getBodyLength();
-                logger.debug("length of BytesMessage byte[]: " + numBytes);
-
-                if (numBytes <= Integer.MAX_VALUE) {
-                    final int numBytesInt = (int) numBytes;
-                    videoBytes = new byte[numBytesInt];
-                    bytesMessage.readBytes(videoBytes);
-                } else {
-                    logger.warn("Size of video byte array in BytesMessage exceeds " + Integer.MAX_VALUE
-                            + " - Cannot read message payload into byte[]");
+                try {
+                    gameShareService.saveVideo(ticketUuid, storedVideo);
+                } catch (final TicketNotFoundException e) {
+                    // don't leave the video of an unknown ticket in the store
+                    videoStore.delete(storedVideo);
+                    throw e;
                 }
-
-                gameShareService.saveVideo(ticketUuid, videoBytes);
             } else if (jobStatus.equals(TicketStatusEnum.Completed)) {
                 final TextMessage textMessage = (TextMessage) message;
                 final String videoUrl = textMessage.getText();
@@ -68,8 +160,19 @@ public class GameShareJobMessageListener {
                 gameShareService.updateJobStatus(ticketUuid, jobStatus);
             }
         } catch (final JMSException e) {
-            e.printStackTrace();
+            throw failed(e);
         }
     }
 
+    /**
+     * Log a failure to read a job message, and convert it to the unchecked
+     * exception which fails the message's transaction.
+     *
+     * @param e the JMS exception
+     * @return the exception to throw
+     */
+    private static RuntimeException failed(final JMSException e) {
+        logger.error("could not read job message", e);
+        return JmsUtils.convertJmsAccessException(e);
+    }
 }
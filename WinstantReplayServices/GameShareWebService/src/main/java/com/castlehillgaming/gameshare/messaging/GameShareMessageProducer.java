@@ -3,6 +3,8 @@
  */
 package com.castlehillgaming.gameshare.messaging;
 
+import java.util.List;
+
 import com.castlehillgaming.gameshare.model.Ticket;
 
 /**
@@ -12,9 +14,38 @@ import com.castlehillgaming.gameshare.model.Ticket;
 public interface GameShareMessageProducer {
 
     /**
-     * Send game share process recall data message.
+     * Send game share process recall data message. The ticket is left as it
+     * is; the caller marks it Dispatched.
      *
      * @param gameShareTicket the game share ticket
      */
     void sendGameShareProcessRecallDataMessage(Ticket gameShareTicket);
+
+    /**
+     * Send the game share process recall data messages of several tickets, in
+     * order, through one JMS session and message producer. The tickets are
+     * left as they are; the caller marks them Dispatched.
+     *
+     * @param gameShareTickets the game share tickets
+     */
+    void sendGameShareProcessRecallDataMessages(List<Ticket> gameShareTickets);
+
+    /**
+     * Send the game share process recall data messages of several tickets, in
+     * order, in a local JMS transaction which is committed before this returns.
+     * Unlike sendGameShareProcessRecallDataMessages, the messages are not sent
+     * in the caller's (XA) transaction, so they are sent even if it is rolled
+     * back. The tickets are left as they are; the caller marks them Dispatched.
+     *
+     * @param gameShareTickets the game share tickets
+     */
+    void sendGameShareProcessRecallDataMessagesLocally(List<Ticket> gameShareTickets);
+
+    /**
+     * Send ticket completed message (to every node, so that requests waiting
+     * for the ticket to be completed are woken wherever they are waiting).
+     *
+     * @param ticketValue the ticketId value
+     */
+    void sendTicketCompletedMessage(String ticketValue);
 }
@@ -4,18 +4,28 @@
 package com.castlehillgaming.gameshare.messaging;
 
 import java.io.Serializable;
+import java.util.List;
 
-import javax.jms.TextMessage;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
 
+import org.apache.activemq.ActiveMQConnectionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jms.activemq.ActiveMQProperties;
+import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
 import org.springframework.stereotype.Component;
 
 import com.castlehillgaming.gameshare.model.Ticket;
 import com.castlehillgaming.gameshare_commonutils.SharedConstants;
-import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
 
 /**
  * The Class GameShareMessageProducerImpl implements GameShareMessageProducer
@@ -34,6 +44,55 @@ public class GameShareMessageProducerImpl implements GameShareMessageProducer, S
     @Autowired
     private JmsTemplate jmsTemplate;
 
+    /** The ActiveMQ properties. */
+    @Autowired
+    private ActiveMQProperties activeMqProps;
+
+    /** The recall data outbox properties. */
+    @Autowired
+    private RecallDataOutboxProperties outboxProps;
+
+    /**
+     * The JMS template sending in local (non-XA) transactions, on its own
+     * connection to the broker (null unless recall data messages are
+     * dispatched through the outbox).
+     */
+    private JmsTemplate localJmsTemplate;
+
+    /** The recall data message properties. */
+    @Autowired
+    private RecallDataMessageProperties recallDataMessageProps;
+
+    /** The recall data priorities (null if recall data messages are not prioritized). */
+    @Autowired(required = false)
+    private RecallDataPriorities recallDataPriorities;
+
+    /**
+     * Create the JMS template sending in local transactions, if recall data
+     * messages are dispatched through the outbox. Its connection factory is not
+     * the (XA) JMS connection factory, so its sessions are never enlisted in a
+     * JTA transaction.
+     */
+    @PostConstruct
+    void init() {
+        if (outboxProps.isEnabled()) {
+            final ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory(
+                    activeMqProps.getUser(), activeMqProps.getPassword(), determineBrokerUrl());
+            localJmsTemplate = new JmsTemplate(new CachingConnectionFactory(connectionFactory));
+            localJmsTemplate.setSessionTransacted(true);
+        }
+    }
+
+    /**
+     * Close the connection of the JMS template sending in local transactions.
+     */
+    @PreDestroy
+    void destroy() {
+        if (null != localJmsTemplate) {
+            ((CachingConnectionFactory) localJmsTemplate.getConnectionFactory()).destroy();
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -42,24 +101,143 @@ public class GameShareMessageProducerImpl implements GameShareMessageProducer, S
      */
     @Override
     public void sendGameShareProcessRecallDataMessage(final Ticket gameShareTicket) {
-        jmsTemplate.send(SharedConstants.RECALLDATA_PROCESSING_MESSAGE_QUEUE_NAME, session -> {
-            final TextMessage message = session
-                    .createTextMessage(gameShareTicket.getGameShareInfo().getGameRecallData());
-            message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, gameShareTicket.getTicketId());
-            message.setStringProperty(SharedConstants.GAME_TITLE_MESSAGE_KEY,
-                    gameShareTicket.getGameShareInfo().getGameTitle());
-            message.setStringProperty(SharedConstants.CASINO_NAME_MESSAGE_KEY,
-                    gameShareTicket.getGameShareInfo().getCasino());
-            message.setStringProperty(SharedConstants.CABINET_TYPE_MESSAGE_KEY,
-                    gameShareTicket.getGameShareInfo().getCabinetType());
-            message.setLongProperty(SharedConstants.GAME_PLAY_TIME_MESSAGE_KEY,
-                    gameShareTicket.getGameShareInfo().getGamePlayedAt());
-
-            logger.debug("sending JMS message: " + message.getStringProperty(SharedConstants.TICKET_MESSAGE_KEY));
-
-            return message;
+        sendRecallDataMessages(jmsTemplate, List.of(gameShareTicket));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.messaging.GameShareMessageProducer#
+     * sendGameShareProcessRecallDataMessages(java.util.List)
+     */
+    @Override
+    public void sendGameShareProcessRecallDataMessages(final List<Ticket> gameShareTickets) {
+        if (gameShareTickets.isEmpty()) {
+            return;
+        }
+
+        sendRecallDataMessages(jmsTemplate, gameShareTickets);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.messaging.GameShareMessageProducer#
+     * sendGameShareProcessRecallDataMessagesLocally(java.util.List)
+     */
+    @Override
+    public void sendGameShareProcessRecallDataMessagesLocally(final List<Ticket> gameShareTickets) {
+        if (null == localJmsTemplate) {
+            throw new IllegalStateException("recall data messages are only sent locally by the outbox relay");
+        }
+        if (gameShareTickets.isEmpty()) {
+            return;
+        }
+
+        sendRecallDataMessages(localJmsTemplate, gameShareTickets);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.messaging.GameShareMessageProducer#
+     * sendTicketCompletedMessage(java.lang.String)
+     */
+    @Override
+    public void sendTicketCompletedMessage(final String ticketValue) {
+        jmsTemplate.execute(session -> {
+            final MessageProducer producer = session.createProducer(jmsTemplate.getDestinationResolver()
+                    .resolveDestinationName(session, TicketCompletionListener.TICKET_COMPLETED_TOPIC_NAME, true));
+            try {
+                final Message message = session.createMessage();
+                message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, ticketValue);
+                producer.send(message);
+            } finally {
+                JmsUtils.closeMessageProducer(producer);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Send the recall data messages of tickets with one message producer, each
+     * with the JMS priority of its priority class, or the highest priority if
+     * it has waited too long (if messages are prioritized). A locally
+     * transacted session is committed once all of the messages have been sent.
+     *
+     * @param template         the JMS template to send with
+     * @param gameShareTickets the game share tickets
+     */
+    private void sendRecallDataMessages(final JmsTemplate template, final List<Ticket> gameShareTickets) {
+        template.execute(session -> {
+            final MessageProducer producer = session.createProducer(template.getDestinationResolver()
+                    .resolveDestinationName(session, SharedConstants.RECALLDATA_PROCESSING_MESSAGE_QUEUE_NAME, false));
+            try {
+                for (final Ticket gameShareTicket : gameShareTickets) {
+                    final Message message = createRecallDataMessage(session, gameShareTicket);
+                    if (null == recallDataPriorities) {
+                        producer.send(message);
+                    } else {
+                        producer.send(message, producer.getDeliveryMode(),
+                                recallDataPriorities.priorityOf(gameShareTicket.getGameShareInfo(),
+                                        gameShareTicket.getCreatedAt()),
+                                producer.getTimeToLive());
+                    }
+                }
+            } finally {
+                JmsUtils.closeMessageProducer(producer);
+            }
+            if (template.isSessionTransacted()) {
+                session.commit();
+            }
+            return null;
         });
+    }
+
+    /**
+     * Determine the URL of the broker, as the JMS connection factory does.
+     *
+     * @return the broker URL
+     */
+    private String determineBrokerUrl() {
+        if (null != activeMqProps.getBrokerUrl()) {
+            return activeMqProps.getBrokerUrl();
+        }
+
+        return activeMqProps.isInMemory() ? "vm://localhost?broker.persistent=false" : "tcp://localhost:61616";
+    }
+
+    /**
+     * Create the recall data message of a ticket.
+     *
+     * @param session         the JMS session
+     * @param gameShareTicket the game share ticket
+     * @return the recall data message
+     * @throws JMSException if the message could not be created
+     */
+    private Message createRecallDataMessage(final Session session, final Ticket gameShareTicket)
+            throws JMSException {
+        final Message message;
+        if (recallDataMessageProps.isBinary()) {
+            // the recall data is sent as encoded at ingest, not decoded and re-encoded
+            final BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(gameShareTicket.getEncodedGameRecallData());
+            message = bytesMessage;
+        } else {
+            message = session.createTextMessage(gameShareTicket.getGameRecallData());
+        }
+        message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, gameShareTicket.getTicketId());
+        message.setStringProperty(SharedConstants.GAME_TITLE_MESSAGE_KEY,
+                gameShareTicket.getGameShareInfo().getGameTitle());
+        message.setStringProperty(SharedConstants.CASINO_NAME_MESSAGE_KEY,
+                gameShareTicket.getGameShareInfo().getCasino());
+        message.setStringProperty(SharedConstants.CABINET_TYPE_MESSAGE_KEY,
+                gameShareTicket.getGameShareInfo().getCabinetType());
+        message.setLongProperty(SharedConstants.GAME_PLAY_TIME_MESSAGE_KEY,
+                gameShareTicket.getGameShareInfo().getGamePlayedAt());
+
+        logger.debug("sending JMS message: " + message.getStringProperty(SharedConstants.TICKET_MESSAGE_KEY));
 
-        gameShareTicket.setStatus(TicketStatusEnum.Dispatched);
+        return message;
     }
 }
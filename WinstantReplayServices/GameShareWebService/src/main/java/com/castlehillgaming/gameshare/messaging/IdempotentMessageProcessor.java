@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.dao.ProcessedMessageRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class IdempotentMessageProcessor processes job messages consumed in
+ * local transactions (job-message-consumer.transaction-mode: local). Each
+ * message is processed in a database transaction which also records its
+ * message id as processed, and is only acknowledged once that transaction has
+ * committed. A message redelivered because its acknowledgement was lost finds
+ * its processed message record, so it is acknowledged without being processed
+ * again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "job-message-consumer", name = "transaction-mode", havingValue = "local")
+public class IdempotentMessageProcessor {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentMessageProcessor.class);
+
+    /** The processed message repository. */
+    @Autowired
+    private ProcessedMessageRepository processedMessageRepo;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The job message consumer properties. */
+    @Autowired
+    private JobMessageConsumerProperties consumerProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The number of redelivered messages which had already been processed. */
+    private Counter duplicatesCounter;
+
+    /**
+     * Initialize the duplicate metrics.
+     */
+    @PostConstruct
+    void init() {
+        duplicatesCounter = Counter.builder("gameshare.jobmessage.duplicates")
+                .description("redelivered job messages skipped because they had already been processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Process a message, unless it has already been processed, in a new
+     * transaction. If processing fails, the exception is rethrown to the
+     * listener container, which recovers its session rather than acknowledging
+     * the message, so the message is redelivered.
+     *
+     * @param message    the message
+     * @param processing the processing of the message
+     * @throws JMSException if the message id could not be read
+     */
+    public void processOnce(final Message message, final Runnable processing) throws JMSException {
+        final String messageId = message.getJMSMessageID();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (markProcessed(messageId)) {
+                processing.run();
+            }
+        });
+    }
+
+    /**
+     * Record the messages of a batch as processed in the current transaction.
+     *
+     * @param messages the messages
+     * @return the messages which had not already been processed, in order
+     * @throws JMSException if a JMS error occurs
+     */
+    public List<Message> markProcessed(final List<Message> messages) throws JMSException {
+        final List<Message> unprocessed = new ArrayList<>(messages.size());
+        for (final Message message : messages) {
+            if (markProcessed(message.getJMSMessageID())) {
+                unprocessed.add(message);
+            }
+        }
+
+        return unprocessed;
+    }
+
+    /**
+     * Purge the records of messages processed longer ago than the retention
+     * time.
+     */
+    @Scheduled(fixedDelayString = "${job-message-consumer.processed-message-purge-interval-millis:3600000}")
+    public void purge() {
+        final Date processedBefore = new Date(
+                System.currentTimeMillis() - consumerProps.getProcessedMessageRetentionMillis());
+        final Integer numPurged = transactionTemplate
+                .execute(status -> processedMessageRepo.deleteProcessedBefore(processedBefore));
+        logger.debug("purged " + numPurged + " processed message record(s)");
+    }
+
+    /**
+     * Record a message as processed in the current transaction.
+     *
+     * @param messageId the JMS message id
+     * @return true if the message had not already been processed
+     */
+    private boolean markProcessed(final String messageId) {
+        if (processedMessageRepo.insertIfAbsent(messageId, new Date()) > 0) {
+            return true;
+        }
+
+        logger.debug("skipping already processed message " + messageId);
+        duplicatesCounter.increment();
+        return false;
+    }
+}
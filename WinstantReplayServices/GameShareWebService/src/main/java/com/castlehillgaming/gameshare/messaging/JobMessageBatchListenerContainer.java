@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.transaction.TransactionStatus;
+
+/**
+ * The Class JobMessageBatchListenerContainer receives job messages in batches
+ * for the JobStatusBatchConsumer. It runs one consumer, on its own thread, which
+ * is created once and kept (CACHE_CONSUMER), so the messages the broker has
+ * prefetched for it stay with it from one batch to the next.
+ * <p>
+ * Each batch is received and consumed in one transaction of the container:
+ * the JTA transaction in XA mode, in which the consumer's session is enlisted
+ * on each receive; or, when job messages are consumed in local transactions,
+ * on a client acknowledged session, whose last message is acknowledged (and
+ * with it the whole batch) once the batch has been consumed. A batch which
+ * fails is rolled back or recovered by the container, so all of its messages
+ * are redelivered.
+ */
+public class JobMessageBatchListenerContainer extends DefaultMessageListenerContainer {
+
+    /** The job status batch consumer. */
+    private final JobStatusBatchConsumer batchConsumer;
+
+    /** The job status batch properties. */
+    private final JobStatusBatchProperties batchProps;
+
+    /**
+     * Instantiates a new job message batch listener container.
+     *
+     * @param batchConsumer the job status batch consumer
+     * @param batchProps    the job status batch properties
+     */
+    public JobMessageBatchListenerContainer(final JobStatusBatchConsumer batchConsumer,
+            final JobStatusBatchProperties batchProps) {
+        this.batchConsumer = batchConsumer;
+        this.batchProps = batchProps;
+        setConcurrentConsumers(1);
+        setCacheLevel(CACHE_CONSUMER);
+    }
+
+    /**
+     * Receive a batch of messages and have it consumed, in the transaction the
+     * container has begun (if any).
+     *
+     * @param invoker  the invoker of the listener
+     * @param session  the (cached) session to receive on
+     * @param consumer the (cached) consumer to receive with
+     * @param status   the transaction status (null if no transaction manager)
+     * @return true if a batch was received
+     * @throws JMSException if the messages could not be received
+     */
+    @Override
+    protected boolean doReceiveAndExecute(final Object invoker, final Session session,
+            final MessageConsumer consumer, final TransactionStatus status) throws JMSException {
+        if (null == session || null == consumer) {
+            throw new IllegalStateException("job message batches are only received with a cached consumer");
+        }
+
+        final List<Message> batch = receiveBatch(consumer);
+        if (batch.isEmpty()) {
+            noMessageReceived(invoker, session);
+            return false;
+        }
+
+        messageReceived(invoker, session);
+        try {
+            batchConsumer.consumeBatch(batch);
+            commitIfNecessary(session, batch.get(batch.size() - 1));
+        } catch (final JMSException | RuntimeException e) {
+            if (null != status) {
+                status.setRollbackOnly();
+            }
+            rollbackOnExceptionIfNecessary(session, e);
+            handleListenerException(e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Receive a batch of up to maxBatchSize messages: the first waits up to the
+     * container's receive timeout, and the rest up to lingerMillis after it.
+     *
+     * @param consumer the consumer
+     * @return the messages in arrival order (empty if none arrived)
+     * @throws JMSException if a JMS error occurs
+     */
+    private List<Message> receiveBatch(final MessageConsumer consumer) throws JMSException {
+        final List<Message> batch = new ArrayList<>();
+        Message message = receiveMessage(consumer);
+        final long lingerUntil = System.currentTimeMillis() + batchProps.getLingerMillis();
+
+        while (null != message) {
+            batch.add(message);
+            if (batch.size() >= batchProps.getMaxBatchSize()) {
+                break;
+            }
+
+            final long lingerMillis = lingerUntil - System.currentTimeMillis();
+            message = lingerMillis > 0 ? consumer.receive(lingerMillis) : consumer.receiveNoWait();
+        }
+
+        return batch;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class JobMessageConsumerProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "job-message-consumer")
+public class JobMessageConsumerProperties {
+
+    /**
+     * How job messages are consumed.
+     */
+    public enum TransactionMode {
+
+        /**
+         * Each message is received and processed in one XA transaction spanning
+         * the broker and the database (exactly-once, two-phase commit).
+         */
+        XA,
+
+        /**
+         * Each message is processed in a database-only transaction (committed
+         * in one phase), then acknowledged; a redelivered message which has
+         * already been processed is recognised by its processed message record
+         * and only acknowledged (effectively-once).
+         */
+        LOCAL
+    }
+
+    /** How job messages are consumed. */
+    private @Getter @Setter TransactionMode transactionMode = TransactionMode.XA;
+
+    /**
+     * How long (in milliseconds) processed message records are kept; longer
+     * than any message can wait to be redelivered.
+     */
+    private @Getter @Setter long processedMessageRetentionMillis = 86400000;
+
+    /** The interval (in milliseconds) between purges of expired processed message records. */
+    private @Getter @Setter long processedMessagePurgeIntervalMillis = 3600000;
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare_commonutils.SharedConstants;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The Class JobStatusBatchConsumer consumes the messages on the Game Share Job
+ * Message Queue in batches, in place of the GameShareJobMessageListener. Each
+ * batch drains up to maxBatchSize messages (waiting at most lingerMillis for
+ * them to arrive), collapses the plain job status updates for each ticket into
+ * a single ticket update, and applies all of them - and acknowledges all of
+ * the messages - in one transaction (see consumeBatch). The batches are
+ * received by the JobMessageBatchListenerContainer, on its own thread, with
+ * one long-lived consumer; as it is the queue's only consumer, the messages
+ * are consumed in the order they were sent.
+ */
+@Component
+@ConditionalOnProperty(prefix = "job-status-batch", name = "enabled", havingValue = "true")
+public class JobStatusBatchConsumer {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(JobStatusBatchConsumer.class);
+
+    /** The game share service. */
+    @Autowired
+    private GameShareService gameShareService;
+
+    /**
+     * The job message listener, which processes the messages carrying a
+     * payload.
+     */
+    @Autowired
+    private GameShareJobMessageListener jobMessageListener;
+
+    /** The job status batch properties. */
+    @Autowired
+    private JobStatusBatchProperties batchProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * The idempotent message processor (only present when job messages are
+     * consumed in local transactions).
+     */
+    @Autowired(required = false)
+    private IdempotentMessageProcessor idempotentProcessor;
+
+    /** The number of messages consumed per batch. */
+    private DistributionSummary batchSizeSummary;
+
+    /** The number of updates collapsed into another update for the same ticket. */
+    private Counter collapsedUpdatesCounter;
+
+    /** The time taken to apply each batch. */
+    private Timer applyBatchTimer;
+
+    /**
+     * Initialize the batch metrics.
+     */
+    @PostConstruct
+    void init() {
+        batchSizeSummary = DistributionSummary.builder("gameshare.jobstatus.batch.size")
+                .description("job status messages consumed per batch").register(meterRegistry);
+        collapsedUpdatesCounter = Counter.builder("gameshare.jobstatus.batch.collapsed")
+                .description("job status updates collapsed into a later update for the same ticket")
+                .register(meterRegistry);
+        applyBatchTimer = Timer.builder("gameshare.jobstatus.batch.apply")
+                .description("time taken to apply a batch of job status updates").register(meterRegistry);
+        Gauge.builder("gameshare.jobstatus.batch.max.size", batchProps, JobStatusBatchProperties::getMaxBatchSize)
+                .description("configured maximum job status batch size").register(meterRegistry);
+        Gauge.builder("gameshare.jobstatus.batch.linger", batchProps, JobStatusBatchProperties::getLingerMillis)
+                .description("configured job status batch linger time").baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consume and apply one batch of job messages, in the transaction the
+     * JobMessageBatchListenerContainer received them in. Plain job status
+     * updates are collapsed until the next message carrying a payload (a
+     * Recorded video or a Completed video URL), which is processed by the job
+     * message listener once the updates before it have been applied; so each
+     * ticket's messages take effect in the order they were sent. Any failure
+     * fails the whole batch, so all of its messages are redelivered.
+     * <p>
+     * In XA mode the batch is applied in the container's XA transaction; when
+     * job messages are consumed in local transactions, it is applied in a
+     * database transaction (skipping any messages already processed), and the
+     * container only acknowledges it once that has committed.
+     *
+     * @param messages the messages in arrival order
+     * @throws JMSException if a JMS error occurs
+     */
+    public void consumeBatch(final List<Message> messages) throws JMSException {
+        logger.debug("Received batch of " + messages.size() + " job status update messages");
+        batchSizeSummary.record(messages.size());
+
+        if (null == idempotentProcessor) {
+            applyInOrder(messages);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    applyInOrder(idempotentProcessor.markProcessed(messages));
+                } catch (final JMSException e) {
+                    throw JmsUtils.convertJmsAccessException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Apply a batch of job messages in order: each run of plain job status
+     * updates is collapsed and applied before the payload message following
+     * it is processed.
+     *
+     * @param messages the messages in arrival order
+     * @throws JMSException if a JMS error occurs
+     */
+    private void applyInOrder(final List<Message> messages) throws JMSException {
+        final List<Message> statusUpdates = new ArrayList<>(messages.size());
+        for (final Message message : messages) {
+            if (carriesPayload(message)) {
+                applyBatch(collapse(statusUpdates));
+                statusUpdates.clear();
+
+                final String ticketUuid = GameShareJobMessageListener.ticketUuidOf(message);
+                if (null != ticketUuid) {
+                    jobMessageListener.processMessage(ticketUuid, message);
+                }
+            } else {
+                statusUpdates.add(message);
+            }
+        }
+        applyBatch(collapse(statusUpdates));
+    }
+
+    /**
+     * Whether a job message carries a payload (a Recorded video or a Completed
+     * video URL) rather than a plain job status update.
+     *
+     * @param message the message
+     * @return true, if the message carries a payload
+     * @throws JMSException if a JMS error occurs
+     */
+    private static boolean carriesPayload(final Message message) throws JMSException {
+        final TicketStatusEnum jobStatus = TicketStatusEnum
+                .getInstance(message.getIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY));
+        return TicketStatusEnum.Recorded.equals(jobStatus) || TicketStatusEnum.Completed.equals(jobStatus);
+    }
+
+    /**
+     * Collapse job status update messages into one update for each ticket: the
+     * statuses it is moved through, in arrival order, ending in the furthest
+     * status it may be moved to. A status which may not follow the one before
+     * it (a repeat, or an earlier status arriving late) is dropped, as is a
+     * message without a ticket UUID.
+     *
+     * @param messages the messages in arrival order
+     * @return the job status updates in arrival order, keyed by ticket UUID
+     * @throws JMSException if a JMS error occurs
+     */
+    Map<String, List<TicketStatusEnum>> collapse(final List<Message> messages) throws JMSException {
+        final Map<String, List<TicketStatusEnum>> jobStatusUpdates = new LinkedHashMap<>();
+        int numUpdates = 0;
+        for (final Message message : messages) {
+            final String ticketUuid = GameShareJobMessageListener.ticketUuidOf(message);
+            if (null == ticketUuid) {
+                continue;
+            }
+
+            numUpdates++;
+            final TicketStatusEnum jobStatus = TicketStatusEnum
+                    .getInstance(message.getIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY));
+            final List<TicketStatusEnum> statuses = jobStatusUpdates.computeIfAbsent(ticketUuid,
+                    k -> new ArrayList<>(2));
+            if (statuses.isEmpty() || follows(statuses.get(statuses.size() - 1), jobStatus)) {
+                statuses.add(jobStatus);
+            }
+        }
+
+        collapsedUpdatesCounter.increment(numUpdates - jobStatusUpdates.size());
+        return jobStatusUpdates;
+    }
+
+    /**
+     * Whether a status may follow another in a ticket's update.
+     *
+     * @param from the status before
+     * @param to   the status after
+     * @return true, if the ticket may be moved on from one to the other
+     */
+    private static boolean follows(final TicketStatusEnum from, final TicketStatusEnum to) {
+        return !from.equals(to) && Ticket.isTransitionPermitted(from, to);
+    }
+
+    /**
+     * Apply the job status updates of a batch.
+     *
+     * @param jobStatusUpdates the job status updates in arrival order, keyed by
+     *                         ticket UUID
+     */
+    private void applyBatch(final Map<String, List<TicketStatusEnum>> jobStatusUpdates) {
+        if (!jobStatusUpdates.isEmpty()) {
+            final int numUpdated = applyBatchTimer
+                    .record(() -> gameShareService.updateJobStatuses(jobStatusUpdates));
+            if (numUpdated < jobStatusUpdates.size()) {
+                logger.warn("Job status batch referenced " + (jobStatusUpdates.size() - numUpdated)
+                        + " unknown ticket(s); their updates were skipped");
+            }
+        }
+    }
+}
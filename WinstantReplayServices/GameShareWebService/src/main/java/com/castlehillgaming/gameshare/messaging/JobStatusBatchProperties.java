@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class JobStatusBatchProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "job-status-batch")
+public class JobStatusBatchProperties {
+
+    /**
+     * Whether job status messages are consumed in batches (rather than one per
+     * transaction).
+     */
+    private @Getter @Setter boolean enabled;
+
+    /** The maximum number of job status messages consumed in one batch. */
+    private @Getter @Setter int maxBatchSize = 200;
+
+    /**
+     * The maximum time (in milliseconds) to wait for a batch to fill before
+     * applying it.
+     */
+    private @Getter @Setter long lingerMillis = 50;
+}
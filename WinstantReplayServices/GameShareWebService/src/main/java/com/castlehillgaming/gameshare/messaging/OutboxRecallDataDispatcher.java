@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.dao.OutboxMessageRepository;
+import com.castlehillgaming.gameshare.dao.TicketRepository;
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.OutboxMessage;
+import com.castlehillgaming.gameshare.model.Ticket;
+
+/**
+ * The Class OutboxRecallDataDispatcher writes an outbox message for a new
+ * ticket instead of sending its recall data message, so that submitting a
+ * ticket only involves the database (and is committed in one phase). The
+ * RecallDataOutboxRelay sends the message later.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recall-data-outbox", name = "enabled", havingValue = "true")
+public class OutboxRecallDataDispatcher implements RecallDataDispatcher {
+
+    /** The ticket repository. */
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    /** The outbox message repository. */
+    @Autowired
+    private OutboxMessageRepository outboxRepo;
+
+    /** The recall data priorities (null if recall data messages are not prioritized). */
+    @Autowired(required = false)
+    private RecallDataPriorities recallDataPriorities;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.messaging.RecallDataDispatcher#dispatch(com.
+     * castlehillgaming.gameshare.model.Ticket)
+     */
+    @Override
+    public void dispatch(final Ticket gameShareTicket) {
+        // the outbox message references the ticket, so the ticket is saved first
+        outboxRepo.save(outboxMessageOf(ticketRepo.save(gameShareTicket)));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.messaging.RecallDataDispatcher#dispatchAll(
+     * java.util.List)
+     */
+    @Override
+    public void dispatchAll(final List<Ticket> gameShareTickets) {
+        // outbox message ids follow ticket order, so the relay sends them in order
+        outboxRepo.saveAll(ticketRepo.saveAll(gameShareTickets).stream().map(this::outboxMessageOf)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Create the outbox message of a ticket, with the priority of its class.
+     *
+     * @param gameShareTicket the game share ticket
+     * @return the outbox message
+     */
+    private OutboxMessage outboxMessageOf(final Ticket gameShareTicket) {
+        if (null == recallDataPriorities) {
+            return new OutboxMessage(gameShareTicket);
+        }
+
+        final GameShareInfo gameShareInfo = gameShareTicket.getGameShareInfo();
+        return new OutboxMessage(gameShareTicket, recallDataPriorities
+                .classify(gameShareInfo.getCasino(), gameShareInfo.getCentsWon()).getJmsPriority());
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.List;
+
+import com.castlehillgaming.gameshare.model.Ticket;
+
+/**
+ * The Interface RecallDataDispatcher dispatches the game recall data of newly
+ * submitted tickets for processing.
+ */
+public interface RecallDataDispatcher {
+
+    /**
+     * Dispatch the game recall data of a new (not yet saved) ticket. This must be
+     * called within the transaction which saves the ticket.
+     *
+     * @param gameShareTicket the game share ticket
+     */
+    void dispatch(Ticket gameShareTicket);
+
+    /**
+     * Dispatch the game recall data of several new (not yet saved) tickets, in
+     * order. This must be called within the transaction which saves the
+     * tickets.
+     *
+     * @param gameShareTickets the game share tickets
+     */
+    void dispatchAll(List<Ticket> gameShareTickets);
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class RecallDataMessageProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "recall-data-message")
+public class RecallDataMessageProperties {
+
+    /**
+     * Whether recall data is sent as a BytesMessage holding the encoded (see
+     * RecallDataEncoding) recall data, rather than as a TextMessage. Only turn
+     * this off while video recorders which cannot decode it are still running.
+     */
+    private @Getter @Setter boolean binary = true;
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class RecallDataOutboxProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "recall-data-outbox")
+public class RecallDataOutboxProperties {
+
+    /**
+     * Whether recall data messages are dispatched through the outbox (rather
+     * than sent in the transaction which submits the ticket).
+     */
+    private @Getter @Setter boolean enabled;
+
+    /** The maximum number of outbox messages relayed in one transaction. */
+    private @Getter @Setter int batchSize = 100;
+
+    /** The time (in milliseconds) between polls of an empty outbox. */
+    private @Getter @Setter long pollIntervalMillis = 100;
+}
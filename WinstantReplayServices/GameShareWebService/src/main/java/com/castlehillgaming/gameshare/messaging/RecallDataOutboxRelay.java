@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.dao.OutboxMessageRepository;
+import com.castlehillgaming.gameshare.dao.TicketRepository;
+import com.castlehillgaming.gameshare.model.OutboxMessage;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The Class RecallDataOutboxRelay sends the recall data messages recorded in
+ * the outbox. Each batch of outbox messages is locked in a database
+ * transaction, and its messages are sent (in id order, so messages are sent in
+ * the order their tickets were submitted) in a local JMS transaction of their
+ * own, which is committed before the tickets are marked Dispatched and the
+ * outbox messages deleted. The database is then the only resource of its
+ * transaction, so no XA two-phase commit is needed; a failure after the
+ * messages have been sent leaves the batch in the outbox, so it is sent again:
+ * delivery is at-least-once. An outbox message whose ticket no longer exists
+ * (there is no foreign key to the partitioned ticket table) is deleted without
+ * being sent. If the RecallDataScheduler is enabled, each batch is also
+ * limited to the room the recorders have for more tickets; if recall data
+ * messages are prioritized, the held tickets are dispatched in priority order
+ * (see RecallDataPriorities).
+ * <p>
+ * The tickets are marked Dispatched by one guarded update (see
+ * TicketStatusTransitions), like any other job status update, so a recorder's
+ * status update racing the relay is applied in turn rather than failing the
+ * batch on the Ticket's optimistic lock.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recall-data-outbox", name = "enabled", havingValue = "true")
+public class RecallDataOutboxRelay {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(RecallDataOutboxRelay.class);
+
+    /** The statuses a ticket is dispatched by. */
+    private static final List<TicketStatusEnum> DISPATCHED = List.of(TicketStatusEnum.Dispatched);
+
+    /** The outbox message repository. */
+    @Autowired
+    private OutboxMessageRepository outboxRepo;
+
+    /** The ticket repository. */
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    /** The game share service. */
+    @Autowired
+    private GameShareService gameShareService;
+
+    /** The message producer. */
+    @Autowired
+    private GameShareMessageProducer msgProducer;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The recall data outbox properties. */
+    @Autowired
+    private RecallDataOutboxProperties outboxProps;
+
+    /** The recall data scheduler (null if tickets are not held for capacity). */
+    @Autowired(required = false)
+    private RecallDataScheduler recallDataScheduler;
+
+    /** The recall data priorities (null if recall data messages are not prioritized). */
+    @Autowired(required = false)
+    private RecallDataPriorities recallDataPriorities;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The number of outbox messages relayed. */
+    private Counter relayedCounter;
+
+    /** The number of outbox messages deleted because their ticket was gone. */
+    private Counter orphanedCounter;
+
+    /** The time taken to relay each batch. */
+    private Timer relayBatchTimer;
+
+    /**
+     * Initialize the relay metrics.
+     */
+    @PostConstruct
+    void init() {
+        relayedCounter = Counter.builder("gameshare.outbox.relayed")
+                .description("recall data messages relayed from the outbox").register(meterRegistry);
+        orphanedCounter = Counter.builder("gameshare.outbox.orphaned")
+                .description("outbox messages deleted because their ticket no longer exists")
+                .register(meterRegistry);
+        relayBatchTimer = Timer.builder("gameshare.outbox.batch")
+                .description("time taken to relay a batch of outbox messages").register(meterRegistry);
+    }
+
+    /**
+     * Relay outbox messages, one batch per transaction, until the outbox is
+     * drained.
+     */
+    @Scheduled(fixedDelayString = "${recall-data-outbox.poll-interval-millis:100}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+        } while (relayed == outboxProps.getBatchSize());
+    }
+
+    /**
+     * Relay one batch of outbox messages.
+     *
+     * @return the number of outbox messages relayed
+     */
+    private int relayBatch() {
+        final int batchSize = null == recallDataScheduler ? outboxProps.getBatchSize()
+                : Math.min(outboxProps.getBatchSize(), recallDataScheduler.availableCapacity());
+        if (batchSize <= 0) {
+            return 0;
+        }
+
+        final List<OutboxMessage> batch = null == recallDataPriorities ? outboxRepo.lockNextBatch(batchSize)
+                : outboxRepo.lockNextBatchByPriority(recallDataPriorities.agedBefore(),
+                        recallDataPriorities.highestPriority(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // load the batch's tickets (with their recall data) in one query
+        final Map<Long, Ticket> tickets = ticketRepo
+                .findWithGameRecallDataByIdIn(
+                        batch.stream().map(outboxMessage -> outboxMessage.getTicket().getId())
+                                .collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Ticket::getId, Function.identity()));
+
+        final List<Ticket> batchTickets = batch.stream()
+                .map(outboxMessage -> tickets.get(outboxMessage.getTicket().getId())).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (batchTickets.size() < batch.size()) {
+            logger.warn("deleting " + (batch.size() - batchTickets.size())
+                    + " outbox message(s) whose ticket no longer exists");
+            orphanedCounter.increment(batch.size() - batchTickets.size());
+        }
+        msgProducer.sendGameShareProcessRecallDataMessagesLocally(batchTickets);
+
+        // the tickets are marked (and their Dispatched status logged) by one statement
+        final Map<String, List<TicketStatusEnum>> dispatched = new LinkedHashMap<>();
+        batchTickets.forEach(ticket -> dispatched.put(ticket.getTicketId(), DISPATCHED));
+        gameShareService.updateJobStatuses(dispatched);
+        outboxRepo.deleteInBatch(batch);
+
+        logger.debug("relayed " + batchTickets.size() + " outbox message(s)");
+        relayedCounter.increment(batchTickets.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.messaging.RecallDataPriorityProperties.PriorityClass;
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+
+/**
+ * The Class RecallDataPriorities assigns game shares to the configured
+ * priority classes, by the cents won and (optionally) the casino, so that the
+ * recall data messages of big wins are sent with a higher JMS priority and
+ * are recorded ahead of the rest. The broker must be configured to dispatch
+ * the recall data queue in priority order (prioritizedMessages).
+ * <p>
+ * The lower classes are kept from starving outside the broker: tickets held in
+ * the recall data outbox (see RecallDataScheduler) are dispatched in priority
+ * order, except that a ticket which has waited maxWaitMillis is dispatched at
+ * the highest priority, in submission order with the highest class. Once it
+ * has waited that long, a ticket therefore only waits for the tickets of the
+ * highest class (or held as long) submitted before it. Without the scheduler
+ * tickets are dispatched as they are submitted, and their waits on the broker
+ * are not bounded.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recall-data-priority", name = "enabled", havingValue = "true")
+public class RecallDataPriorities {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(RecallDataPriorities.class);
+
+    /** The recall data priority properties. */
+    @Autowired
+    private RecallDataPriorityProperties priorityProps;
+
+    /** The recall data scheduler properties. */
+    @Autowired
+    private RecallDataSchedulerProperties schedulerProps;
+
+    /** The priority classes, highest minCentsWon first. */
+    private List<PriorityClass> classesByCentsWon;
+
+    /**
+     * Initialize the priority classes.
+     */
+    @PostConstruct
+    void init() {
+        classesByCentsWon = new ArrayList<>(priorityProps.getClasses());
+        classesByCentsWon.sort(Comparator.comparingInt(PriorityClass::getMinCentsWon).reversed());
+        if (!schedulerProps.isEnabled()) {
+            logger.warn("recall data priorities are enabled without the recall data scheduler;"
+                    + " waits of the lower priority classes are not bounded");
+        }
+    }
+
+    /**
+     * Gets the priority class of a game share.
+     *
+     * @param casino   the casino
+     * @param centsWon the cents won
+     * @return the priority class
+     */
+    public PriorityClass classify(final String casino, final int centsWon) {
+        PriorityClass priorityClass = classesByCentsWon.get(classesByCentsWon.size() - 1);
+        for (final PriorityClass candidate : classesByCentsWon) {
+            if (centsWon >= candidate.getMinCentsWon()) {
+                priorityClass = candidate;
+                break;
+            }
+        }
+
+        final String casinoClassName = priorityProps.getCasinoClasses().get(casino);
+        for (final PriorityClass candidate : classesByCentsWon) {
+            if (candidate.getName().equals(casinoClassName)
+                    && candidate.getJmsPriority() > priorityClass.getJmsPriority()) {
+                priorityClass = candidate;
+            }
+        }
+
+        return priorityClass;
+    }
+
+    /**
+     * Gets the JMS priority a ticket's recall data message is sent with: the
+     * priority of its class, or the highest priority once it has waited
+     * maxWaitMillis since it was submitted.
+     *
+     * @param gameShareInfo the ticket's game share info
+     * @param submittedAt   the date-time the ticket was submitted
+     * @return the JMS priority
+     */
+    public int priorityOf(final GameShareInfo gameShareInfo, final Date submittedAt) {
+        if (submittedAt.before(agedBefore())) {
+            return highestPriority();
+        }
+
+        return classify(gameShareInfo.getCasino(), gameShareInfo.getCentsWon()).getJmsPriority();
+    }
+
+    /**
+     * Gets the date-time before which tickets submitted have waited
+     * maxWaitMillis, so are dispatched at the highest priority.
+     *
+     * @return the date-time
+     */
+    public Date agedBefore() {
+        return new Date(System.currentTimeMillis() - priorityProps.getMaxWaitMillis());
+    }
+
+    /**
+     * Gets the highest JMS priority of the priority classes.
+     *
+     * @return the highest JMS priority
+     */
+    public int highestPriority() {
+        return classesByCentsWon.stream().mapToInt(PriorityClass::getJmsPriority).max().getAsInt();
+    }
+}
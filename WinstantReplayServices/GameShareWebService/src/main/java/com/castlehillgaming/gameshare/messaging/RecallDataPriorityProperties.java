@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The Class RecallDataPriorityProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "recall-data-priority")
+public class RecallDataPriorityProperties {
+
+    /** Whether recall data messages are sent with the priority of their class. */
+    private @Getter @Setter boolean enabled;
+
+    /**
+     * The priority classes. A game share is in the class with the highest
+     * minCentsWon it reaches (or in the lowest class, if it reaches none).
+     */
+    private @Getter @Setter List<PriorityClass> classes = new ArrayList<>(
+            List.of(new PriorityClass("jackpot", 120000, 9), new PriorityClass("big-win", 10000, 7),
+                    new PriorityClass("standard", 0, 4)));
+
+    /**
+     * The lowest class of the game shares of particular casinos (by class
+     * name), keyed by casino name.
+     */
+    private @Getter @Setter Map<String, String> casinoClasses = new HashMap<>();
+
+    /**
+     * The time (in milliseconds) a ticket held in the recall data outbox may
+     * wait below the highest priority before it is dispatched at it.
+     */
+    private @Getter @Setter long maxWaitMillis = 300000;
+
+    /**
+     * The Class PriorityClass is a priority class of recall data messages.
+     */
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriorityClass {
+
+        /** The class name (the priorityClass metric tag). */
+        private @Getter @Setter String name;
+
+        /** The cents won from which game shares are in the class. */
+        private @Getter @Setter int minCentsWon;
+
+        /** The JMS priority (0-9) the class's messages are sent with. */
+        private @Getter @Setter int jmsPriority;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.dao.OutboxMessageRepository;
+import com.castlehillgaming.gameshare.dao.TicketEventLog;
+import com.castlehillgaming.gameshare.dao.TicketRepository;
+import com.castlehillgaming.gameshare.model.OutboxMessage;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class RecallDataScheduler holds submitted tickets (Received, with their
+ * outbox messages) until the recorders have capacity for them, so a recorder
+ * outage does not pile stale recall data messages up in the broker. The
+ * RecallDataOutboxRelay only relays as many outbox messages as the recorder
+ * capacity has room for, less the tickets already in flight (Dispatched or
+ * Recording); as recorders move tickets on to Recorded, Completed or Failed,
+ * room is made for more. The tickets in flight are counted from their events in
+ * the ticket event log (see TicketEventLog#countInFlight).
+ * <p>
+ * The in-flight tickets are counted under an advisory lock, so only one relay
+ * (on any node) dispatches at a time. Tickets held past the deadline are
+ * failed instead of being dispatched (and counted,
+ * gameshare.dispatch.expired) by a guarded status update, like any other job
+ * status update; the in-flight tickets last counted are published as
+ * gameshare.dispatch.inflight.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recall-data-scheduler", name = "enabled", havingValue = "true")
+public class RecallDataScheduler {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(RecallDataScheduler.class);
+
+    /**
+     * The advisory lock key taken to count in-flight tickets and dispatch, so
+     * only one relay dispatches at a time ("dispatch" in ASCII).
+     */
+    private static final long DISPATCH_LOCK_KEY = 0x6469737061746368L;
+
+    /** The statuses a ticket is expired by. */
+    private static final List<TicketStatusEnum> EXPIRED = List.of(TicketStatusEnum.Failed);
+
+    /** The outbox message repository. */
+    @Autowired
+    private OutboxMessageRepository outboxRepo;
+
+    /** The ticket repository. */
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    /** The ticket event log. */
+    @Autowired
+    private TicketEventLog ticketEventLog;
+
+    /** The game share service. */
+    @Autowired
+    private GameShareService gameShareService;
+
+    /** The JDBC template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The recall data scheduler properties. */
+    @Autowired
+    private RecallDataSchedulerProperties schedulerProps;
+
+    /** The recall data outbox properties. */
+    @Autowired
+    private RecallDataOutboxProperties outboxProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The number of tickets in flight (as last counted). */
+    private final AtomicLong inFlightCount = new AtomicLong();
+
+    /** The number of tickets failed for being held past the deadline. */
+    private Counter expiredCounter;
+
+    /**
+     * Initialize the scheduler metrics.
+     */
+    @PostConstruct
+    void init() {
+        if (!outboxProps.isEnabled()) {
+            throw new IllegalStateException("recall-data-scheduler requires recall-data-outbox to be enabled");
+        }
+
+        Gauge.builder("gameshare.dispatch.inflight", inFlightCount, AtomicLong::get)
+                .description("tickets in flight to the recorders (as last counted)").register(meterRegistry);
+        expiredCounter = Counter.builder("gameshare.dispatch.expired")
+                .description("tickets failed for waiting past the dispatch deadline").register(meterRegistry);
+    }
+
+    /**
+     * Gets the number of tickets which may be dispatched now. This must be
+     * called within the transaction which dispatches them, and holds the
+     * dispatch lock until it ends.
+     *
+     * @return the number of tickets the recorders have room for (0 if another
+     *         transaction is dispatching)
+     */
+    public int availableCapacity() {
+        if (!Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, DISPATCH_LOCK_KEY))) {
+            return 0;
+        }
+
+        final long inFlight = ticketEventLog
+                .countInFlight(System.currentTimeMillis() - schedulerProps.getInFlightTimeoutMillis());
+        inFlightCount.set(inFlight);
+        return (int) Math.max(0, schedulerProps.getRecorderCapacity() - inFlight);
+    }
+
+    /**
+     * Fail the tickets held past the deadline, one batch per transaction.
+     */
+    @Scheduled(fixedDelayString = "${recall-data-scheduler.expiry-interval-millis:10000}")
+    public void expireOverdueTickets() {
+        int expired;
+        do {
+            expired = transactionTemplate.execute(status -> expireBatch());
+        } while (expired == outboxProps.getBatchSize());
+    }
+
+    /**
+     * Fail one batch of the tickets held past the deadline, and delete their
+     * outbox messages.
+     *
+     * @return the number of tickets failed
+     */
+    private int expireBatch() {
+        final List<OutboxMessage> batch = outboxRepo.lockNextBatchCreatedBefore(
+                new Date(System.currentTimeMillis() - schedulerProps.getDeadlineMillis()), outboxProps.getBatchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        final List<Ticket> tickets = ticketRepo.findAllById(batch.stream()
+                .map(outboxMessage -> outboxMessage.getTicket().getId()).collect(Collectors.toList()));
+        final Map<String, List<TicketStatusEnum>> expired = new LinkedHashMap<>();
+        tickets.forEach(ticket -> expired.put(ticket.getTicketId(), EXPIRED));
+        gameShareService.updateJobStatuses(expired);
+        outboxRepo.deleteInBatch(batch);
+
+        logger.warn("failed " + batch.size() + " ticket(s) held over " + schedulerProps.getDeadlineMillis()
+                + " ms for a recorder");
+        expiredCounter.increment(batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class RecallDataSchedulerProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "recall-data-scheduler")
+public class RecallDataSchedulerProperties {
+
+    /**
+     * Whether tickets are held in the outbox until the recorders have capacity
+     * for them (requires recall-data-outbox.enabled).
+     */
+    private @Getter @Setter boolean enabled;
+
+    /**
+     * The number of tickets the recorders can have in flight (Dispatched or
+     * Recording) at once.
+     */
+    private @Getter @Setter int recorderCapacity = 50;
+
+    /**
+     * The time (in milliseconds) after its dispatch beyond which a ticket
+     * still in flight is assumed lost by its recorder, and no longer counted
+     * against the capacity.
+     */
+    private @Getter @Setter long inFlightTimeoutMillis = 3600000;
+
+    /**
+     * The time (in milliseconds) a ticket may be held before it is failed
+     * rather than dispatched.
+     */
+    private @Getter @Setter long deadlineMillis = 600000;
+
+    /** The time (in milliseconds) between checks for tickets past the deadline. */
+    private @Getter @Setter long expiryIntervalMillis = 10000;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.config.JmsTopicConfig;
+import com.castlehillgaming.gameshare.service.TicketCompletionWaiters;
+import com.castlehillgaming.gameshare_commonutils.SharedConstants;
+
+/**
+ * The Class TicketCompletionListener wakes the requests waiting on this node
+ * for tickets to be completed. Ticket completions are published to the Ticket
+ * Completed Topic by whichever node completes the ticket, and every node
+ * subscribes to it.
+ */
+@Component
+public class TicketCompletionListener {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(TicketCompletionListener.class);
+
+    /** The name of the Ticket Completed Topic. */
+    static final String TICKET_COMPLETED_TOPIC_NAME = "gameshare.ticketcompleted";
+
+    /** The ticket completion waiters. */
+    @Autowired
+    private TicketCompletionWaiters completionWaiters;
+
+    /**
+     * Consume message on the Ticket Completed Topic.
+     *
+     * @param message the message
+     */
+    @JmsListener(destination = TICKET_COMPLETED_TOPIC_NAME,
+            containerFactory = JmsTopicConfig.TOPIC_LISTENER_CONTAINER_FACTORY)
+    public void consumeMessage(final Message message) {
+        try {
+            completionWaiters.ticketCompleted(message.getStringProperty(SharedConstants.TICKET_MESSAGE_KEY));
+        } catch (final JMSException e) {
+            logger.error("could not read ticket completed message", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The Class GameRecallData holds the (potentially large) game recall data for
+ * a Ticket in its own table, so that it is only read when it is actually
+ * needed rather than on every Ticket lookup. It is held in its encoded (see
+ * RecallDataEncoding) form, which is what is sent to the video recorder.
+ */
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
+public class GameRecallData implements Serializable {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = 1954383275061938455L;
+
+    /** The id - primary key for the associated db entity. */
+    @Id
+    @GeneratedValue(generator = GameShareIds.GENERATOR_NAME)
+    private @Getter Long id;
+
+    /** The encoded game recall data. */
+    @Column(columnDefinition = "bytea", nullable = false)
+    private @Getter byte[] encodedRecallData;
+
+    /**
+     * Instantiates a new game recall data.
+     *
+     * @param recallData the game recall data
+     */
+    GameRecallData(final String recallData) {
+        encodedRecallData = RecallDataEncoding.encode(recallData);
+    }
+
+    /**
+     * Gets the (decoded) game recall data.
+     *
+     * @return the game recall data
+     */
+    public String getRecallData() {
+        return RecallDataEncoding.decode(encodedRecallData);
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+/**
+ * The Class GameShareIds holds the constants of the id generator shared by
+ * the GameShare entities (see package-info).
+ */
+final class GameShareIds {
+
+    /** The name of the id generator. */
+    static final String GENERATOR_NAME = "gameShareIds";
+
+    /** The number of ids reserved by each sequence fetch. */
+    static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Instantiates a new game share ids (not permitted).
+     */
+    private GameShareIds() {
+    }
+}
@@ -4,9 +4,14 @@
 package com.castlehillgaming.gameshare.model;
 
 import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import javax.persistence.Column;
 import javax.persistence.Embeddable;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.lang3.StringUtils;
@@ -63,11 +68,18 @@ public class GameShareInfo implements Serializable {
     @NotNull
     private @Getter Integer centsWon;
 
-    /** The game recall data. */
-    @Column(columnDefinition = "text", nullable = false)
+    /**
+     * The game recall data. This is persisted separately (as the Ticket's
+     * GameRecallData) rather than as part of the Ticket row.
+     */
+    @Transient
     @NotNull
     private @Getter String gameRecallData;
 
+    /** The content hash (computed when first needed). */
+    @ToString.Exclude
+    private transient String contentHash;
+
     /**
      * Instantiates a new game share info.
      *
@@ -95,4 +107,30 @@ public class GameShareInfo implements Serializable {
             this.cabinetType = StringUtils.EMPTY;
         }
     }
+
+    /**
+     * Gets the content hash: a SHA-256 hash over all the fields which make
+     * game share infos equal, so repeated submissions of the same game share
+     * have the same content hash.
+     *
+     * @return the content hash (64 hex digits)
+     */
+    public String contentHash() {
+        if (null == contentHash) {
+            try {
+                final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                // the fields are NUL separated, so they cannot run into each other
+                for (final Object field : new Object[] { casino, cabinetType, gameTitle, gamePlayedAt, centsWon,
+                        gameRecallData }) {
+                    digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+                contentHash = String.format("%064x", new BigInteger(1, digest.digest()));
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalStateException("could not hash game share info", e);
+            }
+        }
+
+        return contentHash;
+    }
 }
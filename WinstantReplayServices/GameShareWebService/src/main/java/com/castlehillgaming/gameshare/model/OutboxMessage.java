@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The Class OutboxMessage records that a Ticket's game recall data still has
+ * to be dispatched for processing. It is written in the same (single resource)
+ * transaction as the Ticket itself, and deleted by the outbox relay once the
+ * recall data message has been sent.
+ */
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
+public class OutboxMessage implements Serializable {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = -3071859618370962260L;
+
+    /**
+     * The id - primary key for the associated db entity (outbox messages are
+     * relayed in id order).
+     */
+    @Id
+    @GeneratedValue(generator = GameShareIds.GENERATOR_NAME)
+    private @Getter Long id;
+
+    /** The ticket whose recall data is to be dispatched. */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(nullable = false)
+    private @Getter Ticket ticket;
+
+    /** The date-time the outbox message was created. */
+    @Column(nullable = false)
+    private @Getter Date createdAt;
+
+    /**
+     * The JMS priority of the ticket's priority class (0 if recall data
+     * messages are not prioritized), which held tickets are dispatched in the
+     * order of.
+     */
+    @Column(nullable = false, columnDefinition = "smallint")
+    private @Getter int priority;
+
+    /**
+     * Instantiates a new outbox message.
+     *
+     * @param ticket the ticket whose recall data is to be dispatched
+     */
+    public OutboxMessage(final Ticket ticket) {
+        this(ticket, 0);
+    }
+
+    /**
+     * Instantiates a new outbox message.
+     *
+     * @param ticket   the ticket whose recall data is to be dispatched
+     * @param priority the JMS priority of the ticket's priority class
+     */
+    public OutboxMessage(final Ticket ticket, final int priority) {
+        this.ticket = ticket;
+        this.priority = priority;
+        createdAt = new Date();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The Class ProcessedMessage records that a job message has been processed,
+ * when job messages are consumed in local transactions. It is written in the
+ * same transaction as the message's ticket update, so a redelivery of the
+ * message (after that transaction committed but before the message was
+ * acknowledged) is recognised and not processed again.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_processed_message_processed_at", columnList = "processedAt"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
+public class ProcessedMessage implements Serializable {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = 5470952512148393260L;
+
+    /** The JMS message id - primary key for the associated db entity. */
+    @Id
+    private @Getter String messageId;
+
+    /** The date-time the message was processed. */
+    @Column(nullable = false)
+    private @Getter Date processedAt;
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The Class RecallDataEncoding encodes game recall data compactly, as it is
+ * stored and sent to the video recorder. The first byte of the encoded form is
+ * its format version:
+ * <ul>
+ * <li>0 - the UTF-8 recall data, uncompressed (used when compression does not
+ * make it any smaller)</li>
+ * <li>1 - the UTF-8 recall data, raw Deflate compressed (no zlib header, so it
+ * can be read with .NET's DeflateStream)</li>
+ * </ul>
+ * Decoders must accept every version, so data encoded by an older release can
+ * still be read.
+ */
+public final class RecallDataEncoding {
+
+    /** The format version of uncompressed UTF-8 recall data. */
+    public static final byte VERSION_UTF8 = 0;
+
+    /** The format version of raw Deflate compressed UTF-8 recall data. */
+    public static final byte VERSION_DEFLATE = 1;
+
+    /**
+     * The deflater of each thread (a Deflater holds native memory, so it is
+     * reset and re-used rather than created for each encoding).
+     */
+    private static final ThreadLocal<Deflater> deflater = ThreadLocal
+            .withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+
+    /**
+     * Instantiates a new recall data encoding (not permitted).
+     */
+    private RecallDataEncoding() {
+    }
+
+    /**
+     * Encode recall data.
+     *
+     * @param recallData the recall data
+     * @return the encoded recall data
+     */
+    public static byte[] encode(final String recallData) {
+        final byte[] utf8 = recallData.getBytes(StandardCharsets.UTF_8);
+
+        final Deflater threadDeflater = deflater.get();
+        threadDeflater.reset();
+        threadDeflater.setInput(utf8);
+        threadDeflater.finish();
+
+        // the compressed form is only used if it is smaller
+        final byte[] encoded = new byte[1 + utf8.length];
+        int length = 1;
+        while (!threadDeflater.finished() && length < encoded.length) {
+            length += threadDeflater.deflate(encoded, length, encoded.length - length);
+        }
+        if (threadDeflater.finished() && length < encoded.length) {
+            encoded[0] = VERSION_DEFLATE;
+            return Arrays.copyOf(encoded, length);
+        }
+
+        encoded[0] = VERSION_UTF8;
+        System.arraycopy(utf8, 0, encoded, 1, utf8.length);
+        return encoded;
+    }
+
+    /**
+     * Decode recall data.
+     *
+     * @param encoded the encoded recall data
+     * @return the recall data
+     */
+    public static String decode(final byte[] encoded) {
+        switch (encoded[0]) {
+        case VERSION_UTF8:
+            return new String(encoded, 1, encoded.length - 1, StandardCharsets.UTF_8);
+
+        case VERSION_DEFLATE:
+            final Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(encoded, 1, encoded.length - 1);
+                final ByteArrayOutputStream utf8 = new ByteArrayOutputStream(4 * encoded.length);
+                final byte[] buffer = new byte[8192];
+                while (!inflater.finished()) {
+                    final int length = inflater.inflate(buffer);
+                    if (0 == length && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalArgumentException("truncated recall data");
+                    }
+                    utf8.write(buffer, 0, length);
+                }
+                return new String(utf8.toByteArray(), StandardCharsets.UTF_8);
+            } catch (final DataFormatException e) {
+                throw new IllegalArgumentException("corrupt recall data", e);
+            } finally {
+                inflater.end();
+            }
+
+        default:
+            throw new IllegalArgumentException("unknown recall data format version " + encoded[0]);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Embeddable;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * The Class StoredVideo encapsulates the reference to a recorded game-share
+ * video held in the video store (rather than the video content itself).
+ */
+@Embeddable
+@EqualsAndHashCode
+@ToString
+@NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
+@AllArgsConstructor
+public class StoredVideo implements Serializable {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = 3081457726518839214L;
+
+    /**
+     * The storage handle used by the video store to locate the recorded video.
+     */
+    private @Getter String storageHandle;
+
+    /** The size of the recorded video in bytes. */
+    private @Getter Long sizeBytes;
+
+    /** The checksum (hex-encoded SHA-256 digest) of the recorded video. */
+    private @Getter String checksum;
+}
@@ -6,18 +6,24 @@ package com.castlehillgaming.gameshare.model;
 import java.io.Serializable;
 import java.text.DateFormat;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.OneToOne;
 import javax.persistence.Version;
 
-import org.hibernate.annotations.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,8 +45,9 @@ import lombok.Setter;
  * and sharing.
  */
 @Entity
+@EntityListeners({ TicketIdIndexListener.class, TicketStageListener.class })
 @EqualsAndHashCode(of = { "ticketId" })
-@NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
 public class Ticket implements Serializable {
 
     /** The serialVersionUID. */
@@ -50,11 +57,9 @@ public class Ticket implements Serializable {
     @SuppressWarnings("unused")
     private static final Logger logger = LoggerFactory.getLogger(Ticket.class);
 
-    public static final String ENCRYPTED_STRING_TYPENAME = "encryptedFixedSaltString";
-
     /** The id - primary key for the associated db entity. */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = GameShareIds.GENERATOR_NAME)
     @JsonIgnore
     private @Getter Long id;
 
@@ -63,22 +68,49 @@ public class Ticket implements Serializable {
      */
     @Version
     @JsonIgnore
-    private int version;
+    private @Getter int version;
 
     /**
      * The unique ticket ID used for uniquely identifying the Winstant Replay
-     * request and all of its associated data.
+     * request and all of its associated data. It is stored in the protected
+     * form produced by the configured TicketIdCipher.
      */
-    @Column(unique = true, nullable = false)
-    @Type(type = ENCRYPTED_STRING_TYPENAME)
+    @Column(nullable = false)
+    @Convert(converter = TicketIdConverter.class)
     private @Getter String ticketId;
 
+    /**
+     * The blind index of the ticketId, which all ticketId lookups are made by
+     * (the stored ticketId itself cannot be searched on).
+     */
+    @Column(unique = true, nullable = false, updatable = false)
+    @JsonIgnore
+    private @Getter @Setter(AccessLevel.PACKAGE) String ticketIdIndex;
+
+    /**
+     * The content hash of the game share info, by which repeated submissions of
+     * the same game share are recognised (null for tickets submitted before
+     * content hashes were kept).
+     */
+    @Column(updatable = false, length = 64)
+    @JsonIgnore
+    private @Getter String contentHash;
+
     /** The game share info associated with this ticket. */
     @Embedded
     @JsonIgnore
     @Column(nullable = false)
     private @Getter GameShareInfo gameShareInfo;
 
+    /**
+     * The game recall data associated with this ticket. It is held in its own
+     * table and only loaded when accessed, so Ticket lookups stay small.
+     */
+    @OneToOne(fetch = FetchType.LAZY, optional = false, cascade = CascadeType.ALL)
+    @JoinColumn(nullable = false, unique = true)
+    @JsonIgnore
+    private GameRecallData gameRecallData;
+
     /** The status. */
     @Embedded
     @Column(nullable = false)
@@ -90,9 +122,13 @@ public class Ticket implements Serializable {
     @JsonIgnore
     private @Getter @Setter String videoUrl;
 
-    /** The recorded game-share video as a byte array. */
+    /**
+     * The reference to the recorded game-share video in the video store (null
+     * until the video has been recorded).
+     */
+    @Embedded
     @JsonIgnore
-    private @Getter @Setter byte[] videoBytes;
+    private @Getter @Setter StoredVideo storedVideo;
 
     /**
      * Static class method for creating a new ticket.
@@ -111,6 +147,8 @@ public class Ticket implements Serializable {
      */
     private Ticket(final GameShareInfo gameShareInfo) {
         this.gameShareInfo = gameShareInfo;
+        contentHash = gameShareInfo.contentHash();
+        gameRecallData = new GameRecallData(gameShareInfo.getGameRecallData());
         ticketId = UUID.randomUUID().toString();
         status = TicketStatus.createNewTicketStatus();
     }
@@ -125,6 +163,48 @@ public class Ticket implements Serializable {
             throw new InvalidTicketException();
     }
 
+    /**
+     * Gets the game recall data. Note that calling this on a persisted ticket
+     * causes its (lazily loaded) game recall data to be read.
+     *
+     * @return the game recall data
+     */
+    public String getGameRecallData() {
+        return gameRecallData.getRecallData();
+    }
+
+    /**
+     * Gets the game recall data in its encoded (see RecallDataEncoding) form.
+     * Note that calling this on a persisted ticket causes its (lazily loaded)
+     * game recall data to be read.
+     *
+     * @return the encoded game recall data
+     */
+    @JsonIgnore
+    public byte[] getEncodedGameRecallData() {
+        return gameRecallData.getEncodedRecallData();
+    }
+
+    /**
+     * Gets the current status value of this ticket.
+     *
+     * @return the current status
+     */
+    @JsonIgnore
+    public TicketStatusEnum getCurrentStatus() {
+        return status.getStatus();
+    }
+
+    /**
+     * Gets the date-time this ticket was created (submitted) at.
+     *
+     * @return the creation date-time
+     */
+    @JsonIgnore
+    public Date getCreatedAt() {
+        return status.getCreatedAt();
+    }
+
     /**
      * Claim this ticket.
      *
@@ -135,7 +215,9 @@ public class Ticket implements Serializable {
     }
 
     /**
-     * Sets the status.
+     * Sets the status. The status change is only appended to the ticket event
+     * log once the ticket has been saved and its unlogged stages are taken by
+     * TicketEventLog#append.
      *
      * @param status the new status
      */
@@ -143,6 +225,47 @@ public class Ticket implements Serializable {
         this.status.setStatus(status);
     }
 
+    /**
+     * Whether a ticket may move from one status to another. Statuses only move
+     * forward (in the order of their int values), except that a status of
+     * Failed can occur at any point, and a ticket can only be Claimed once it
+     * is Completed. The guarded status updates (see TicketStatusTransitions)
+     * apply the same rule in SQL.
+     *
+     * @param from the current status
+     * @param to   the new status
+     * @return true, if the transition is permitted
+     */
+    public static boolean isTransitionPermitted(final TicketStatusEnum from, final TicketStatusEnum to) {
+        if (to.equals(TicketStatusEnum.Failed)) {
+            return true;
+        }
+        if (to.equals(TicketStatusEnum.Claimed)) {
+            return from.equals(TicketStatusEnum.Completed);
+        }
+
+        return to.getIntValue() > from.getIntValue();
+    }
+
+    /**
+     * Take the stages this ticket has reached since they were last taken.
+     *
+     * @return the stages reached, oldest first
+     */
+    public List<TicketStage> takeReachedStages() {
+        return status.takeReachedStages();
+    }
+
+    /**
+     * Take the stages this ticket has reached which are yet to be appended to
+     * the ticket event log.
+     *
+     * @return the stages reached, oldest first
+     */
+    public List<TicketStage> takeUnloggedStages() {
+        return status.takeUnloggedStages();
+    }
+
     /*
      * (non-Javadoc)
      *
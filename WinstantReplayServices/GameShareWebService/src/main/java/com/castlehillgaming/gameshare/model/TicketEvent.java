@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The Class TicketEvent records a Ticket moving to a new status, in the
+ * append-only ticket event log. The ticket row itself only holds its current
+ * status (and the date-time it was created at, when it was Received), so the
+ * log holds the date-time each later status was reached. Events are only ever
+ * inserted (see TicketEventLog and TicketStatusTransitions), and removed with
+ * their whole monthly partition (see TicketRetentionJob).
+ */
+@Entity
+@IdClass(TicketEvent.Key.class)
+@Table(indexes = @Index(name = "ix_ticket_event_at_millis", columnList = "atMillis"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
+@AllArgsConstructor
+public class TicketEvent implements Serializable {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = 2187604936113218790L;
+
+    /** The id of the ticket (not a foreign key, as ticket is partitioned). */
+    @Id
+    private @Getter long ticketId;
+
+    /** The status the ticket moved to, stored as its ordinal. */
+    @Id
+    @Enumerated(EnumType.ORDINAL)
+    @Column(columnDefinition = "smallint")
+    private @Getter TicketStatusEnum status;
+
+    /** The date-time (in epoch milliseconds) the ticket moved to the status. */
+    @Id
+    private @Getter long atMillis;
+
+    /**
+     * The Class Key is the (composite) primary key of a ticket event.
+     */
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        /** The serialVersionUID. */
+        private static final long serialVersionUID = -4415962275315207717L;
+
+        /** The id of the ticket. */
+        private long ticketId;
+
+        /** The status the ticket moved to. */
+        private TicketStatusEnum status;
+
+        /** The date-time (in epoch milliseconds) the ticket moved to the status. */
+        private long atMillis;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+/**
+ * The Interface TicketIdCipher provides the protection applied to ticketId
+ * values at rest. A ticketId is stored in its protected (encrypted) form,
+ * which cannot be searched on, alongside a deterministic blind index which is
+ * used for all equality lookups.
+ */
+public interface TicketIdCipher {
+
+    /**
+     * Protect a ticketId value for storage.
+     *
+     * @param ticketId the ticket id
+     * @return the protected ticketId value
+     */
+    String protect(String ticketId);
+
+    /**
+     * Recover a ticketId value from its protected form.
+     *
+     * @param protectedTicketId the protected ticketId value
+     * @return the ticket id
+     */
+    String unprotect(String protectedTicketId);
+
+    /**
+     * Compute the blind index of a ticketId value. The same ticketId always has
+     * the same blind index, so it can be used for equality lookups.
+     *
+     * @param ticketId the ticket id
+     * @return the blind index
+     */
+    String index(String ticketId);
+}
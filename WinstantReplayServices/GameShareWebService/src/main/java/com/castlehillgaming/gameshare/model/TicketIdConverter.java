@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * The Class TicketIdConverter converts a Ticket's ticketId to and from its
+ * protected, stored form using the configured TicketIdCipher.
+ */
+@Converter
+public class TicketIdConverter implements AttributeConverter<String, String> {
+
+    /** The ticket id cipher. */
+    @Autowired
+    private TicketIdCipher ticketIdCipher;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * javax.persistence.AttributeConverter#convertToDatabaseColumn(java.lang.
+     * Object)
+     */
+    @Override
+    public String convertToDatabaseColumn(final String ticketId) {
+        return null == ticketId ? null : ticketIdCipher.protect(ticketId);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * javax.persistence.AttributeConverter#convertToEntityAttribute(java.lang.
+     * Object)
+     */
+    @Override
+    public String convertToEntityAttribute(final String protectedTicketId) {
+        return null == protectedTicketId ? null : ticketIdCipher.unprotect(protectedTicketId);
+    }
+}
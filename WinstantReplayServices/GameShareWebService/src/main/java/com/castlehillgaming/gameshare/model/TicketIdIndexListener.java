@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import javax.persistence.PrePersist;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * The Class TicketIdIndexListener assigns the blind index of a new Ticket's
+ * ticketId before it is first persisted.
+ */
+public class TicketIdIndexListener {
+
+    /** The ticket id cipher. */
+    @Autowired
+    private TicketIdCipher ticketIdCipher;
+
+    /**
+     * Assign the ticketId blind index.
+     *
+     * @param ticket the ticket
+     */
+    @PrePersist
+    void assignTicketIdIndex(final Ticket ticket) {
+        ticket.setTicketIdIndex(ticketIdCipher.index(ticket.getTicketId()));
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The Class TicketStage records a ticket moving forward to a new status: when
+ * it got there, how long the stage leading up to the new status took, and how
+ * old the ticket was when it got there.
+ */
+@AllArgsConstructor
+@ToString
+public final class TicketStage {
+
+    /** The status the ticket moved to. */
+    private final @Getter TicketStatusEnum status;
+
+    /** The date-time (in epoch milliseconds) the ticket moved to the status. */
+    private final @Getter long reachedAtMillis;
+
+    /**
+     * The time (in milliseconds) since the ticket moved to its previous status.
+     */
+    private final @Getter long stageMillis;
+
+    /** The time (in milliseconds) since the ticket was created. */
+    private final @Getter long ageMillis;
+}
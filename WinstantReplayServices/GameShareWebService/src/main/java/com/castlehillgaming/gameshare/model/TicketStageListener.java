@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.castlehillgaming.gameshare.service.TicketLifecycleMetrics;
+
+/**
+ * The Class TicketStageListener publishes the stages a Ticket has reached once
+ * they have been written to the database.
+ */
+public class TicketStageListener {
+
+    /** The ticket lifecycle metrics. */
+    @Autowired
+    private TicketLifecycleMetrics lifecycleMetrics;
+
+    /**
+     * Publish the stages reached.
+     *
+     * @param ticket the ticket
+     */
+    @PostPersist
+    @PostUpdate
+    void publishReachedStages(final Ticket ticket) {
+        lifecycleMetrics.stagesReached(ticket.getGameShareInfo(), ticket.takeReachedStages());
+    }
+}
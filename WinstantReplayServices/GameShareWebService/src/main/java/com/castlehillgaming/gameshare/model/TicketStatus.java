@@ -4,32 +4,35 @@
 package com.castlehillgaming.gameshare.model;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import javax.persistence.Column;
 import javax.persistence.Embeddable;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.Transient;
 
-import com.castlehillgaming.gameshare_commonutils.SharedConstants;
 import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
 
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 /**
- * The Class TicketStatus encapsulates the status and date-time milestones for
- * processing of a Game-Share Ticket.
+ * The Class TicketStatus encapsulates the status of a Game-Share Ticket and the
+ * date-time it was created at. The date-times of its later statuses are not
+ * held on the ticket, but appended to the ticket event log (see TicketEvent)
+ * as the ticket reaches them, so a status change only rewrites the status.
  */
 @Embeddable
 @EqualsAndHashCode
 @ToString
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
 class TicketStatus implements Serializable {
 
     /** The Constant serialVersionUID. */
@@ -41,66 +44,45 @@ class TicketStatus implements Serializable {
     @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
     private @Getter Date createdAt;
 
-    /**
-     * The date-time that the ticket was dispatched for processing (set to dateZero
-     * if not yet dispatched).
-     */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date dispatchedAt;
-
-    /**
-     * The date-time that video recording began for this ticket (set to dateZero if
-     * recording has not yet started).
-     */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date recordingAt;
-
-    /**
-     * The date-time that video recording completed for this ticket (set to dateZero
-     * if recording has not yet completed).
-     */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date recordedAt;
-
-    /**
-     * The date-time that video uploading began for this ticket (set to dateZero if
-     * recording has not yet started).
-     */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date uploadingAt;
+    /** The ticket status. */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private @Getter TicketStatusEnum status;
 
     /**
-     * The date-time that video uploading completed for this ticket (set to dateZero
-     * if recording has not yet completed).
+     * The date-time the ticket moved to its current status, if it moved there
+     * since it was created or loaded (otherwise it is in the ticket event log).
      */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date uploadedAt;
+    @Transient
+    private transient Date statusChangedAt;
 
     /**
-     * The date-time that all processing completed for this ticket (set to dateZero
-     * if processing has not yet fully completed).
+     * The stages reached since they were last taken (see takeReachedStages).
+     * They are not persisted, only published as metrics.
      */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date completedAt;
+    @Transient
+    @ToString.Exclude
+    private final transient List<TicketStage> reachedStages = new ArrayList<>();
 
     /**
-     * The date-time that processing failed for this ticket (set to dateZero if
-     * processing has not yet - or did not ever - failed).
+     * The stages reached which are yet to be appended to the ticket event log
+     * (see takeUnloggedStages).
      */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date failedAt;
+    @Transient
+    @ToString.Exclude
+    private final transient List<TicketStage> unloggedStages = new ArrayList<>();
 
     /**
-     * The date-time that the ticket was claimed at (set to dateZero if not yet
-     * claimed).
+     * Instantiates a new ticket status.
+     *
+     * @param createdAt the date-time the ticket was created at
+     * @param status    the status
      */
-    @Column(columnDefinition = "timestamp (3) with time zone", nullable = false)
-    private @Getter Date claimedAt;
-
-    /** The ticket status. */
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
-    private @Getter TicketStatusEnum status;
+    private TicketStatus(final Date createdAt, final TicketStatusEnum status) {
+        this.createdAt = createdAt;
+        this.status = status;
+        statusChangedAt = createdAt;
+    }
 
     /**
      * Creates a ticket status instance for a new ticket.
@@ -108,9 +90,7 @@ class TicketStatus implements Serializable {
      * @return the ticket status
      */
     static TicketStatus createNewTicketStatus() {
-        return new TicketStatus(new Date(), SharedConstants.dateZero, SharedConstants.dateZero,
-                SharedConstants.dateZero, SharedConstants.dateZero, SharedConstants.dateZero, SharedConstants.dateZero,
-                SharedConstants.dateZero, SharedConstants.dateZero, TicketStatusEnum.Received);
+        return new TicketStatus(new Date(), TicketStatusEnum.Received);
     }
 
     /**
@@ -119,49 +99,67 @@ class TicketStatus implements Serializable {
      * @param status the new status
      */
     void setStatus(final TicketStatusEnum status) {
-        // only permit status transitions in ordered way
-        // (though a status of Failed can occur at any point)
-        if (status.getIntValue() > this.status.getIntValue() || status.equals(TicketStatusEnum.Failed)) {
-            this.status = status;
-            final Date statusChangedAt = new Date();
-
-            switch (this.status) {
-            case Dispatched:
-                dispatchedAt = statusChangedAt;
-                break;
-
-            case Recording:
-                recordingAt = statusChangedAt;
-                break;
-
-            case Recorded:
-                recordedAt = statusChangedAt;
-                break;
+        if (Ticket.isTransitionPermitted(this.status, status)) {
+            final Date changedAt = new Date();
+            final TicketStage stage = new TicketStage(status, changedAt.getTime(),
+                    changedAt.getTime() - currentStatusAt().getTime(), changedAt.getTime() - createdAt.getTime());
+            if (null != reachedStages) {
+                reachedStages.add(stage);
+            }
+            if (null != unloggedStages) {
+                unloggedStages.add(stage);
+            }
 
-            case Uploading:
-                uploadingAt = statusChangedAt;
-                break;
+            this.status = status;
+            statusChangedAt = changedAt;
+        }
+    }
 
-            case Uploaded:
-                uploadedAt = statusChangedAt;
-                break;
+    /**
+     * Take the stages reached since they were last taken.
+     *
+     * @return the stages reached, oldest first
+     */
+    List<TicketStage> takeReachedStages() {
+        return take(reachedStages);
+    }
 
-            case Completed:
-                completedAt = statusChangedAt;
-                break;
+    /**
+     * Take the stages reached which are yet to be appended to the ticket event
+     * log.
+     *
+     * @return the stages reached, oldest first
+     */
+    List<TicketStage> takeUnloggedStages() {
+        return take(unloggedStages);
+    }
 
-            case Failed:
-                failedAt = statusChangedAt;
-                break;
+    /**
+     * Take the stages held in a list, leaving it empty.
+     *
+     * @param stages the stages
+     * @return the stages taken
+     */
+    private static List<TicketStage> take(final List<TicketStage> stages) {
+        if (null == stages || stages.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-            case Claimed:
-                claimedAt = statusChangedAt;
-                break;
+        final List<TicketStage> taken = new ArrayList<>(stages);
+        stages.clear();
+        return taken;
+    }
 
-            default:
-                break;
-            }
-        }
+    /**
+     * Gets the date-time the ticket moved to its current status. A ticket
+     * loaded from the database does not hold it, so its creation date-time is
+     * used instead; the status changes made through the entity (dispatching)
+     * are from Received, where the two are the same.
+     *
+     * @return the date-time the ticket moved to its current status
+     */
+    private Date currentStatusAt() {
+        return null == statusChangedAt ? createdAt : statusChangedAt;
     }
 
     /**
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The Class TicketStatusTally records the number of recent tickets in a status,
+ * as last counted by one of the nodes (see TicketStatusGauges), so that every
+ * node can publish the count without counting the tickets itself.
+ */
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
+public class TicketStatusTally implements Serializable {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = -6125077300418926931L;
+
+    /** The ticket status, stored as its ordinal - primary key. */
+    @Id
+    @Enumerated(EnumType.ORDINAL)
+    @Column(columnDefinition = "smallint")
+    private @Getter TicketStatusEnum status;
+
+    /** The number of tickets in the status. */
+    @Column(nullable = false)
+    private @Getter long ticketCount;
+
+    /** The date-time the tickets were counted. */
+    @Column(nullable = false)
+    private @Getter Date countedAt;
+
+    /**
+     * Instantiates a new ticket status tally.
+     *
+     * @param status      the ticket status
+     * @param ticketCount the number of tickets in the status
+     * @param countedAt   the date-time the tickets were counted
+     */
+    public TicketStatusTally(final TicketStatusEnum status, final long ticketCount, final Date countedAt) {
+        this.status = status;
+        this.ticketCount = ticketCount;
+        this.countedAt = countedAt;
+    }
+}
@@ -1,22 +1,20 @@
 /*
- * Copyright (c) 2016 Castle Hill Gaming, LLC. All rights reserved.
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
  */
 
-//////////////////////////////////////////////////////////////////////////////////////////////////////////////
-// Use this @TypeDefs annotation when dataencrypt configuration profile is active
-//@TypeDefs({ @TypeDef(name = com.castlehillgaming.gameshare.model.Ticket.ENCRYPTED_STRING_TYPENAME, typeClass = EncryptedStringType.class, parameters = {
-//        @Parameter(name = "encryptorRegisteredName", value = com.castlehillgaming.gameshare.config.EncryptionConfig.REGISTERED_NAME) }) })
-//////////////////////////////////////////////////////////////////////////////////////////////////////////////
-
-//////////////////////////////////////////////////////////////////////////////////////////////////////////////
-// Use this @TypeDefs annotation when dataencrypt configuration profile is not active
-@TypeDefs({
-        @TypeDef(name = com.castlehillgaming.gameshare.model.Ticket.ENCRYPTED_STRING_TYPENAME, typeClass = String.class, parameters = {
-                @Parameter(name = "encryptorRegisteredName", value = com.castlehillgaming.gameshare.config.EncryptionConfig.REGISTERED_NAME) }) })
-//////////////////////////////////////////////////////////////////////////////////////////////////////////////
-
+/**
+ * The GameShare persistent entities. Their ids all come from the shared
+ * hibernate_sequence through the pooled-lo optimizer: each sequence fetch
+ * reserves a block of GameShareIds.ALLOCATION_SIZE ids (the sequence must be
+ * incremented by the same amount - see db/postgres/005), so inserting a batch
+ * of entities does not fetch the sequence once per entity.
+ */
+@GenericGenerator(name = GameShareIds.GENERATOR_NAME, strategy = "enhanced-sequence", parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hibernate_sequence"),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "" + GameShareIds.ALLOCATION_SIZE),
+        @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo") })
 package com.castlehillgaming.gameshare.model;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Parameter;
-import org.hibernate.annotations.TypeDef;
-import org.hibernate.annotations.TypeDefs;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
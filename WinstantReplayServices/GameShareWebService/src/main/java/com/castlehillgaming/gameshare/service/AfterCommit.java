@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The Class AfterCommit defers actions (updating caches and metrics, or
+ * notifying other nodes) until the current transaction has committed, so they
+ * never reflect a change which is rolled back.
+ */
+final class AfterCommit {
+
+    /**
+     * Instantiates a new after commit (not permitted).
+     */
+    private AfterCommit() {
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately if
+     * there is no current transaction.
+     *
+     * @param action the action
+     */
+    static void run(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
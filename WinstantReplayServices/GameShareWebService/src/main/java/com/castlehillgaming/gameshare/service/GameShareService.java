@@ -5,8 +5,10 @@ package com.castlehillgaming.gameshare.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.StoredVideo;
 import com.castlehillgaming.gameshare.model.Ticket;
 import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
 
@@ -17,29 +19,79 @@ import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
 public interface GameShareService {
 
     /**
-     * Submit a game share job.
+     * Submit a game share job. If submissions are deduplicated, a repeat of a
+     * recent submission is given the original submission's ticket instead (and
+     * no job is submitted).
      *
      * @param gameShareInfo the game share info
      * @return the ticket
      */
     Ticket submitGameShareJob(GameShareInfo gameShareInfo);
 
+    /**
+     * Submit several game share jobs in one transaction (with their tickets
+     * inserted as JDBC batches and their recall data dispatched together).
+     * Repeated game shares are deduplicated as by submitGameShareJob, and also
+     * within the list.
+     *
+     * @param gameShareInfos the game share infos
+     * @return the tickets, in the same order as the game share infos
+     */
+    List<Ticket> submitGameShareJobs(List<GameShareInfo> gameShareInfos);
+
     /**
      * Redeem ticket.
      *
      * @param ticketValue the ticket value
-     * @return URL (as string) of completed GameShare video recording
+     * @return the redeemed ticket, with the URL of its completed GameShare
+     *         video recording (null if it is not yet available)
      */
-    String redeemTicket(String ticketValue);
+    RedeemedTicket redeemTicket(String ticketValue);
+
+    /**
+     * Redeem ticket, unless the client already has its current status. The
+     * ticket's cached or polled status is checked before it is claimed, so a
+     * conditional poll answered as unchanged never claims the ticket.
+     *
+     * @param ticketValue the ticket value
+     * @param unchanged   whether the client already has a redeemed ticket
+     * @return the redeemed ticket (as cached or polled, and not claimed, if
+     *         the client already has it)
+     */
+    RedeemedTicket redeemTicket(String ticketValue, Predicate<RedeemedTicket> unchanged);
 
     /**
      * Redeem Job Tickets.
      *
      * @param tickets the tickets
-     * @return Map of completed jobs keyed by ticketUuid mapped to URL for completed
-     *         video of game-play
+     * @return the redeemed tickets keyed by ticketUuid (tickets which were not
+     *         found are omitted); completed jobs are those with the URL of
+     *         their completed video of game-play
+     */
+    Map<String, RedeemedTicket> redeemTickets(List<String> tickets);
+
+    /**
+     * Redeem Job Tickets, unless the client already has their current
+     * statuses. The tickets' cached or polled statuses are checked before any
+     * are claimed, so a conditional poll answered as unchanged never claims
+     * them.
+     *
+     * @param tickets   the tickets
+     * @param unchanged whether the client already has the redeemed tickets
+     * @return the redeemed tickets keyed by ticketUuid (as cached or polled,
+     *         and not claimed, if the client already has them)
      */
-    Map<String, String> redeemTickets(List<String> tickets);
+    Map<String, RedeemedTicket> redeemTickets(List<String> tickets,
+            Predicate<Map<String, RedeemedTicket>> unchanged);
+
+    /**
+     * Find the recorded video of a ticket.
+     *
+     * @param ticketValue the ticket value
+     * @return the reference to the ticket's video in the video store (null if
+     *         it has not been recorded yet)
+     */
+    StoredVideo findVideo(String ticketValue);
 
     /**
      * Update job status.
@@ -49,13 +101,25 @@ public interface GameShareService {
      */
     void updateJobStatus(String ticketValue, TicketStatusEnum jobStatus);
 
+    /**
+     * Update the job status of several jobs at once. The status updates for
+     * each ticket are applied in the order given, and each ticket is written
+     * once no matter how many updates it receives. Tickets which are not found
+     * are skipped.
+     *
+     * @param jobStatusUpdates the job status updates, keyed by ticket value
+     * @return the number of tickets found (and updated)
+     */
+    int updateJobStatuses(Map<String, List<TicketStatusEnum>> jobStatusUpdates);
+
     /**
      * Save video.
      *
      * @param ticketValue the ticket value
-     * @param videoBytes  the recorded game-share video as a byte array
+     * @param storedVideo the reference to the recorded game-share video in the
+     *                    video store
      */
-    void saveVideo(String ticketValue, byte[] videoBytes);
+    void saveVideo(String ticketValue, StoredVideo storedVideo);
 
     /**
      * Complete job.
@@ -4,23 +4,58 @@
 package com.castlehillgaming.gameshare.service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.castlehillgaming.gameshare.dao.ContentHashLocks;
+import com.castlehillgaming.gameshare.dao.TicketEventLog;
+import com.castlehillgaming.gameshare.dao.TicketRedemption;
 import com.castlehillgaming.gameshare.dao.TicketRepository;
+import com.castlehillgaming.gameshare.dao.TicketStatusChange;
+import com.castlehillgaming.gameshare.dao.TicketStatusTransitions;
 import com.castlehillgaming.gameshare.messaging.GameShareMessageProducer;
+import com.castlehillgaming.gameshare.messaging.JobMessageConsumerProperties;
+import com.castlehillgaming.gameshare.messaging.JobMessageConsumerProperties.TransactionMode;
+import com.castlehillgaming.gameshare.messaging.RecallDataDispatcher;
+import com.castlehillgaming.gameshare.messaging.RecallDataPriorities;
 import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.StoredVideo;
 import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.model.TicketIdCipher;
+import com.castlehillgaming.gameshare.model.TicketStage;
 import com.castlehillgaming.gameshare.web.TicketNotFoundException;
 import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
- * The Class GameShareServiceImpl.
+ * The Class GameShareServiceImpl. Its read-only transactions may be routed to
+ * a replica (see ReplicaRoutingDataSource), so the redeem paths poll tickets in
+ * a read-only transaction, and only turn to a read-write one for tickets which
+ * are to be claimed or which were not found (they may not have been
+ * replicated yet).
+ * <p>
+ * Ticket status changes (job status updates, recorded videos, completions and
+ * claims) are made by single guarded UPDATE statements (see
+ * TicketStatusTransitions), without loading the Ticket entities.
  */
 @Service
 @Transactional(readOnly = true)
@@ -29,14 +64,83 @@ public class GameShareServiceImpl implements GameShareService, Serializable {
     /** The serialVersionUID. */
     private static final long serialVersionUID = 8765123697852392633L;
 
+    /**
+     * The maximum number of ticketIds bound into a single batch redemption
+     * query (larger batches are split into several queries of this size).
+     */
+    private static final int REDEEM_TICKETS_QUERY_SIZE = 1000;
+
+    /** The statuses a ticket is claimed by. */
+    private static final List<TicketStatusEnum> CLAIM = List.of(TicketStatusEnum.Claimed);
+
     /** The ticket repository. */
     @Autowired
     private TicketRepository ticketRepo;
 
+    /** The ticket status transitions. */
+    @Autowired
+    private TicketStatusTransitions ticketTransitions;
+
+    /** The ticket event log. */
+    @Autowired
+    private TicketEventLog ticketEventLog;
+
     /** The message producer. */
     @Autowired
     private GameShareMessageProducer msgProducer;
 
+    /** The recall data dispatcher. */
+    @Autowired
+    private RecallDataDispatcher recallDataDispatcher;
+
+    /** The ticket status cache. */
+    @Autowired
+    private TicketStatusCache ticketStatusCache;
+
+    /** The ticket id cipher (for ticketId blind index lookups). */
+    @Autowired
+    private TicketIdCipher ticketIdCipher;
+
+    /** The ticket lifecycle metrics. */
+    @Autowired
+    private TicketLifecycleMetrics lifecycleMetrics;
+
+    /** The job message consumer properties. */
+    @Autowired
+    private JobMessageConsumerProperties consumerProps;
+
+    /** The submit dedup properties. */
+    @Autowired
+    private SubmitDedupProperties dedupProps;
+
+    /** The content hash locks (which serialize repeated submissions). */
+    @Autowired
+    private ContentHashLocks contentHashLocks;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The recall data priorities (null if they are disabled). */
+    @Autowired(required = false)
+    private RecallDataPriorities recallDataPriorities;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The read-only transaction template. */
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    /**
+     * Initialize the read-only transaction template.
+     */
+    @PostConstruct
+    void init() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -46,12 +150,93 @@ public class GameShareServiceImpl implements GameShareService, Serializable {
     @Override
     @Transactional
     public Ticket submitGameShareJob(final GameShareInfo gameShareInfo) {
+        final Ticket originalTicket = findOriginalTickets(List.of(gameShareInfo)).get(gameShareInfo.contentHash());
+        if (null != originalTicket) {
+            deduplicated(gameShareInfo);
+            return originalTicket;
+        }
+
         final Ticket ticket = Ticket.createTicket(gameShareInfo);
-        msgProducer.sendGameShareProcessRecallDataMessage(ticket);
+        recallDataDispatcher.dispatch(ticket);
         ticketRepo.save(ticket);
+        ticketEventLog.append(List.of(ticket));
+        cacheStatus(ticket);
         return ticket;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.service.GameShareService#
+     * submitGameShareJobs(java.util.List)
+     */
+    @Override
+    @Transactional
+    public List<Ticket> submitGameShareJobs(final List<GameShareInfo> gameShareInfos) {
+        // repeats (of earlier submissions, or of game shares earlier in the list) are given the original ticket
+        final Map<String, Ticket> originalTickets = findOriginalTickets(gameShareInfos);
+        final List<Ticket> tickets = new ArrayList<>(gameShareInfos.size());
+        final List<Ticket> newTickets = new ArrayList<>(gameShareInfos.size());
+        for (final GameShareInfo gameShareInfo : gameShareInfos) {
+            Ticket ticket = originalTickets.get(gameShareInfo.contentHash());
+            if (null != ticket) {
+                deduplicated(gameShareInfo);
+            } else {
+                ticket = Ticket.createTicket(gameShareInfo);
+                newTickets.add(ticket);
+                if (dedupProps.isEnabled()) {
+                    originalTickets.put(gameShareInfo.contentHash(), ticket);
+                }
+            }
+            tickets.add(ticket);
+        }
+        recallDataDispatcher.dispatchAll(newTickets);
+
+        // ids come from pooled blocks, so the inserts wait for the flush and go as JDBC batches
+        ticketRepo.saveAll(newTickets);
+        ticketEventLog.append(newTickets);
+        newTickets.forEach(this::cacheStatus);
+        return tickets;
+    }
+
+    /**
+     * Find the tickets of earlier submissions (within the dedup window, and not
+     * Failed) of game shares, if submissions are deduplicated. Their content
+     * hashes are locked first (see ContentHashLocks) until the transaction
+     * ends, so a concurrent submission of the same game share waits for this
+     * one's ticket and is given it; this must be the first statement of the
+     * submitting transaction.
+     *
+     * @param gameShareInfos the game share infos
+     * @return the oldest such ticket of each game share, keyed by content hash
+     *         (empty if submissions are not deduplicated)
+     */
+    private Map<String, Ticket> findOriginalTickets(final List<GameShareInfo> gameShareInfos) {
+        final Map<String, Ticket> originalTickets = new HashMap<>();
+        if (dedupProps.isEnabled()) {
+            final Set<String> contentHashes = gameShareInfos.stream().map(GameShareInfo::contentHash)
+                    .collect(Collectors.toSet());
+            contentHashLocks.lock(contentHashes, dedupProps.getLockStripes());
+            ticketRepo.findUnfailedByContentHashInCreatedAfter(contentHashes,
+                    new Date(System.currentTimeMillis() - dedupProps.getWindowMillis()))
+                    .forEach(ticket -> originalTickets.putIfAbsent(ticket.getContentHash(), ticket));
+        }
+
+        return originalTickets;
+    }
+
+    /**
+     * Count a submission which was given the ticket of an earlier one (so no
+     * recording job was dispatched for it).
+     *
+     * @param gameShareInfo the game share info submitted
+     */
+    private void deduplicated(final GameShareInfo gameShareInfo) {
+        Counter.builder("gameshare.submit.deduplicated").tag("casino", gameShareInfo.getCasino())
+                .description("game share submissions given the ticket of an earlier submission")
+                .register(meterRegistry).increment();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -59,17 +244,60 @@ public class GameShareServiceImpl implements GameShareService, Serializable {
      * java.lang.String)
      */
     @Override
-    @Transactional
-    public String redeemTicket(final String ticketValue) {
-        final Ticket redeemedTicket = ticketRepo.findByTicketId(ticketValue).map(ticket -> {
-            if (ticket.claim()) {
-                ticketRepo.save(ticket);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RedeemedTicket redeemTicket(final String ticketValue) {
+        return redeemTicket(ticketValue, redeemedTicket -> false);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.service.GameShareService#redeemTicket(
+     * java.lang.String, java.util.function.Predicate)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RedeemedTicket redeemTicket(final String ticketValue, final Predicate<RedeemedTicket> unchanged) {
+        final TicketStatusCache.Entry cachedStatus = ticketStatusCache.get(ticketValue);
+        if (null != cachedStatus) {
+            if (cachedStatus.isNotFound()) {
+                throw new TicketNotFoundException();
+            }
+
+            final RedeemedTicket cachedTicket = new RedeemedTicket(cachedStatus.getStatus(),
+                    cachedStatus.getVersion(), cachedStatus.getVideoUrl());
+            if (!cachedStatus.getStatus().equals(TicketStatusEnum.Completed) || unchanged.test(cachedTicket)) {
+                // there is nothing to claim (or the client is not to claim it), so the cached status is the answer
+                return cachedTicket;
+            }
+        }
+
+        final TicketRedemption polledRedemption = readOnlyTransactionTemplate.execute(status -> ticketRepo
+                .findRedemptionsByTicketIdIndexIn(List.of(ticketIdCipher.index(ticketValue))).stream().findFirst()
+                .orElse(null));
+        if (null != polledRedemption) {
+            final RedeemedTicket polledTicket = redeemedTicket(polledRedemption);
+            if (!polledRedemption.getStatus().equals(TicketStatusEnum.Completed)) {
+                ticketStatusCache.putIfAbsent(ticketValue, polledRedemption.getStatus(),
+                        polledRedemption.getVersion(), polledRedemption.getVideoUrl());
+                return polledTicket;
+            }
+            if (unchanged.test(polledTicket)) {
+                return polledTicket;
             }
+        }
 
-            return ticket;
-        }).orElseThrow(TicketNotFoundException::new);
+        return transactionTemplate.execute(status -> {
+            final TicketStatusChange change = ticketTransitions.transition(ticketIdCipher.index(ticketValue),
+                    TicketStatusEnum.Claimed, null, null, new Date());
+            if (null == change) {
+                ticketStatusCache.putNotFound(ticketValue);
+                throw new TicketNotFoundException();
+            }
 
-        return redeemedTicket.getVideoUrl();
+            statusChanged(ticketValue, change);
+            return redeemedTicket(change);
+        });
     }
 
     /*
@@ -82,11 +310,31 @@ public class GameShareServiceImpl implements GameShareService, Serializable {
     @Override
     @Transactional
     public void updateJobStatus(final String ticketValue, final TicketStatusEnum jobStatus) {
-        ticketRepo.findByTicketId(ticketValue).map(ticket -> {
-            ticket.setStatus(jobStatus);
-            ticketRepo.save(ticket);
-            return ticket;
-        }).orElseThrow(TicketNotFoundException::new);
+        transition(ticketValue, jobStatus, null, null);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.castlehillgaming.gameshare.service.GameShareService#updateJobStatuses(
+     * java.util.Map)
+     */
+    @Override
+    @Transactional
+    public int updateJobStatuses(final Map<String, List<TicketStatusEnum>> jobStatusUpdates) {
+        final Map<String, String> ticketUuids = new HashMap<>();
+        final Map<String, List<TicketStatusEnum>> statusesByIndex = new HashMap<>();
+        jobStatusUpdates.forEach((ticketUuid, jobStatuses) -> {
+            final String ticketIdIndex = ticketIdCipher.index(ticketUuid);
+            ticketUuids.put(ticketIdIndex, ticketUuid);
+            statusesByIndex.put(ticketIdIndex, jobStatuses);
+        });
+
+        // all of the tickets are updated by one statement
+        final List<TicketStatusChange> changes = ticketTransitions.transition(statusesByIndex, new Date());
+        changes.forEach(change -> statusChanged(ticketUuids.get(change.getTicketIdIndex()), change));
+        return changes.size();
     }
 
     /*
@@ -99,12 +347,15 @@ public class GameShareServiceImpl implements GameShareService, Serializable {
     @Override
     @Transactional
     public void completeJob(final String ticketValue, final String videoUrl) {
-        ticketRepo.findByTicketId(ticketValue).map(ticket -> {
-            ticket.setVideoUrl(videoUrl);
-            ticket.setStatus(TicketStatusEnum.Completed);
-            ticketRepo.save(ticket);
-            return ticket;
-        }).orElseThrow(TicketNotFoundException::new);
+        transition(ticketValue, TicketStatusEnum.Completed, videoUrl, null);
+
+        if (TransactionMode.LOCAL == consumerProps.getTransactionMode()) {
+            // sent once the (database-only) transaction commits, so the broker is not enlisted in it
+            AfterCommit.run(() -> msgProducer.sendTicketCompletedMessage(ticketValue));
+        } else {
+            // sent in this transaction, so waiters are only woken once it commits
+            msgProducer.sendTicketCompletedMessage(ticketValue);
+        }
     }
 
     /*
@@ -114,34 +365,218 @@ public class GameShareServiceImpl implements GameShareService, Serializable {
      * java.util.Map)
      */
     @Override
-    @Transactional
-    public Map<String, String> redeemTickets(final List<String> tickets) {
-        final Map<String, String> completedJobs = new HashMap<>();
-
-        tickets.forEach(ticketUuid -> {
-            ticketRepo.findByTicketId(ticketUuid).map(ticket -> {
-                final String videoUrl = ticket.getVideoUrl();
-                if (null != videoUrl) {
-                    completedJobs.put(ticketUuid, videoUrl);
-                    if (ticket.claim()) {
-                        ticketRepo.save(ticket);
-                    }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, RedeemedTicket> redeemTickets(final List<String> tickets) {
+        return redeemTickets(tickets, redeemedTickets -> false);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.service.GameShareService#redeemTickets(
+     * java.util.List, java.util.function.Predicate)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, RedeemedTicket> redeemTickets(final List<String> tickets,
+            final Predicate<Map<String, RedeemedTicket>> unchanged) {
+        final Map<String, RedeemedTicket> redeemedTickets = new HashMap<>();
+
+        // only tickets which are not cached, or which are cached as Completed
+        // (and so still need to be claimed) have to be looked up
+        final List<String> uncachedTickets = new ArrayList<>();
+        for (final String ticketUuid : new LinkedHashSet<>(tickets)) {
+            final TicketStatusCache.Entry cachedStatus = ticketStatusCache.get(ticketUuid);
+            if (null == cachedStatus || TicketStatusEnum.Completed.equals(cachedStatus.getStatus())) {
+                uncachedTickets.add(ticketUuid);
+            } else if (!cachedStatus.isNotFound()) {
+                redeemedTickets.put(ticketUuid, new RedeemedTicket(cachedStatus.getStatus(),
+                        cachedStatus.getVersion(), cachedStatus.getVideoUrl()));
+            }
+        }
+
+        final List<String> ticketsToClaim = uncachedTickets.isEmpty() ? uncachedTickets
+                : readOnlyTransactionTemplate.execute(status -> pollTickets(uncachedTickets, redeemedTickets));
+        if (!ticketsToClaim.isEmpty() && !unchanged.test(redeemedTickets)) {
+            transactionTemplate.executeWithoutResult(status -> claimTickets(ticketsToClaim, redeemedTickets));
+        }
+
+        return redeemedTickets;
+    }
+
+    /**
+     * Poll the redemption status of tickets. The tickets found are added to the
+     * redeemed tickets (those which are Completed as polled, to be replaced
+     * once they are claimed).
+     *
+     * @param ticketUuids     the ticketIds
+     * @param redeemedTickets the redeemed tickets, keyed by ticketId
+     * @return the ticketIds of the tickets to claim (those found Completed, or
+     *         not found)
+     */
+    private List<String> pollTickets(final List<String> ticketUuids,
+            final Map<String, RedeemedTicket> redeemedTickets) {
+        final List<String> ticketsToClaim = new ArrayList<>();
+        forEachQueryBatch(ticketUuids, notFoundTickets -> {
+            for (final TicketRedemption redemption : ticketRepo
+                    .findRedemptionsByTicketIdIndexIn(notFoundTickets.keySet())) {
+                final String ticketUuid = notFoundTickets.remove(redemption.getTicketIdIndex());
+                redeemedTickets.put(ticketUuid, redeemedTicket(redemption));
+                if (redemption.getStatus().equals(TicketStatusEnum.Completed)) {
+                    ticketsToClaim.add(ticketUuid);
+                } else {
+                    ticketStatusCache.putIfAbsent(ticketUuid, redemption.getStatus(), redemption.getVersion(),
+                            redemption.getVideoUrl());
                 }
-                return ticket;
-            });
+            }
+
+            ticketsToClaim.addAll(notFoundTickets.values());
         });
 
-        return completedJobs;
+        return ticketsToClaim;
+    }
+
+    /**
+     * Claim the Completed tickets among tickets. All those found are added to
+     * the redeemed tickets.
+     *
+     * @param ticketUuids     the ticketIds
+     * @param redeemedTickets the redeemed tickets, keyed by ticketId
+     */
+    private void claimTickets(final List<String> ticketUuids, final Map<String, RedeemedTicket> redeemedTickets) {
+        forEachQueryBatch(ticketUuids, notFoundTickets -> {
+            // the tickets are claimed (those which are Completed) and read back by one statement
+            final Map<String, List<TicketStatusEnum>> claims = new HashMap<>();
+            notFoundTickets.keySet().forEach(ticketIdIndex -> claims.put(ticketIdIndex, CLAIM));
+            for (final TicketStatusChange change : ticketTransitions.transition(claims, new Date())) {
+                final String ticketUuid = notFoundTickets.remove(change.getTicketIdIndex());
+                redeemedTickets.put(ticketUuid, redeemedTicket(change));
+                statusChanged(ticketUuid, change);
+            }
+
+            notFoundTickets.values().forEach(ticketStatusCache::putNotFound);
+        });
+    }
+
+    /**
+     * Split ticketIds into batches small enough for one redemption query.
+     *
+     * @param ticketUuids the ticketIds
+     * @param action      the action to run on each batch, given the batch's
+     *                    ticketIds keyed by blind index (the redemptions found
+     *                    are keyed by blind index, so must be mapped back)
+     */
+    private void forEachQueryBatch(final List<String> ticketUuids, final Consumer<Map<String, String>> action) {
+        for (int from = 0; from < ticketUuids.size(); from += REDEEM_TICKETS_QUERY_SIZE) {
+            final Map<String, String> ticketBatch = new HashMap<>();
+            ticketUuids.subList(from, Math.min(from + REDEEM_TICKETS_QUERY_SIZE, ticketUuids.size()))
+                    .forEach(ticketUuid -> ticketBatch.put(ticketIdCipher.index(ticketUuid), ticketUuid));
+            action.accept(ticketBatch);
+        }
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.service.GameShareService#findVideo(java.
+     * lang.String)
+     */
+    @Override
+    public StoredVideo findVideo(final String ticketValue) {
+        return findTicket(ticketValue).map(Ticket::getStoredVideo).orElseThrow(TicketNotFoundException::new);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.service.GameShareService#saveVideo(java.
+     * lang.String, com.castlehillgaming.gameshare.model.StoredVideo)
+     */
     @Override
     @Transactional
-    public void saveVideo(final String ticketValue, final byte[] videoBytes) {
-        ticketRepo.findByTicketId(ticketValue).map(ticket -> {
-            ticket.setVideoBytes(videoBytes);
-            ticket.setStatus(TicketStatusEnum.Recorded);
-            ticketRepo.save(ticket);
-            return ticket;
-        }).orElseThrow(TicketNotFoundException::new);
+    public void saveVideo(final String ticketValue, final StoredVideo storedVideo) {
+        transition(ticketValue, TicketStatusEnum.Recorded, null, storedVideo);
+    }
+
+    /**
+     * Move a ticket to a status, if the transition is permitted, and set its
+     * video url or stored video (whether or not it is).
+     *
+     * @param ticketValue the ticketId value
+     * @param status      the new status
+     * @param videoUrl    the video url to set (null to leave it unchanged)
+     * @param storedVideo the stored video to set (null to leave it unchanged)
+     */
+    private void transition(final String ticketValue, final TicketStatusEnum status, final String videoUrl,
+            final StoredVideo storedVideo) {
+        final TicketStatusChange change = ticketTransitions.transition(ticketIdCipher.index(ticketValue), status,
+                videoUrl, storedVideo, new Date());
+        if (null == change) {
+            throw new TicketNotFoundException();
+        }
+
+        statusChanged(ticketValue, change);
+    }
+
+    /**
+     * Find the ticket with the specified ticketId by its blind index.
+     *
+     * @param ticketValue the ticketId value
+     * @return an Optional Ticket instance
+     */
+    private Optional<Ticket> findTicket(final String ticketValue) {
+        return ticketRepo.findByTicketIdIndex(ticketIdCipher.index(ticketValue));
+    }
+
+    /**
+     * Refresh the cached status of a ticket (once the current transaction
+     * commits).
+     *
+     * @param ticket the ticket
+     */
+    private void cacheStatus(final Ticket ticket) {
+        ticketStatusCache.put(ticket.getTicketId(), ticket.getCurrentStatus(), ticket.getVersion(),
+                ticket.getVideoUrl());
+    }
+
+    /**
+     * Refresh the cached status of a ticket, and publish the stages it reached
+     * and (if recall data priorities are enabled) the time it waited for a
+     * recorder, once the current transaction commits.
+     *
+     * @param ticketValue the ticketId value
+     * @param change      the ticket's status change
+     */
+    private void statusChanged(final String ticketValue, final TicketStatusChange change) {
+        ticketStatusCache.put(ticketValue, change.getStatus(), change.getVersion(), change.getVideoUrl());
+
+        final List<TicketStage> stages = change.getReachedStages();
+        lifecycleMetrics.stagesReached(change.getCasino(), change.getCabinetType(), change.getGameTitle(), stages);
+        if (null != recallDataPriorities) {
+            stages.stream().filter(stage -> TicketStatusEnum.Recording.equals(stage.getStatus()))
+                    .forEach(stage -> lifecycleMetrics.queueWaited(
+                            recallDataPriorities.classify(change.getCasino(), change.getCentsWon()).getName(),
+                            stage.getStageMillis()));
+        }
+    }
+
+    /**
+     * Gets the redeemed ticket a polled redemption status describes.
+     *
+     * @param redemption the redemption status
+     * @return the redeemed ticket
+     */
+    private static RedeemedTicket redeemedTicket(final TicketRedemption redemption) {
+        return new RedeemedTicket(redemption.getStatus(), redemption.getVersion(), redemption.getVideoUrl());
+    }
+
+    /**
+     * Gets the redeemed ticket a status change leaves.
+     *
+     * @param change the status change
+     * @return the redeemed ticket
+     */
+    private static RedeemedTicket redeemedTicket(final TicketStatusChange change) {
+        return new RedeemedTicket(change.getStatus(), change.getVersion(), change.getVideoUrl());
     }
 }
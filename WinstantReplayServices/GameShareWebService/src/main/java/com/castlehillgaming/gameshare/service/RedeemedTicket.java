@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The Class RedeemedTicket holds the outcome of redeeming a ticket: the status
+ * and version of the ticket as redeemed (which together identify what the
+ * redemption saw, so clients can poll conditionally), and its video url.
+ */
+@AllArgsConstructor
+public class RedeemedTicket {
+
+    /** The ticket status. */
+    private final @Getter TicketStatusEnum status;
+
+    /** The ticket version. */
+    private final @Getter int version;
+
+    /** The URL of the uploaded video (null if it is not yet available). */
+    private final @Getter String videoUrl;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class SubmitDedupProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "submit-dedup")
+public class SubmitDedupProperties {
+
+    /**
+     * Whether a repeated submission of a game share is given the ticket of the
+     * original submission (rather than a ticket and recording job of its own).
+     */
+    private @Getter @Setter boolean enabled;
+
+    /**
+     * The time (in milliseconds) after a submission within which the same game
+     * share is treated as a repeat of it.
+     */
+    private @Getter @Setter long windowMillis = 60000;
+
+    /**
+     * The number of advisory locks the submissions of game shares are
+     * serialized by (see ContentHashLocks); each submission holds one lock per
+     * distinct stripe its game shares map to.
+     */
+    private @Getter @Setter int lockStripes = 64;
+}
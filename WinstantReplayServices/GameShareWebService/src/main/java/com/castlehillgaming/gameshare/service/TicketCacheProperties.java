@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class TicketCacheProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "ticket-cache")
+public class TicketCacheProperties {
+
+    /** The maximum number of tickets held in the cache. */
+    private @Getter @Setter long maximumSize = 100000;
+
+    /** The time (in milliseconds) a cached ticket status remains valid. */
+    private @Getter @Setter long expireAfterWriteMillis = 5000;
+
+    /**
+     * The time (in milliseconds) a cached "ticket not found" result remains
+     * valid.
+     */
+    private @Getter @Setter long notFoundExpireAfterWriteMillis = 1000;
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class TicketCompletionWaiters is the registry of callbacks waiting (on
+ * this node) for tickets to be completed. Ticket completions are broadcast to
+ * every node, whichever node completed the ticket, so a waiter is woken
+ * wherever it was registered.
+ */
+@Component
+public class TicketCompletionWaiters {
+
+    /** The waiters, keyed by ticketId. */
+    private final ConcurrentHashMap<String, Set<Runnable>> waiters = new ConcurrentHashMap<>();
+
+    /** The number of waiters. */
+    private final AtomicInteger numWaiters = new AtomicInteger();
+
+    /** The ticket status cache. */
+    @Autowired
+    private TicketStatusCache ticketStatusCache;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Initialize the waiter metrics.
+     */
+    @PostConstruct
+    void init() {
+        Gauge.builder("gameshare.ticket.waiters", numWaiters, AtomicInteger::get)
+                .description("requests waiting for a ticket to be completed").register(meterRegistry);
+    }
+
+    /**
+     * Register a waiter for the completion of a ticket. The waiter is run (at
+     * most once) when the ticket is completed, unless it is deregistered first.
+     *
+     * @param ticketValue the ticketId value
+     * @param waiter      the waiter
+     * @return the action which deregisters the waiter
+     */
+    public Runnable register(final String ticketValue, final Runnable waiter) {
+        waiters.compute(ticketValue, (ticketId, ticketWaiters) -> {
+            final Set<Runnable> newTicketWaiters = null == ticketWaiters ? new CopyOnWriteArraySet<>()
+                    : ticketWaiters;
+            newTicketWaiters.add(waiter);
+            return newTicketWaiters;
+        });
+        numWaiters.incrementAndGet();
+
+        return () -> waiters.computeIfPresent(ticketValue, (ticketId, ticketWaiters) -> {
+            if (ticketWaiters.remove(waiter)) {
+                numWaiters.decrementAndGet();
+            }
+            return ticketWaiters.isEmpty() ? null : ticketWaiters;
+        });
+    }
+
+    /**
+     * Wake all waiters for the completion of a ticket (on this node). The
+     * ticket's cached status is evicted first, as it may have been cached on
+     * this node before the ticket was completed on another one.
+     *
+     * @param ticketValue the ticketId value
+     */
+    public void ticketCompleted(final String ticketValue) {
+        ticketStatusCache.evict(ticketValue);
+
+        final Set<Runnable> ticketWaiters = waiters.remove(ticketValue);
+        if (null != ticketWaiters) {
+            numWaiters.addAndGet(-ticketWaiters.size());
+            ticketWaiters.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.TicketStage;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The Class TicketLifecycleMetrics publishes the ticket lifecycle metrics:
+ * <ul>
+ * <li>gameshare.ticket.stage - the time each stage took, tagged with the
+ * status it ended in (so, for example, stage=Recording is the time a ticket
+ * waited for a recorder, and stage=Recorded is the time it took to record)</li>
+ * <li>gameshare.ticket.turnaround - the time from submission to completion</li>
+ * <li>gameshare.recalldata.queue.wait - the time a ticket waited for a
+ * recorder, tagged by the priorityClass its recall data message was sent with
+ * (only while recall data priorities are enabled)</li>
+ * </ul>
+ * The stage and turnaround timers are tagged by casino, cabinetType and
+ * gameTitle, and all the timers publish
+ * percentile histograms, so percentiles can be aggregated across nodes. Stages
+ * are published by TicketStageListener, so this must not depend (even
+ * indirectly) on the JPA entity manager.
+ */
+@Component
+public class TicketLifecycleMetrics {
+
+    /** The smallest stage duration distinguished by the histograms. */
+    private static final Duration MIN_EXPECTED_DURATION = Duration.ofMillis(10);
+
+    /** The largest stage duration distinguished by the histograms. */
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofHours(1);
+
+    /**
+     * The Class TimerKey identifies a stage (or turnaround) timer.
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static final class TimerKey {
+
+        /** The stage status (null for the turnaround timer). */
+        private final TicketStatusEnum status;
+
+        /** The casino. */
+        private final String casino;
+
+        /** The cabinet type. */
+        private final String cabinetType;
+
+        /** The game title. */
+        private final String gameTitle;
+    }
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * The timers, so that recording a stage does not build a meter id each
+     * time.
+     */
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    /** The queue wait timers, keyed by priority class name. */
+    private final Map<String, Timer> queueWaitTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Record the stages a ticket has reached, once the current transaction (if
+     * any) has committed.
+     *
+     * @param gameShareInfo the ticket's game share info
+     * @param stages        the stages reached
+     */
+    public void stagesReached(final GameShareInfo gameShareInfo, final List<TicketStage> stages) {
+        stagesReached(gameShareInfo.getCasino(), gameShareInfo.getCabinetType(), gameShareInfo.getGameTitle(),
+                stages);
+    }
+
+    /**
+     * Record the stages a ticket has reached, once the current transaction (if
+     * any) has committed.
+     *
+     * @param casino      the casino
+     * @param cabinetType the cabinet type
+     * @param gameTitle   the game title
+     * @param stages      the stages reached
+     */
+    public void stagesReached(final String casino, final String cabinetType, final String gameTitle,
+            final List<TicketStage> stages) {
+        if (stages.isEmpty()) {
+            return;
+        }
+
+        AfterCommit.run(() -> stages.forEach(stage -> {
+            timer(new TimerKey(stage.getStatus(), casino, cabinetType, gameTitle))
+                    .record(stage.getStageMillis(), TimeUnit.MILLISECONDS);
+            if (TicketStatusEnum.Completed.equals(stage.getStatus())) {
+                timer(new TimerKey(null, casino, cabinetType, gameTitle)).record(stage.getAgeMillis(),
+                        TimeUnit.MILLISECONDS);
+            }
+        }));
+    }
+
+    /**
+     * Record the time a ticket waited for a recorder, once the current
+     * transaction (if any) has committed.
+     *
+     * @param priorityClass the name of the priority class of the ticket's
+     *                      recall data message
+     * @param waitMillis    the time (in milliseconds) waited
+     */
+    public void queueWaited(final String priorityClass, final long waitMillis) {
+        AfterCommit.run(() -> queueWaitTimers
+                .computeIfAbsent(priorityClass, name -> Timer.builder("gameshare.recalldata.queue.wait")
+                        .tag("priorityClass", name).description("the time tickets waited for a recorder")
+                        .publishPercentileHistogram().minimumExpectedValue(MIN_EXPECTED_DURATION)
+                        .maximumExpectedValue(MAX_EXPECTED_DURATION).register(meterRegistry))
+                .record(waitMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Gets (registering it if need be) the timer for a key.
+     *
+     * @param key the timer key
+     * @return the timer
+     */
+    private Timer timer(final TimerKey key) {
+        return timers.computeIfAbsent(key, newKey -> {
+            final Timer.Builder builder = null == newKey.status
+                    ? Timer.builder("gameshare.ticket.turnaround")
+                            .description("the time from ticket submission to completion")
+                    : Timer.builder("gameshare.ticket.stage").tag("stage", newKey.status.name())
+                            .description("the time taken by each ticket lifecycle stage");
+
+            return builder.tag("casino", newKey.casino).tag("cabinetType", newKey.cabinetType)
+                    .tag("gameTitle", newKey.gameTitle).publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED_DURATION).maximumExpectedValue(MAX_EXPECTED_DURATION)
+                    .register(meterRegistry);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class TicketMetricsProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "ticket-metrics")
+public class TicketMetricsProperties {
+
+    /**
+     * The time (in milliseconds) between refreshes of the ticket status
+     * gauges; the tickets are counted (by one node) at most once per interval.
+     */
+    private @Getter @Setter long statusCountIntervalMillis = 300000;
+
+    /**
+     * The age (in milliseconds) of the oldest tickets counted by the ticket
+     * status gauges, so only the most recent ticket partitions are scanned.
+     */
+    private @Getter @Setter long statusCountWindowMillis = 86400000;
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+import com.castlehillgaming.gameshare.storage.VideoStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class TicketRetentionJob keeps ticket storage from growing without
+ * bound. Each run:
+ * <ol>
+ * <li>moves the videos of expired tickets (in the configured statuses) out of
+ * the video store into compressed archives, and clears the tickets' references
+ * to them;</li>
+ * <li>if the ticket table is partitioned by month (see
+ * db/postgres/006-ticket-partitioning.sql), creates the partitions for the
+ * coming months, and drops the expired partitions whole (together with their
+ * tickets' recall data and any outbox messages), after archiving any videos
+ * they still reference;</li>
+ * <li>likewise, if the ticket event log is partitioned by month (see
+ * db/postgres/008-ticket-event-log.sql), creates its partitions for the
+ * coming months and drops the expired ones whole.</li>
+ * </ol>
+ * The bytes reclaimed are logged and published (gameshare.retention.reclaimed,
+ * tagged by storage). Videos are deleted from the video store only after the
+ * transaction clearing their references commits, so a failure can leave an
+ * unreferenced video behind, but never a reference to a missing one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ticket-retention", name = "enabled", havingValue = "true")
+public class TicketRetentionJob {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(TicketRetentionJob.class);
+
+    /** The name of the ticket table. */
+    private static final String TICKET_TABLE = "ticket";
+
+    /** The format of the month part of the names of partitions. */
+    private static final DateTimeFormatter PARTITION_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * The advisory lock key taken by partition maintenance, so only one node
+     * maintains partitions at a time.
+     */
+    private static final long PARTITION_LOCK_KEY = 0x6761_6d65_7368_6172L;
+
+    /** The jdbc template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The video store. */
+    @Autowired
+    private VideoStore videoStore;
+
+    /** The ticket retention properties. */
+    @Autowired
+    private TicketRetentionProperties retentionProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The bytes of videos removed from the video store. */
+    private Counter reclaimedVideoBytes;
+
+    /** The bytes of ticket partitions (and their recall data) and ticket event partitions dropped. */
+    private Counter reclaimedTicketBytes;
+
+    /**
+     * The tables partitioned by month, and how they are partitioned.
+     */
+    private enum PartitionedTable {
+
+        /**
+         * The ticket table, partitioned by created_at. Its partitions leave room
+         * on each page, so status updates can stay on the page (HOT updates).
+         */
+        TICKET(TICKET_TABLE, "ticket_p", " with (fillfactor = 90)", month -> "'" + month.atDay(1) + " 00:00:00+00'"),
+
+        /** The ticket event table, partitioned by at_millis. */
+        TICKET_EVENT("ticket_event", "ticket_event_p", "",
+                month -> String.valueOf(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli()));
+
+        /** The table name. */
+        private final String table;
+
+        /** The prefix of the names of the monthly partitions. */
+        private final String partitionPrefix;
+
+        /** The storage parameters clause the partitions are created with. */
+        private final String storageParameters;
+
+        /** Gives the partition bound value at the start of a month (UTC). */
+        private final Function<YearMonth, String> monthStart;
+
+        /**
+         * Instantiates a new partitioned table.
+         *
+         * @param table             the table name
+         * @param partitionPrefix   the prefix of the partition names
+         * @param storageParameters the partition storage parameters clause
+         * @param monthStart        gives the bound value at the start of a month
+         */
+        PartitionedTable(final String table, final String partitionPrefix, final String storageParameters,
+                final Function<YearMonth, String> monthStart) {
+            this.table = table;
+            this.partitionPrefix = partitionPrefix;
+            this.storageParameters = storageParameters;
+            this.monthStart = monthStart;
+        }
+
+        /**
+         * Gets the name of the partition for a month.
+         *
+         * @param month the month
+         * @return the partition name
+         */
+        String partitionName(final YearMonth month) {
+            return partitionPrefix + month.format(PARTITION_MONTH_FORMAT);
+        }
+    }
+
+    /**
+     * Initialize the retention metrics.
+     */
+    @PostConstruct
+    void init() {
+        reclaimedVideoBytes = reclaimedCounter("videos");
+        reclaimedTicketBytes = reclaimedCounter("tickets");
+    }
+
+    /**
+     * Run the ticket retention job.
+     */
+    @Scheduled(fixedDelayString = "${ticket-retention.run-interval-millis:3600000}")
+    public void run() {
+        final Instant now = Instant.now();
+
+        final String videoStatuses = retentionProps.getVideoStatuses().stream().map(Enum::name)
+                .map(status -> "'" + status + "'").collect(Collectors.joining(", "));
+        long videoBytes = videoStatuses.isEmpty() ? 0
+                : archiveVideos(TICKET_TABLE, "status in (" + videoStatuses + ") and created_at < ?",
+                        Timestamp.from(now.minus(retentionProps.getVideoMaxAgeDays(), ChronoUnit.DAYS)));
+
+        long ticketBytes = 0;
+        final ZonedDateTime expiredBefore = now.atZone(ZoneOffset.UTC)
+                .minusMonths(retentionProps.getPartitionMaxAgeMonths());
+        for (final PartitionedTable partitionedTable : PartitionedTable.values()) {
+            if (isPartitioned(partitionedTable)) {
+                createPartitionsAhead(partitionedTable, YearMonth.from(now.atZone(ZoneOffset.UTC)));
+
+                for (final String partition : expiredPartitions(partitionedTable, expiredBefore)) {
+                    if (PartitionedTable.TICKET == partitionedTable) {
+                        videoBytes += archiveVideos(partition, "true");
+                    }
+                    ticketBytes += dropPartition(partitionedTable, partition);
+                }
+            }
+        }
+
+        reclaimedVideoBytes.increment(videoBytes);
+        reclaimedTicketBytes.increment(ticketBytes);
+        logger.info("ticket retention reclaimed {} bytes of videos and {} bytes of tickets", videoBytes,
+                ticketBytes);
+    }
+
+    /**
+     * Archive the videos of the tickets matching a condition, one batch per
+     * transaction, and delete them from the video store. Tickets locked by
+     * another transaction (e.g. the same job on another node) are skipped.
+     *
+     * @param table     the ticket table (or partition)
+     * @param condition the SQL condition selecting the tickets
+     * @param args      the arguments of the condition
+     * @return the number of bytes deleted from the video store
+     */
+    private long archiveVideos(final String table, final String condition, final Object... args) {
+        final String lockBatchSql = "select id, storage_handle, size_bytes, checksum from " + table
+                + " where storage_handle is not null and " + condition + " order by created_at limit "
+                + retentionProps.getVideoBatchSize() + " for update skip locked";
+
+        long numBytes = 0;
+        List<StoredVideo> archived;
+        do {
+            archived = transactionTemplate.execute(status -> {
+                final List<Long> ids = new ArrayList<>();
+                final List<StoredVideo> storedVideos = jdbcTemplate.query(lockBatchSql, (rs, rowNum) -> {
+                    ids.add(rs.getLong("id"));
+                    return new StoredVideo(rs.getString("storage_handle"), rs.getLong("size_bytes"),
+                            rs.getString("checksum"));
+                }, args);
+                if (storedVideos.isEmpty()) {
+                    return Collections.<StoredVideo>emptyList();
+                }
+
+                final String archiveName = videoStore.archive(storedVideos);
+                jdbcTemplate.update(connection -> {
+                    final PreparedStatement statement = connection.prepareStatement("update " + table
+                            + " set storage_handle = null, size_bytes = null, checksum = null,"
+                            + " version = version + 1 where id = any (?)");
+                    statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                    return statement;
+                });
+                logger.debug("archived " + storedVideos.size() + " video(s) from " + table + " into "
+                        + archiveName);
+                return storedVideos;
+            });
+
+            for (final StoredVideo storedVideo : archived) {
+                numBytes += videoStore.delete(storedVideo);
+            }
+        } while (archived.size() == retentionProps.getVideoBatchSize());
+
+        return numBytes;
+    }
+
+    /**
+     * Check whether a table is partitioned.
+     *
+     * @param partitionedTable the table
+     * @return true if the table is partitioned
+     */
+    private boolean isPartitioned(final PartitionedTable partitionedTable) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass(?))",
+                Boolean.class, partitionedTable.table));
+    }
+
+    /**
+     * Create a table's partitions for the current month and the configured
+     * number of months ahead (those which already exist are left as they are).
+     *
+     * @param partitionedTable the table
+     * @param currentMonth     the current month (UTC)
+     */
+    private void createPartitionsAhead(final PartitionedTable partitionedTable, final YearMonth currentMonth) {
+        for (int i = 0; i <= retentionProps.getPartitionsAhead(); i++) {
+            final YearMonth month = currentMonth.plusMonths(i);
+            try {
+                runWithPartitionLock(() -> jdbcTemplate.execute("create table if not exists "
+                        + partitionedTable.partitionName(month) + " partition of " + partitionedTable.table
+                        + " for values from (" + partitionedTable.monthStart.apply(month) + ") to ("
+                        + partitionedTable.monthStart.apply(month.plusMonths(1)) + ")"
+                        + partitionedTable.storageParameters));
+            } catch (final DataAccessException e) {
+                logger.error("could not create " + partitionedTable.table + " partition for " + month, e);
+            }
+        }
+    }
+
+    /**
+     * Find a table's partitions whose months ended before a date-time. Expired
+     * partitions left detached by an earlier run which failed part way through
+     * are included.
+     *
+     * @param partitionedTable the table
+     * @param expiredBefore    the date-time
+     * @return the names of the expired partitions, oldest first
+     */
+    private List<String> expiredPartitions(final PartitionedTable partitionedTable,
+            final ZonedDateTime expiredBefore) {
+        final String partitionPrefix = partitionedTable.partitionPrefix;
+        return jdbcTemplate
+                .queryForList("select relname from pg_class where relkind = 'r' and relname ~ ? order by relname",
+                        String.class, "^" + partitionPrefix + "[0-9]{6}$")
+                .stream()
+                .filter(partition -> !YearMonth
+                        .parse(partition.substring(partitionPrefix.length()), PARTITION_MONTH_FORMAT).plusMonths(1)
+                        .atDay(1).atStartOfDay(ZoneOffset.UTC).isAfter(expiredBefore))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Drop a partition; for a ticket partition, together with the recall data
+     * of its tickets and any outbox messages for them. The partition is
+     * detached in a transaction of its own, so the table is only locked
+     * briefly. A ticket event partition can outlive the ticket partition of the
+     * same month by a month, holding the later events of its tickets.
+     *
+     * @param partitionedTable the table
+     * @param partition        the partition name
+     * @return the number of bytes reclaimed (the size of the partition and of
+     *         the recall data rows deleted)
+     */
+    private long dropPartition(final PartitionedTable partitionedTable, final String partition) {
+        try {
+            runWithPartitionLock(() -> {
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "select relispartition from pg_class where oid = to_regclass(?)", Boolean.class,
+                        partition))) {
+                    jdbcTemplate.execute("alter table " + partitionedTable.table + " detach partition " + partition);
+                }
+            });
+
+            final Long numBytes = withPartitionLock(() -> {
+                if (PartitionedTable.TICKET_EVENT == partitionedTable) {
+                    final long partitionBytes = jdbcTemplate
+                            .queryForObject("select pg_total_relation_size(?::regclass)", Long.class, partition);
+                    jdbcTemplate.execute("drop table " + partition);
+
+                    logger.info("dropped ticket event partition " + partition + " (" + partitionBytes + " bytes)");
+                    return partitionBytes;
+                }
+
+                // the detached partition keeps its own copy of the recall data foreign key
+                jdbcTemplate.queryForList(
+                        "select conname from pg_constraint where conrelid = to_regclass(?) and contype = 'f'",
+                        String.class, partition)
+                        .forEach(constraint -> jdbcTemplate
+                                .execute("alter table " + partition + " drop constraint \"" + constraint + "\""));
+
+                final long partitionBytes = jdbcTemplate.queryForObject("select pg_total_relation_size(?::regclass)",
+                        Long.class, partition);
+                final long recallDataBytes = jdbcTemplate.queryForObject(
+                        "select coalesce(sum(pg_column_size(r.*)), 0) from game_recall_data r join " + partition
+                                + " t on r.id = t.game_recall_data_id",
+                        Long.class);
+
+                jdbcTemplate.update("delete from outbox_message o using " + partition + " t where o.ticket_id = t.id");
+                final int numRecallData = jdbcTemplate.update(
+                        "delete from game_recall_data r using " + partition + " t where r.id = t.game_recall_data_id");
+                jdbcTemplate.execute("drop table " + partition);
+
+                logger.info("dropped ticket partition " + partition + " (" + partitionBytes + " bytes) and "
+                        + numRecallData + " recall data row(s) (" + recallDataBytes + " bytes)");
+                return partitionBytes + recallDataBytes;
+            });
+            return null == numBytes ? 0 : numBytes;
+        } catch (final DataAccessException e) {
+            logger.error("could not drop " + partitionedTable.table + " partition " + partition, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Run partition maintenance in a transaction holding the partition
+     * advisory lock. If another transaction holds the lock, nothing is run.
+     *
+     * @param maintenance the partition maintenance
+     * @return the result of the maintenance (null if it was not run)
+     */
+    private <T> T withPartitionLock(final Supplier<T> maintenance) {
+        return transactionTemplate.execute(status -> Boolean.TRUE.equals(jdbcTemplate
+                .queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, PARTITION_LOCK_KEY))
+                        ? maintenance.get()
+                        : null);
+    }
+
+    /**
+     * Run partition maintenance (without a result) in a transaction holding
+     * the partition advisory lock.
+     *
+     * @param maintenance the partition maintenance
+     */
+    private void runWithPartitionLock(final Runnable maintenance) {
+        withPartitionLock(() -> {
+            maintenance.run();
+            return null;
+        });
+    }
+
+    /**
+     * Register a counter of reclaimed bytes.
+     *
+     * @param storage the storage the bytes are reclaimed from
+     * @return the counter
+     */
+    private Counter reclaimedCounter(final String storage) {
+        return Counter.builder("gameshare.retention.reclaimed").baseUnit("bytes").tag("storage", storage)
+                .description("bytes reclaimed by the ticket retention job").register(meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class TicketRetentionProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "ticket-retention")
+public class TicketRetentionProperties {
+
+    /** Whether the ticket retention job runs. */
+    private @Getter @Setter boolean enabled;
+
+    /** The time (in milliseconds) between runs of the ticket retention job. */
+    private @Getter @Setter long runIntervalMillis = 3600000;
+
+    /**
+     * The age (in days) after which the videos of tickets in the video statuses
+     * are moved out of the video store into archives.
+     */
+    private @Getter @Setter int videoMaxAgeDays = 30;
+
+    /** The statuses of the tickets whose videos are archived once expired. */
+    private @Getter @Setter Set<TicketStatusEnum> videoStatuses = EnumSet.of(TicketStatusEnum.Claimed,
+            TicketStatusEnum.Failed);
+
+    /** The maximum number of videos archived (into one archive) per transaction. */
+    private @Getter @Setter int videoBatchSize = 100;
+
+    /**
+     * The age (in months) after which a monthly ticket partition is dropped,
+     * counted from the end of its month.
+     */
+    private @Getter @Setter int partitionMaxAgeMonths = 13;
+
+    /** The number of monthly ticket partitions kept created ahead of time. */
+    private @Getter @Setter int partitionsAhead = 3;
+}
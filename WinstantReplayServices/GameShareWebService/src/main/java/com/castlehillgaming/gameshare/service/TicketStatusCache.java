@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The Class TicketStatusCache is a bounded, time-evicting cache of ticket
+ * status and video URL, keyed by ticketId. It lets the redeem paths answer
+ * repeated polls for tickets which have not changed without a database hit.
+ * Entries are refreshed by the service whenever it changes a ticket's status
+ * (once the change has been committed), and "not found" results are cached
+ * for a shorter time than found tickets. Hit, miss and eviction counts are
+ * published as ticket.status cache metrics.
+ */
+@Component
+class TicketStatusCache {
+
+    /**
+     * The Class Entry holds the cached status of a ticket.
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    static final class Entry {
+
+        /** The entry cached for a ticket which was not found. */
+        static final Entry NOT_FOUND = new Entry(null, 0, null);
+
+        /** The ticket status (null if the ticket was not found). */
+        private final @Getter TicketStatusEnum status;
+
+        /** The ticket version. */
+        private final @Getter int version;
+
+        /** The video url (null if the video has not yet been uploaded). */
+        private final @Getter String videoUrl;
+
+        /**
+         * Checks if this entry is for a ticket which was not found.
+         *
+         * @return true, if the ticket was not found
+         */
+        boolean isNotFound() {
+            return null == status;
+        }
+    }
+
+    /** The ticket cache properties. */
+    @Autowired
+    private TicketCacheProperties cacheProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The cache. */
+    private Cache<String, Entry> cache;
+
+    /**
+     * Initialize the cache and register its metrics.
+     */
+    @PostConstruct
+    void init() {
+        final long foundExpiryNanos = TimeUnit.MILLISECONDS.toNanos(cacheProps.getExpireAfterWriteMillis());
+        final long notFoundExpiryNanos = TimeUnit.MILLISECONDS.toNanos(cacheProps.getNotFoundExpireAfterWriteMillis());
+
+        cache = Caffeine.newBuilder().maximumSize(cacheProps.getMaximumSize()).expireAfter(new Expiry<String, Entry>() {
+            @Override
+            public long expireAfterCreate(final String ticketId, final Entry entry, final long currentTime) {
+                return entry.isNotFound() ? notFoundExpiryNanos : foundExpiryNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(final String ticketId, final Entry entry, final long currentTime,
+                    final long currentDuration) {
+                return expireAfterCreate(ticketId, entry, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(final String ticketId, final Entry entry, final long currentTime,
+                    final long currentDuration) {
+                return currentDuration;
+            }
+        }).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ticket.status");
+    }
+
+    /**
+     * Gets the cached status of a ticket.
+     *
+     * @param ticketId the ticket id
+     * @return the cached entry (null if the ticket is not cached)
+     */
+    Entry get(final String ticketId) {
+        return cache.getIfPresent(ticketId);
+    }
+
+    /**
+     * Cache the status of a ticket once the current transaction (if any) has
+     * committed, so that a rolled back change is never cached.
+     *
+     * @param ticketId the ticket id
+     * @param status   the ticket status
+     * @param version  the ticket version
+     * @param videoUrl the video url
+     */
+    void put(final String ticketId, final TicketStatusEnum status, final int version, final String videoUrl) {
+        AfterCommit.run(() -> cache.put(ticketId, new Entry(status, version, videoUrl)));
+    }
+
+    /**
+     * Cache the status of a ticket read from a replica (once the current
+     * transaction, if any, has committed), unless the ticket has been cached in
+     * the meantime: a status cached by a change on this node is at least as
+     * fresh as one read from a replica.
+     *
+     * @param ticketId the ticket id
+     * @param status   the ticket status
+     * @param version  the ticket version
+     * @param videoUrl the video url
+     */
+    void putIfAbsent(final String ticketId, final TicketStatusEnum status, final int version, final String videoUrl) {
+        AfterCommit.run(() -> cache.asMap().putIfAbsent(ticketId, new Entry(status, version, videoUrl)));
+    }
+
+    /**
+     * Cache the fact that a ticket was not found.
+     *
+     * @param ticketId the ticket id
+     */
+    void putNotFound(final String ticketId) {
+        cache.put(ticketId, Entry.NOT_FOUND);
+    }
+
+    /**
+     * Evict the cached status of a ticket.
+     *
+     * @param ticketId the ticket id
+     */
+    void evict(final String ticketId) {
+        cache.invalidate(ticketId);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.dao.TicketRepository;
+import com.castlehillgaming.gameshare.dao.TicketStatusCount;
+import com.castlehillgaming.gameshare.dao.TicketStatusTallyRepository;
+import com.castlehillgaming.gameshare.model.TicketStatusTally;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class TicketStatusGauges publishes the number of recent tickets (created
+ * within the configured window) in each status (gameshare.tickets, tagged by
+ * status). The tickets are counted periodically, off the status update path,
+ * so the gauges lag by up to the configured interval.
+ * <p>
+ * Only the partitions of the ticket table holding recent tickets are scanned,
+ * and by one node at a time: the node holding the ticket status advisory lock
+ * counts the tickets (unless another node counted them within the last half
+ * interval) and stores the counts as TicketStatusTally entities, and the other
+ * nodes publish the stored counts.
+ */
+@Component
+public class TicketStatusGauges {
+
+    /**
+     * The key of the advisory lock held by the node counting the tickets
+     * ("tktstats" in ASCII).
+     */
+    private static final long STATUS_COUNT_LOCK_KEY = 0x746b_7473_7461_7473L;
+
+    /** The ticket repository. */
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    /** The ticket status tally repository. */
+    @Autowired
+    private TicketStatusTallyRepository tallyRepo;
+
+    /** The JDBC template. */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** The transaction template. */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The ticket metrics properties. */
+    @Autowired
+    private TicketMetricsProperties metricsProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The number of tickets in each status (as last counted). */
+    private final Map<TicketStatusEnum, AtomicLong> statusCounts = new EnumMap<>(TicketStatusEnum.class);
+
+    /**
+     * Initialize the ticket status gauges.
+     */
+    @PostConstruct
+    void init() {
+        for (final TicketStatusEnum status : TicketStatusEnum.values()) {
+            final AtomicLong statusCount = new AtomicLong();
+            statusCounts.put(status, statusCount);
+            Gauge.builder("gameshare.tickets", statusCount, AtomicLong::get).tag("status", status.name())
+                    .description("recent tickets in each status").register(meterRegistry);
+        }
+    }
+
+    /**
+     * Refresh the number of recent tickets in each status: count them, if this
+     * node holds the advisory lock and the stored counts are stale, or else
+     * read the stored counts.
+     */
+    @Scheduled(fixedDelayString = "${ticket-metrics.status-count-interval-millis:300000}")
+    public void countTicketStatuses() {
+        final List<TicketStatusTally> tallies = transactionTemplate.execute(status -> {
+            final boolean locked = Boolean.TRUE.equals(jdbcTemplate
+                    .queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, STATUS_COUNT_LOCK_KEY));
+            final List<TicketStatusTally> storedTallies = tallyRepo.findAll();
+            return locked && isStale(storedTallies) ? countAndStore() : storedTallies;
+        });
+
+        final Map<TicketStatusEnum, Long> counts = new EnumMap<>(TicketStatusEnum.class);
+        tallies.forEach(tally -> counts.put(tally.getStatus(), tally.getTicketCount()));
+        statusCounts.forEach((status, statusCount) -> statusCount.set(counts.getOrDefault(status, 0L)));
+    }
+
+    /**
+     * Checks whether the stored counts are due to be recounted, i.e. there are
+     * none, or they were counted over half an interval ago (so that of the
+     * nodes refreshing each interval, one recounts them).
+     *
+     * @param tallies the stored counts
+     * @return true if the counts are stale
+     */
+    private boolean isStale(final List<TicketStatusTally> tallies) {
+        final long countedAfter = System.currentTimeMillis() - metricsProps.getStatusCountIntervalMillis() / 2;
+        return tallies.isEmpty() || tallies.stream().anyMatch(tally -> tally.getCountedAt().getTime() < countedAfter);
+    }
+
+    /**
+     * Count the recent tickets in each status and store the counts (a zero
+     * count for each status no recent ticket is in).
+     *
+     * @return the stored counts
+     */
+    private List<TicketStatusTally> countAndStore() {
+        final Date countedAt = new Date();
+        final Map<TicketStatusEnum, Long> counts = new EnumMap<>(TicketStatusEnum.class);
+        for (final TicketStatusCount statusCount : ticketRepo.countByStatusCreatedAfter(
+                new Date(countedAt.getTime() - metricsProps.getStatusCountWindowMillis()))) {
+            counts.put(statusCount.getStatus(), statusCount.getCount());
+        }
+
+        final List<TicketStatusTally> tallies = new ArrayList<>();
+        for (final TicketStatusEnum status : TicketStatusEnum.values()) {
+            tallies.add(new TicketStatusTally(status, counts.getOrDefault(status, 0L), countedAt));
+        }
+        return tallyRepo.saveAll(tallies);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+
+/**
+ * The Class FileSystemVideoStore implements VideoStore on top of the local
+ * file system. Videos are written to a temporary file through a FileChannel
+ * and then moved into place, so a partially written video is never visible
+ * under its storage handle. Archives are zip files (with an entry per video,
+ * named by its storage handle and commented with its checksum) written the
+ * same way.
+ */
+@Component
+public class FileSystemVideoStore implements VideoStore {
+
+    /** The logger. */
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemVideoStore.class);
+
+    /** The checksum algorithm. */
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    /** The format of the date-time part of archive names. */
+    private static final DateTimeFormatter ARCHIVE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /** The video store properties. */
+    @Autowired
+    private VideoStoreProperties videoStoreProps;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.storage.VideoStore#store(java.lang.
+     * String, java.io.InputStream)
+     */
+    @Override
+    public StoredVideo store(final String ticketId, final InputStream videoStream) {
+        final String storageHandle = storageHandleFor(ticketId);
+        final Path videoPath = resolve(storageHandle);
+
+        Path partPath = null;
+        try {
+            Files.createDirectories(videoPath.getParent());
+            partPath = Files.createTempFile(videoPath.getParent(), ticketId, ".part");
+
+            final MessageDigest digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            final byte[] chunk = new byte[videoStoreProps.getChunkSize()];
+            final ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+            long numBytes = 0;
+
+            try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                int numRead;
+                while ((numRead = videoStream.read(chunk)) != -1) {
+                    digest.update(chunk, 0, numRead);
+                    chunkBuffer.clear().limit(numRead);
+                    while (chunkBuffer.hasRemaining()) {
+                        channel.write(chunkBuffer);
+                    }
+                    numBytes += numRead;
+                }
+                channel.force(false);
+            }
+
+            Files.move(partPath, videoPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("stored " + numBytes + " byte video for ticket " + ticketId + " at " + videoPath);
+
+            return new StoredVideo(storageHandle, numBytes,
+                    String.format("%064x", new BigInteger(1, digest.digest())));
+        } catch (final IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(partPath);
+            throw new VideoStorageException("could not store video for ticket " + ticketId, e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.storage.VideoStore#locate(com.
+     * castlehillgaming.gameshare.model.StoredVideo)
+     */
+    @Override
+    public Path locate(final StoredVideo storedVideo) {
+        try {
+            return resolve(storedVideo.getStorageHandle()).toRealPath();
+        } catch (final IOException e) {
+            throw new VideoStorageException("could not find video " + storedVideo.getStorageHandle(), e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.storage.VideoStore#archive(java.util.
+     * Collection)
+     */
+    @Override
+    public String archive(final Collection<StoredVideo> storedVideos) {
+        final String archiveName = "videos-" + ZonedDateTime.now(ZoneOffset.UTC).format(ARCHIVE_TIME_FORMAT) + "-"
+                + UUID.randomUUID().toString().substring(0, 8) + ".zip";
+        final Path archivePath = Paths.get(videoStoreProps.getArchiveDirectory()).resolve(archiveName);
+
+        Path partPath = null;
+        try {
+            Files.createDirectories(archivePath.getParent());
+            partPath = Files.createTempFile(archivePath.getParent(), "videos-", ".part");
+
+            int numArchived = 0;
+            try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                    ZipOutputStream archiveStream = new ZipOutputStream(Channels.newOutputStream(channel))) {
+                archiveStream.setLevel(Deflater.BEST_SPEED);
+                for (final StoredVideo storedVideo : storedVideos) {
+                    final Path videoPath = resolve(storedVideo.getStorageHandle());
+                    if (Files.exists(videoPath)) {
+                        final ZipEntry entry = new ZipEntry(storedVideo.getStorageHandle());
+                        entry.setComment(storedVideo.getChecksum());
+                        archiveStream.putNextEntry(entry);
+                        copy(videoPath, archiveStream);
+                        archiveStream.closeEntry();
+                        numArchived++;
+                    } else {
+                        logger.warn("video " + videoPath + " to archive is missing");
+                    }
+                }
+                archiveStream.finish();
+                channel.force(false);
+            }
+
+            if (0 == numArchived) {
+                deleteQuietly(partPath);
+                return null;
+            }
+
+            Files.move(partPath, archivePath, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("archived " + numArchived + " video(s) into " + archivePath);
+            return archiveName;
+        } catch (final IOException e) {
+            deleteQuietly(partPath);
+            throw new VideoStorageException("could not write video archive " + archivePath, e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.castlehillgaming.gameshare.storage.VideoStore#delete(com.
+     * castlehillgaming.gameshare.model.StoredVideo)
+     */
+    @Override
+    public long delete(final StoredVideo storedVideo) {
+        final Path videoPath = resolve(storedVideo.getStorageHandle());
+        try {
+            final long numBytes = Files.exists(videoPath) ? Files.size(videoPath) : 0;
+            return Files.deleteIfExists(videoPath) ? numBytes : 0;
+        } catch (final IOException e) {
+            throw new VideoStorageException("could not delete video " + videoPath, e);
+        }
+    }
+
+    /**
+     * Copy a video file to a stream in fixed-size chunks.
+     *
+     * @param videoPath the path of the video file
+     * @param stream    the stream
+     * @throws IOException if the video could not be copied
+     */
+    private void copy(final Path videoPath, final OutputStream stream) throws IOException {
+        final byte[] chunk = new byte[videoStoreProps.getChunkSize()];
+        try (InputStream videoStream = Files.newInputStream(videoPath)) {
+            int numRead;
+            while ((numRead = videoStream.read(chunk)) != -1) {
+                stream.write(chunk, 0, numRead);
+            }
+        }
+    }
+
+    /**
+     * Gets the storage handle for a ticket's video. Videos are spread over
+     * sub-directories keyed by the first two characters of the ticketId to keep
+     * directory sizes manageable.
+     *
+     * @param ticketId the ticket id
+     * @return the storage handle (a path relative to the root directory)
+     */
+    private String storageHandleFor(final String ticketId) {
+        return ticketId.substring(0, 2) + "/" + ticketId;
+    }
+
+    /**
+     * Resolve a storage handle to its location on the file system.
+     *
+     * @param storageHandle the storage handle
+     * @return the path of the video file
+     */
+    private Path resolve(final String storageHandle) {
+        return Paths.get(videoStoreProps.getRootDirectory()).resolve(storageHandle);
+    }
+
+    /**
+     * Delete a file, ignoring any failure to do so.
+     *
+     * @param path the path (may be null)
+     */
+    private void deleteQuietly(final Path path) {
+        if (null != path) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (final IOException e) {
+                logger.warn("could not delete partially written video " + path, e);
+            }
+        }
+    }
+}
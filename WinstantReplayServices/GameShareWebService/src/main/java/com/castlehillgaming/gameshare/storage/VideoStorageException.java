@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.storage;
+
+/**
+ * The Class VideoStorageException is thrown when a recorded game-share video
+ * cannot be written to (or read from) the video store.
+ */
+public class VideoStorageException extends RuntimeException {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = -2270918442315760519L;
+
+    /**
+     * Instantiates a new video storage exception.
+     *
+     * @param message the detail message
+     * @param cause   the cause
+     */
+    public VideoStorageException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
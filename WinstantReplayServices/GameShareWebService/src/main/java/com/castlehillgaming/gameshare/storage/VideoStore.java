@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+
+/**
+ * The Interface VideoStore provides methods for storing recorded game-share
+ * videos outside of the Ticket data store.
+ */
+public interface VideoStore {
+
+    /**
+     * Store the recorded video for a ticket. The video content is copied from
+     * the stream in fixed-size chunks, so it is never held in memory in full.
+     * Storing a video for a ticket that already has one replaces the earlier
+     * recording.
+     *
+     * @param ticketId    the ticketId of the ticket the video was recorded for
+     * @param videoStream the stream supplying the recorded video content
+     * @return the stored video reference (storage handle, size and checksum)
+     * @throws VideoStorageException if the video could not be stored
+     */
+    StoredVideo store(String ticketId, InputStream videoStream);
+
+    /**
+     * Locate a stored video, so its content can be served straight from the
+     * file holding it (without being read onto the heap).
+     *
+     * @param storedVideo the stored video reference
+     * @return the real path of the file holding the video content
+     * @throws VideoStorageException if the video could not be found
+     */
+    Path locate(StoredVideo storedVideo);
+
+    /**
+     * Copy stored videos into a new compressed archive, outside of the video
+     * store. The videos themselves are left in place (see delete), so they can
+     * be deleted only once they are no longer referenced. Videos which are
+     * missing from the video store are left out of the archive.
+     *
+     * @param storedVideos the stored video references
+     * @return the name of the archive (null if there was nothing to archive)
+     * @throws VideoStorageException if the archive could not be written
+     */
+    String archive(Collection<StoredVideo> storedVideos);
+
+    /**
+     * Delete a stored video.
+     *
+     * @param storedVideo the stored video reference
+     * @return the number of bytes freed (0 if the video was already gone)
+     * @throws VideoStorageException if the video could not be deleted
+     */
+    long delete(StoredVideo storedVideo);
+}
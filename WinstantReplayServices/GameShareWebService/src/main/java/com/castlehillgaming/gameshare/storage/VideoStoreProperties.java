@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class VideoStoreProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "video-store")
+public class VideoStoreProperties {
+
+    /** The root directory under which recorded videos are stored. */
+    private @Getter @Setter String rootDirectory;
+
+    /** The directory into which archives of expired videos are written. */
+    private @Getter @Setter String archiveDirectory;
+
+    /** The size (in bytes) of the chunks used when copying video content. */
+    private @Getter @Setter int chunkSize = 64 * 1024;
+}
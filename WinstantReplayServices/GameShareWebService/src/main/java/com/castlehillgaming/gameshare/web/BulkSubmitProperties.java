@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class BulkSubmitProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "bulk-submit")
+public class BulkSubmitProperties {
+
+    /** The maximum number of game shares in one bulk submission. */
+    private @Getter @Setter int maxGameShares = 500;
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The Class BulkSubmitResult is the result of submitting one of the game
+ * shares of a bulk submission: either its ticket, or the error which
+ * prevented it from being submitted.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkSubmitResult {
+
+    /** The ticket (null if the game share was not submitted). */
+    private @Getter Ticket ticket;
+
+    /** The error (null if the game share was submitted). */
+    private @Getter String error;
+
+    /**
+     * Create the result of a submitted game share.
+     *
+     * @param ticket the ticket
+     * @return the bulk submit result
+     */
+    static BulkSubmitResult submitted(final Ticket ticket) {
+        return new BulkSubmitResult(ticket, null);
+    }
+
+    /**
+     * Create the result of a game share which was not submitted.
+     *
+     * @param error the error
+     * @return the bulk submit result
+     */
+    static BulkSubmitResult rejected(final String error) {
+        return new BulkSubmitResult(null, error);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class RedeemCacheProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "redeem-cache")
+public class RedeemCacheProperties {
+
+    /**
+     * The time (in seconds) clients and shared caches (such as a reverse proxy)
+     * may reuse the redemption of completed tickets without asking again.
+     * Redemptions of tickets which are not completed must always be
+     * revalidated (by their ETag).
+     */
+    private @Getter @Setter long completedMaxAgeSeconds = 3600;
+}
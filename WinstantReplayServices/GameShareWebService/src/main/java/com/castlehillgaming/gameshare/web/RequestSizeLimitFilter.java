@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * The Class RequestSizeLimitFilter rejects request bodies larger than the
+ * configured limit before they are parsed: a request whose Content-Length is
+ * over the limit is answered with 413 without its body being read, and a
+ * request without a Content-Length (i.e. chunked) fails with a
+ * RequestTooLargeException (also 413) as soon as more than the limit has been
+ * read from it.
+ * <p>
+ * The limit is that of one game share, except for bulk submissions, whose
+ * limit is that of as many game shares as one may hold.
+ */
+@Component
+public class RequestSizeLimitFilter extends OncePerRequestFilter {
+
+    /** The path of bulk submissions (see ShareGameController). */
+    private static final String BULK_SUBMIT_PATH = "/sharegame/bulk";
+
+    /** The request size limit properties. */
+    @Autowired
+    private RequestSizeLimitProperties sizeLimitProps;
+
+    /** The bulk submit properties. */
+    @Autowired
+    private BulkSubmitProperties bulkSubmitProps;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(
+     * javax.servlet.http.HttpServletRequest,
+     * javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        final long maxBytes = BULK_SUBMIT_PATH.equals(request.getServletPath())
+                ? sizeLimitProps.getMaxBytes() * bulkSubmitProps.getMaxGameShares()
+                : sizeLimitProps.getMaxBytes();
+        final long contentLength = request.getContentLengthLong();
+
+        if (contentLength > maxBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        } else if (contentLength >= 0) {
+            // the container never reads past the declared length
+            filterChain.doFilter(request, response);
+        } else {
+            filterChain.doFilter(new HttpServletRequestWrapper(request) {
+                private ServletInputStream limitedInputStream;
+
+                @Override
+                public ServletInputStream getInputStream() throws IOException {
+                    if (null == limitedInputStream) {
+                        limitedInputStream = new LimitedInputStream(super.getInputStream(), maxBytes);
+                    }
+                    return limitedInputStream;
+                }
+            }, response);
+        }
+    }
+
+    /**
+     * The Class LimitedInputStream fails once more than a limited number of
+     * bytes have been read from it.
+     */
+    private static final class LimitedInputStream extends ServletInputStream {
+
+        /** The request input stream. */
+        private final ServletInputStream inputStream;
+
+        /** The number of bytes which may still be read. */
+        private long remainingBytes;
+
+        /**
+         * Instantiates a new limited input stream.
+         *
+         * @param inputStream the request input stream
+         * @param maxBytes    the maximum number of bytes which may be read
+         */
+        LimitedInputStream(final ServletInputStream inputStream, final long maxBytes) {
+            this.inputStream = inputStream;
+            remainingBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = inputStream.read();
+            if (-1 != b) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int length = inputStream.read(b, off, len);
+            if (0 < length) {
+                consumed(length);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return inputStream.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return inputStream.isReady();
+        }
+
+        @Override
+        public void setReadListener(final ReadListener readListener) {
+            inputStream.setReadListener(readListener);
+        }
+
+        /**
+         * Account for bytes read.
+         *
+         * @param length the number of bytes read
+         */
+        private void consumed(final int length) {
+            remainingBytes -= length;
+            if (remainingBytes < 0) {
+                throw new RequestTooLargeException();
+            }
+        }
+    }
+}
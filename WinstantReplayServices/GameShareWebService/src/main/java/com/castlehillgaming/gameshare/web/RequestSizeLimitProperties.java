@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class RequestSizeLimitProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "request-size-limit")
+public class RequestSizeLimitProperties {
+
+    /**
+     * The maximum size (in bytes) of a request body; that of a bulk submission
+     * is this times the maximum number of game shares in one (see
+     * BulkSubmitProperties).
+     */
+    private @Getter @Setter long maxBytes = 2 * 1024 * 1024;
+}
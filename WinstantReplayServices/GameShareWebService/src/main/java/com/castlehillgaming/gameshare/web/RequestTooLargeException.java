@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The Class RequestTooLargeException is thrown when a request body is larger
+ * than the configured limit (see RequestSizeLimitProperties).
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class RequestTooLargeException extends RuntimeException {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = 3377413496710913214L;
+
+    /**
+     * Instantiates a new request too large exception.
+     */
+    public RequestTooLargeException() {
+        super("request too large.");
+    }
+}
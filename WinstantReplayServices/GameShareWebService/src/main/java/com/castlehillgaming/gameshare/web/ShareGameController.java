@@ -3,47 +3,96 @@
  */
 package com.castlehillgaming.gameshare.web;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Validator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.StoredVideo;
 import com.castlehillgaming.gameshare.model.Ticket;
 import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare.service.RedeemedTicket;
+import com.castlehillgaming.gameshare.service.TicketCompletionWaiters;
 
-// TODO: Auto-generated Javadoc
 /**
  * The ShareGameController class is a RESTful controller for the GameShare web
  * service. It provides a RESTful interface for HTTP requests into the GameShare
- * web service.
+ * web service: submitting game shares (singly or in bulk) for their videos to
+ * be generated, and redeeming, awaiting and downloading the videos of the
+ * tickets the submissions are answered with.
  */
 @RestController
 @RequestMapping(value = "/sharegame")
 public class ShareGameController {
 
     /** The class logger. */
-    @SuppressWarnings("unused")
     private static final Logger logger = LoggerFactory.getLogger(ShareGameController.class);
 
     /** The game share service. */
     @Autowired
     private GameShareService gameShareService;
 
+    /** The ticket completion waiters. */
+    @Autowired
+    private TicketCompletionWaiters completionWaiters;
+
+    /** The ticket wait properties. */
+    @Autowired
+    private TicketWaitProperties waitProps;
+
+    /** The bulk submit properties. */
+    @Autowired
+    private BulkSubmitProperties bulkSubmitProps;
+
+    /** The redeem cache properties. */
+    @Autowired
+    private RedeemCacheProperties redeemCacheProps;
+
+    /** The validator (for the game shares of bulk submissions). */
+    @Autowired
+    private Validator validator;
+
+    /** The video download writer. */
+    @Autowired
+    private VideoDownloadWriter videoDownloadWriter;
+
+    /** The submit admission control (null if submissions are not rate limited). */
+    @Autowired(required = false)
+    private SubmitAdmissionControl admissionControl;
+
     /**
      * Submit game play info to game sharing service for (de-coupled/asynchronous)
      * generation of game play share content.
@@ -52,44 +101,380 @@ public class ShareGameController {
      *                      results, etc.) in HTTP request body
      * @return A ticket (to be redeemed when game-play share content is ready for
      *         downloading and sharing).
+     * @throws TooManyRequestsException if the submission is over the rate
+     *                                  limits (see SubmitAdmissionControl)
      */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Ticket> submitGamePlayInfo(@RequestBody final GameShareInfo gameShareInfo) {
+        if (null != admissionControl) {
+            admissionControl.admit(gameShareInfo.getCasino());
+        }
+
         return new ResponseEntity<>(gameShareService.submitGameShareJob(gameShareInfo), HttpStatus.CREATED);
     }
 
     /**
-     * Reedeem ticket.
+     * Submit several game shares at once (e.g. a backlog held by a venue while
+     * it was offline). Each game share is validated on its own, and those which
+     * are invalid are reported without failing the rest, which are submitted
+     * together in one transaction.
      *
-     * @param ticketValue the ticket value
+     * @param gameShareInfos the game share infos in HTTP request body
+     * @return the result of each game share (its ticket, or why it was not
+     *         submitted), in request order
+     * @throws TooManyRequestsException if the valid game shares are over the
+     *                                  rate limits (each is charged to its
+     *                                  casino's limit and the global limit)
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkSubmitResult>> submitGamePlayInfos(
+            @RequestBody final List<GameShareInfo> gameShareInfos) {
+        if (gameShareInfos.size() > bulkSubmitProps.getMaxGameShares()) {
+            throw new RequestTooLargeException();
+        }
+
+        // the valid game shares are left a null result, to be filled with their ticket
+        final List<GameShareInfo> validGameShareInfos = new ArrayList<>();
+        final List<BulkSubmitResult> results = new ArrayList<>(gameShareInfos.size());
+        for (final GameShareInfo gameShareInfo : gameShareInfos) {
+            final String error = validationError(gameShareInfo);
+            if (null == error) {
+                validGameShareInfos.add(gameShareInfo);
+            }
+            results.add(null == error ? null : BulkSubmitResult.rejected(error));
+        }
+
+        if (null != admissionControl && !validGameShareInfos.isEmpty()) {
+            final Map<String, Integer> submissionsByCasino = new HashMap<>();
+            validGameShareInfos.forEach(
+                    gameShareInfo -> submissionsByCasino.merge(gameShareInfo.getCasino(), 1, Integer::sum));
+            admissionControl.admit(submissionsByCasino);
+        }
+
+        if (!validGameShareInfos.isEmpty()) {
+            final Iterator<Ticket> tickets = gameShareService.submitGameShareJobs(validGameShareInfos).iterator();
+            results.replaceAll(result -> null == result ? BulkSubmitResult.submitted(tickets.next()) : result);
+        }
+
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Reedeem ticket. The response's ETag identifies the ticket's version and
+     * status, so a poll with a matching If-None-Match is answered with 304. The
+     * If-None-Match is checked against the ticket's cached or polled status
+     * before it is claimed, so such a poll only reads its status.
+     *
+     * @param ticketValue    the ticket value
+     * @param requestHeaders the HTTP request headers
      * @return HTTP response entity containing only headers and status
      */
     @GetMapping(value = "/redeemticket/{ticketValue}")
-    public ResponseEntity<?> reedeemTicket(@PathVariable final String ticketValue) {
+    public ResponseEntity<?> reedeemTicket(@PathVariable final String ticketValue,
+            @RequestHeader final HttpHeaders requestHeaders) {
         Ticket.validateTicketValue(ticketValue);
 
-        final HttpHeaders httpHeaders = new HttpHeaders();
-        try {
-            httpHeaders.setLocation(new URI(gameShareService.redeemTicket(ticketValue)));
-        } catch (final Exception e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
+        final RedeemedTicket redeemedTicket = gameShareService.redeemTicket(ticketValue,
+                polledTicket -> isNoneMatched(requestHeaders, ticketStatusETag(polledTicket)));
+        final HttpHeaders httpHeaders = redeemedTicketHeaders(redeemedTicket.getVideoUrl());
+        httpHeaders.setETag(ticketStatusETag(redeemedTicket));
+        httpHeaders.setCacheControl(redemptionCacheControl(null != redeemedTicket.getVideoUrl()));
 
         return new ResponseEntity<>(null, httpHeaders, HttpStatus.OK);
     }
 
+    /**
+     * Wait for a ticket to be completed, then redeem it. The response is the
+     * same as for redeemticket, but is only sent once the ticket has been
+     * completed (or, if it is not completed in time, once the wait times out).
+     * No request thread is held while waiting.
+     *
+     * @param ticketValue   the ticket value
+     * @param timeoutMillis the maximum time to wait, in milliseconds (optional)
+     * @return the deferred HTTP response entity containing only headers and
+     *         status
+     */
+    @GetMapping(value = "/awaitticket/{ticketValue}")
+    public DeferredResult<ResponseEntity<?>> awaitTicket(@PathVariable final String ticketValue,
+            @RequestParam(required = false) final Long timeoutMillis) {
+        Ticket.validateTicketValue(ticketValue);
+
+        final long timeout = Math.min(null == timeoutMillis ? waitProps.getDefaultTimeoutMillis() : timeoutMillis,
+                waitProps.getMaxTimeoutMillis());
+        final DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>(timeout,
+                () -> redeemedTicketResponse(null));
+
+        // register before checking the ticket, so a completion in between is not missed
+        deferredResult.onCompletion(
+                completionWaiters.register(ticketValue, () -> redeemTicket(ticketValue, deferredResult, true)));
+        redeemTicket(ticketValue, deferredResult, false);
+
+        return deferredResult;
+    }
+
+    /**
+     * Download the recorded video of a ticket from the video store. This serves
+     * the video even when it has not been (or could not be) uploaded, and
+     * supports byte-range requests (Range, If-Range) and ETags, so players can
+     * seek without downloading the whole video.
+     *
+     * @param ticketValue the ticket value
+     * @param request     the HTTP request
+     * @param response    the HTTP response (to which the video is written)
+     * @throws IOException if the video could not be written to the response
+     */
+    @GetMapping(value = "/video/{ticketValue}")
+    public void downloadVideo(@PathVariable final String ticketValue, final HttpServletRequest request,
+            final HttpServletResponse response) throws IOException {
+        Ticket.validateTicketValue(ticketValue);
+
+        final StoredVideo storedVideo = gameShareService.findVideo(ticketValue);
+        if (null == storedVideo) {
+            throw new VideoNotFoundException();
+        }
+
+        videoDownloadWriter.write(storedVideo, request, response);
+    }
+
     /**
      * Redeem tickets for specified jobs. Action is to check is tickets for job
      * completion and return a list of completed jobs only. Jobs which are not yet
      * completed are ignored (and not included in the return Map).
      *
-     * @param tickets a list of job tickets to redeem
+     * The response's ETag identifies the versions and statuses of all the
+     * tickets, so a poll with a matching If-None-Match is answered with 304.
+     * The If-None-Match is checked against the tickets' cached or polled
+     * statuses before any are claimed, so such a poll only reads their
+     * statuses.
+     *
+     * @param tickets        a list of job tickets to redeem
+     * @param requestHeaders the HTTP request headers
      * @return the response entity containing a Map of completed jobs keyed by
      *         ticketUuid mapping to the URL of the completed video
      */
     @GetMapping(value = "/redeemtickets/{tickets}")
-    public ResponseEntity<Map<String, String>> redeemTickets(@PathVariable final List<String> tickets) {
+    public ResponseEntity<Map<String, String>> redeemTickets(@PathVariable final List<String> tickets,
+            @RequestHeader final HttpHeaders requestHeaders) {
+        final List<String> validTickets = validTickets(tickets);
+        final Map<String, RedeemedTicket> redeemedTickets = gameShareService.redeemTickets(validTickets,
+                polledTickets -> isNoneMatched(requestHeaders, ticketStatusesETag(polledTickets)));
+
+        return redeemedTicketsResponse(validTickets, redeemedTickets);
+    }
+
+    /**
+     * Redeem tickets for specified jobs, with the job tickets posted as a JSON
+     * array in the HTTP request body. This is equivalent to the GET form of
+     * redeemtickets, but is not limited by maximum URL length, so it should be
+     * used for large lists of tickets.
+     *
+     * The response has the same ETag (and Cache-Control) as the GET form, so
+     * clients can tell whether anything changed, but a POST is never answered
+     * with 304 (only GET and HEAD requests are conditional), so it always
+     * redeems (and claims) the tickets in full.
+     *
+     * @param tickets a list of job tickets to redeem
+     * @return the response entity containing a Map of completed jobs keyed by
+     *         ticketUuid mapping to the URL of the completed video
+     */
+    @PostMapping(value = "/redeemtickets", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, String>> redeemPostedTickets(@RequestBody final List<String> tickets) {
+        final List<String> validTickets = validTickets(tickets);
+
+        return redeemedTicketsResponse(validTickets, gameShareService.redeemTickets(validTickets));
+    }
+
+    /**
+     * Build the HTTP response to a submission shed by the rate limits, telling
+     * the client when to retry.
+     *
+     * @param e the too many requests exception
+     * @return HTTP response entity containing only headers and status
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Void> tooManyRequests(final TooManyRequestsException e) {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+        return new ResponseEntity<>(null, httpHeaders, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Redeem a ticket for a deferred response.
+     *
+     * @param ticketValue    the ticket value
+     * @param deferredResult the deferred response
+     * @param completed      whether the ticket is known to have been completed
+     *                       (otherwise the response is only set if it has been)
+     */
+    private void redeemTicket(final String ticketValue, final DeferredResult<ResponseEntity<?>> deferredResult,
+            final boolean completed) {
+        try {
+            final String videoUrl = gameShareService.redeemTicket(ticketValue).getVideoUrl();
+            if (completed || null != videoUrl) {
+                deferredResult.setResult(redeemedTicketResponse(videoUrl));
+            }
+        } catch (final RuntimeException e) {
+            deferredResult.setErrorResult(e);
+        }
+    }
+
+    /**
+     * Build the HTTP response to a ticket redemption.
+     *
+     * @param videoUrl the URL of the ticket's video (null if it is not yet
+     *                 available)
+     * @return HTTP response entity containing only headers and status
+     */
+    private ResponseEntity<?> redeemedTicketResponse(final String videoUrl) {
+        return new ResponseEntity<>(null, redeemedTicketHeaders(videoUrl), HttpStatus.OK);
+    }
+
+    /**
+     * Build the HTTP headers of the response to a ticket redemption.
+     *
+     * @param videoUrl the URL of the ticket's video (null if it is not yet
+     *                 available)
+     * @return the HTTP headers (without a Location if the URL is not a valid
+     *         URI)
+     */
+    private static HttpHeaders redeemedTicketHeaders(final String videoUrl) {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        if (null != videoUrl) {
+            try {
+                httpHeaders.setLocation(new URI(videoUrl));
+            } catch (final URISyntaxException e) {
+                logger.warn("redeemed ticket has an invalid video url " + videoUrl, e);
+            }
+        }
+
+        return httpHeaders;
+    }
+
+    /**
+     * Build the HTTP response to a redemption of tickets.
+     *
+     * @param validTickets    the valid job tickets requested
+     * @param redeemedTickets the redeemed tickets, keyed by ticketUuid
+     * @return the response entity containing a Map of completed jobs keyed by
+     *         ticketUuid mapping to the URL of the completed video
+     */
+    private ResponseEntity<Map<String, String>> redeemedTicketsResponse(final List<String> validTickets,
+            final Map<String, RedeemedTicket> redeemedTickets) {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setETag(ticketStatusesETag(redeemedTickets));
+        httpHeaders.setCacheControl(redemptionCacheControl(!validTickets.isEmpty() && validTickets.stream()
+                .allMatch(ticket -> redeemedTickets.containsKey(ticket)
+                        && null != redeemedTickets.get(ticket).getVideoUrl())));
+
+        return new ResponseEntity<>(completedJobs(redeemedTickets), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * Gets the tag identifying the state of a redeemed ticket (its version and
+     * status).
+     *
+     * @param redeemedTicket the redeemed ticket
+     * @return the ticket status tag
+     */
+    private static String ticketStatusTag(final RedeemedTicket redeemedTicket) {
+        return redeemedTicket.getVersion() + "-" + redeemedTicket.getStatus().name();
+    }
+
+    /**
+     * Gets the ETag of a redeemed ticket.
+     *
+     * @param redeemedTicket the redeemed ticket
+     * @return the ETag (quoted)
+     */
+    private static String ticketStatusETag(final RedeemedTicket redeemedTicket) {
+        return "\"" + ticketStatusTag(redeemedTicket) + "\"";
+    }
+
+    /**
+     * Gets the ETag of redeemed tickets (a digest of the ticket status tags of
+     * all of them).
+     *
+     * @param redeemedTickets the redeemed tickets, keyed by ticketUuid
+     * @return the ETag (quoted)
+     */
+    private static String ticketStatusesETag(final Map<String, RedeemedTicket> redeemedTickets) {
+        return "\"" + DigestUtils.md5DigestAsHex(new TreeMap<>(redeemedTickets).entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + ticketStatusTag(entry.getValue())).collect(Collectors.joining(","))
+                .getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Checks whether a request's If-None-Match matches an ETag (weakly, as
+     * for GET requests), i.e. whether the client already has what it
+     * identifies.
+     *
+     * @param requestHeaders the HTTP request headers
+     * @param eTag           the ETag (quoted)
+     * @return true, if the If-None-Match matches the ETag
+     */
+    private static boolean isNoneMatched(final HttpHeaders requestHeaders, final String eTag) {
+        return requestHeaders.getIfNoneMatch().stream()
+                .anyMatch(match -> "*".equals(match) || eTag.equals(match.replaceFirst("^W/", "")));
+    }
+
+    /**
+     * Gets the Cache-Control of a redemption response. Completed redemptions
+     * (whose video urls will not change) may be reused by clients and shared
+     * caches for a while; the rest must be revalidated each time.
+     *
+     * @param completed whether the redeemed tickets are all completed
+     * @return the Cache-Control
+     */
+    private CacheControl redemptionCacheControl(final boolean completed) {
+        return completed
+                ? CacheControl.maxAge(redeemCacheProps.getCompletedMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic()
+                : CacheControl.noCache();
+    }
+
+    /**
+     * Gets the completed jobs among redeemed tickets.
+     *
+     * @param redeemedTickets the redeemed tickets, keyed by ticketUuid
+     * @return the URLs of the completed videos, keyed by ticketUuid
+     */
+    private static Map<String, String> completedJobs(final Map<String, RedeemedTicket> redeemedTickets) {
+        final Map<String, String> completedJobs = new HashMap<>();
+        redeemedTickets.forEach((ticketUuid, redeemedTicket) -> {
+            if (null != redeemedTicket.getVideoUrl()) {
+                completedJobs.put(ticketUuid, redeemedTicket.getVideoUrl());
+            }
+        });
+
+        return completedJobs;
+    }
+
+    /**
+     * Validate a game share info.
+     *
+     * @param gameShareInfo the game share info
+     * @return the validation error (null if the game share info is valid)
+     */
+    private String validationError(final GameShareInfo gameShareInfo) {
+        if (null == gameShareInfo) {
+            return "missing game share";
+        }
+
+        final String violations = validator.validate(gameShareInfo).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage()).sorted()
+                .collect(Collectors.joining(", "));
+        return violations.isEmpty() ? null : violations;
+    }
+
+    /**
+     * Filter a list of job tickets down to those with valid ticket values.
+     *
+     * @param tickets the job tickets
+     * @return the valid job tickets
+     */
+    private List<String> validTickets(final List<String> tickets) {
         final List<String> validTickets = new ArrayList<>();
         tickets.forEach(ticket -> {
             try {
@@ -102,6 +487,6 @@ public class ShareGameController {
             }
         });
 
-        return new ResponseEntity<>(gameShareService.redeemTickets(validTickets), HttpStatus.OK);
+        return validTickets;
     }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class SubmitAdmissionControl rate limits game share submissions, so one
+ * casino (e.g. running a promotion) cannot flood the recorders' queue for
+ * every other casino. Each casino has its own token bucket, and all casinos
+ * share a global one; a submission is only admitted if both have a token.
+ * Submissions which are shed are rejected before the database or the broker
+ * is touched. The game shares of a bulk submission are each charged to their
+ * casino's bucket and the global one, and are admitted or shed together. A
+ * submission without a casino (which fails validation later) is only charged
+ * to the global bucket.
+ * <p>
+ * The admitted and shed submissions of each casino are counted
+ * (gameshare.submit.admitted and gameshare.submit.shed, the latter also tagged
+ * by the limit which shed them).
+ */
+@Component
+@ConditionalOnProperty(prefix = "submit-rate-limit", name = "enabled", havingValue = "true")
+public class SubmitAdmissionControl {
+
+    /** The submit rate limit properties. */
+    @Autowired
+    private SubmitRateLimitProperties rateLimitProps;
+
+    /** The meter registry. */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** The global token bucket. */
+    private TokenBucket globalBucket;
+
+    /** The admission state of each casino, keyed by casino name. */
+    private Cache<String, CasinoAdmission> casinoAdmissions;
+
+    /**
+     * The Class CasinoAdmission holds a casino's token bucket and counters.
+     */
+    private static final class CasinoAdmission {
+
+        /** The token bucket. */
+        private final TokenBucket bucket;
+
+        /** The admitted submissions. */
+        private final Counter admitted;
+
+        /** The submissions shed by the casino's limit. */
+        private final Counter shedByCasino;
+
+        /** The submissions shed by the global limit. */
+        private final Counter shedByGlobal;
+
+        /**
+         * Instantiates a new casino admission.
+         *
+         * @param casino        the casino
+         * @param nowNanos      the current (System#nanoTime) time
+         * @param props         the submit rate limit properties
+         * @param meterRegistry the meter registry
+         */
+        CasinoAdmission(final String casino, final long nowNanos, final SubmitRateLimitProperties props,
+                final MeterRegistry meterRegistry) {
+            bucket = new TokenBucket(props.getCasinos().getOrDefault(casino, props.getCasino()), nowNanos);
+            admitted = Counter.builder("gameshare.submit.admitted").tag("casino", casino)
+                    .description("game share submissions admitted").register(meterRegistry);
+            shedByCasino = shedCounter(casino, "casino", meterRegistry);
+            shedByGlobal = shedCounter(casino, "global", meterRegistry);
+        }
+
+        /**
+         * Register a counter of shed submissions.
+         *
+         * @param casino        the casino
+         * @param limit         the limit which shed the submissions
+         * @param meterRegistry the meter registry
+         * @return the counter
+         */
+        private static Counter shedCounter(final String casino, final String limit,
+                final MeterRegistry meterRegistry) {
+            return Counter.builder("gameshare.submit.shed").tag("casino", casino).tag("limit", limit)
+                    .description("game share submissions shed by the rate limits").register(meterRegistry);
+        }
+    }
+
+    /**
+     * Initialize the global token bucket and the casino admission state.
+     */
+    @PostConstruct
+    void init() {
+        globalBucket = new TokenBucket(rateLimitProps.getGlobal(), System.nanoTime());
+        casinoAdmissions = Caffeine.newBuilder().maximumSize(rateLimitProps.getMaxCasinos()).build();
+    }
+
+    /**
+     * Admit a game share submission from a casino, or shed it.
+     *
+     * @param casino the casino (null or blank if the submission has none)
+     * @throws TooManyRequestsException if the submission is over the casino's
+     *                                  limit or the global limit
+     */
+    public void admit(final String casino) {
+        admit(Collections.singletonMap(casino, 1));
+    }
+
+    /**
+     * Admit game share submissions from several casinos (e.g. the game shares
+     * of a bulk submission) all together, or shed them all.
+     *
+     * @param submissionsByCasino the number of submissions, keyed by casino
+     *                            (null or blank for submissions without one)
+     * @throws TooManyRequestsException if the submissions are over a casino's
+     *                                  limit or the global limit
+     */
+    public void admit(final Map<String, Integer> submissionsByCasino) {
+        final long nowNanos = System.nanoTime();
+
+        // the tokens taken from each casino's bucket, to be given back if any limit sheds the submissions
+        final Map<CasinoAdmission, Integer> taken = new HashMap<>();
+        int numSubmissions = 0;
+        for (final Map.Entry<String, Integer> entry : submissionsByCasino.entrySet()) {
+            numSubmissions += entry.getValue();
+            if (StringUtils.isBlank(entry.getKey())) {
+                continue;
+            }
+
+            final CasinoAdmission admission = casinoAdmissions.get(entry.getKey(),
+                    name -> new CasinoAdmission(name, nowNanos, rateLimitProps, meterRegistry));
+            final long casinoWaitNanos = admission.bucket.tryTake(nowNanos, entry.getValue());
+            if (casinoWaitNanos > 0) {
+                giveBack(taken);
+                admission.shedByCasino.increment(entry.getValue());
+                throw new TooManyRequestsException(retryAfterSeconds(casinoWaitNanos));
+            }
+            taken.put(admission, entry.getValue());
+        }
+
+        final long globalWaitNanos = globalBucket.tryTake(nowNanos, numSubmissions);
+        if (globalWaitNanos > 0) {
+            // the casinos were under their own limits, so their tokens are given back
+            giveBack(taken);
+            taken.forEach((admission, tokens) -> admission.shedByGlobal.increment(tokens));
+            throw new TooManyRequestsException(retryAfterSeconds(globalWaitNanos));
+        }
+
+        taken.forEach((admission, tokens) -> admission.admitted.increment(tokens));
+    }
+
+    /**
+     * Give back the tokens taken from casinos' buckets.
+     *
+     * @param taken the number of tokens taken, keyed by casino admission
+     */
+    private static void giveBack(final Map<CasinoAdmission, Integer> taken) {
+        taken.forEach((admission, tokens) -> admission.bucket.giveBack(tokens));
+    }
+
+    /**
+     * Convert a wait to the whole seconds of a Retry-After header.
+     *
+     * @param waitNanos the wait (in nanoseconds)
+     * @return the wait (in seconds, rounded up)
+     */
+    private static long retryAfterSeconds(final long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
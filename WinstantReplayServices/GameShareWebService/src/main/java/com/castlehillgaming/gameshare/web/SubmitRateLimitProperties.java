@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The Class SubmitRateLimitProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "submit-rate-limit")
+public class SubmitRateLimitProperties {
+
+    /** Whether game share submissions are rate limited. */
+    private @Getter @Setter boolean enabled;
+
+    /** The limit applied to each casino (unless overridden in casinos). */
+    private @Getter @Setter Limit casino = new Limit(5, 20);
+
+    /** The limits of particular casinos, keyed by casino name. */
+    private @Getter @Setter Map<String, Limit> casinos = new HashMap<>();
+
+    /** The limit applied to all casinos together. */
+    private @Getter @Setter Limit global = new Limit(100, 200);
+
+    /**
+     * The maximum number of casinos whose limit state is held (the least
+     * recently submitting casinos' state is dropped beyond it).
+     */
+    private @Getter @Setter long maxCasinos = 10000;
+
+    /**
+     * The Class Limit is a rate limit: a sustained rate, and a burst which may
+     * be submitted at once after a quiet period.
+     */
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /** The sustained rate (game shares per second). */
+        private @Getter @Setter double ratePerSecond;
+
+        /** The burst (game shares). */
+        private @Getter @Setter int burst;
+    }
+}
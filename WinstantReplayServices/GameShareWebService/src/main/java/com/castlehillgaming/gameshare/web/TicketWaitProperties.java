@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class TicketWaitProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "ticket-wait")
+public class TicketWaitProperties {
+
+    /**
+     * The time (in milliseconds) an awaitticket request waits for its ticket to
+     * be completed, when the request does not specify one.
+     */
+    private @Getter @Setter long defaultTimeoutMillis = 30000;
+
+    /** The maximum time (in milliseconds) an awaitticket request may wait. */
+    private @Getter @Setter long maxTimeoutMillis = 120000;
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.castlehillgaming.gameshare.web.SubmitRateLimitProperties.Limit;
+
+/**
+ * The Class TokenBucket is a lock-free token bucket, kept as a single atomic
+ * value in the manner of the generic cell rate algorithm: the (theoretical)
+ * time at which the bucket will be full again. Each token taken moves that
+ * time on by one emission interval (the inverse of the rate), and a token can
+ * be taken while that time is no further ahead than the burst allows.
+ */
+final class TokenBucket {
+
+    /** The time (in nanoseconds) between tokens at the sustained rate. */
+    private final long emissionIntervalNanos;
+
+    /** How far (in nanoseconds) the full time may be ahead when a token is taken. */
+    private final long toleranceNanos;
+
+    /** The (System#nanoTime) time at which the bucket will be full again. */
+    private final AtomicLong fullAtNanos;
+
+    /**
+     * Instantiates a new (full) token bucket.
+     *
+     * @param limit    the rate limit
+     * @param nowNanos the current (System#nanoTime) time
+     */
+    TokenBucket(final Limit limit, final long nowNanos) {
+        emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRatePerSecond()));
+        toleranceNanos = Math.max(0, limit.getBurst() - 1) * emissionIntervalNanos;
+        fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Try to take a token.
+     *
+     * @param nowNanos the current (System#nanoTime) time
+     * @return 0 if a token was taken; otherwise how long (in nanoseconds)
+     *         until one can be
+     */
+    long tryTake(final long nowNanos) {
+        return tryTake(nowNanos, 1);
+    }
+
+    /**
+     * Try to take several tokens at once (all or none). More tokens than the
+     * burst can only be taken from a full bucket, which they leave in debt
+     * (so no more are taken until it has refilled by the excess).
+     *
+     * @param nowNanos the current (System#nanoTime) time
+     * @param tokens   the number of tokens
+     * @return 0 if the tokens were taken; otherwise how long (in nanoseconds)
+     *         until they can be
+     */
+    long tryTake(final long nowNanos, final int tokens) {
+        final long tokensToleranceNanos = Math.max(0, toleranceNanos - (tokens - 1) * emissionIntervalNanos);
+        while (true) {
+            final long fullAt = fullAtNanos.get();
+            final long from = fullAt - nowNanos > 0 ? fullAt : nowNanos;
+            final long waitNanos = from - nowNanos - tokensToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, from + tokens * emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken (when the request it was taken for was not
+     * admitted after all).
+     */
+    void giveBack() {
+        giveBack(1);
+    }
+
+    /**
+     * Give back several tokens taken (when the requests they were taken for
+     * were not admitted after all).
+     *
+     * @param tokens the number of tokens
+     */
+    void giveBack(final int tokens) {
+        fullAtNanos.addAndGet(-tokens * emissionIntervalNanos);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.Getter;
+
+/**
+ * The Class TooManyRequestsException is thrown when a submission is over the
+ * configured rate limits (see SubmitRateLimitProperties). It is thrown on
+ * every shed request, so it carries no stack trace.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = -2905476713404188411L;
+
+    /** The time (in seconds) after which the request may be retried. */
+    private final @Getter long retryAfterSeconds;
+
+    /**
+     * Instantiates a new too many requests exception.
+     *
+     * @param retryAfterSeconds the time (in seconds) after which the request
+     *                          may be retried
+     */
+    public TooManyRequestsException(final long retryAfterSeconds) {
+        super("too many requests.", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The Class VideoDownloadProperties.
+ */
+@Component
+@ConfigurationProperties(prefix = "video-download")
+public class VideoDownloadProperties {
+
+    /** The content type of the recorded videos. */
+    private @Getter @Setter String contentType = "video/mp4";
+
+    /**
+     * Whether to hand video content to the servlet container to send straight
+     * from the file (Tomcat sendfile) when the container supports it. Otherwise
+     * it is transferred from a FileChannel to the response.
+     */
+    private @Getter @Setter boolean useSendfile = true;
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+import com.castlehillgaming.gameshare.storage.VideoStore;
+
+/**
+ * The Class VideoDownloadWriter writes recorded game-share videos from the
+ * video store to HTTP responses. It supports conditional requests (on the
+ * video's checksum as its ETag) and single byte-range requests, so a player
+ * seeking in a video only fetches the part it needs. The video content is
+ * never read onto the heap: it is sent straight from the file by the servlet
+ * container (sendfile) where that is supported, and otherwise transferred from
+ * a FileChannel.
+ */
+@Component
+public class VideoDownloadWriter {
+
+    /** The request attribute by which Tomcat signals sendfile support. */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    /** The request attribute naming the file for Tomcat to send. */
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    /** The request attribute giving the (inclusive) offset to send from. */
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    /** The request attribute giving the (exclusive) offset to send to. */
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /** The byte range unit. */
+    private static final String BYTES_UNIT = "bytes";
+
+    /** The video store. */
+    @Autowired
+    private VideoStore videoStore;
+
+    /** The video download properties. */
+    @Autowired
+    private VideoDownloadProperties videoDownloadProps;
+
+    /**
+     * Write a stored video to the HTTP response. A request whose If-None-Match
+     * matches the video's ETag is answered with 304. A request with a single,
+     * satisfiable byte range (and no If-Range, or an If-Range matching the ETag)
+     * is answered with 206 and that range only; an unsatisfiable range is
+     * answered with 416. Any other request (including one for several ranges)
+     * is answered with the whole video.
+     *
+     * @param storedVideo the stored video reference
+     * @param request     the HTTP request
+     * @param response    the HTTP response
+     * @throws IOException if the video could not be written to the response
+     */
+    public void write(final StoredVideo storedVideo, final HttpServletRequest request,
+            final HttpServletResponse response) throws IOException {
+        final String etag = "\"" + storedVideo.getChecksum() + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        final long length = storedVideo.getSizeBytes();
+        long start = 0;
+        long end = length - 1;
+
+        final HttpRange range = requestedRange(request, etag);
+        if (null != range) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + end + "/" + length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        }
+
+        response.setContentType(videoDownloadProps.getContentType());
+        response.setContentLengthLong(end + 1 - start);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || start > end) {
+            return;
+        }
+
+        final Path videoPath = videoStore.locate(storedVideo);
+        if (videoDownloadProps.isUseSendfile() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, videoPath.toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+        } else {
+            transfer(videoPath, start, end, response);
+        }
+    }
+
+    /**
+     * Get the byte range requested by an HTTP request, if it is one to honour.
+     *
+     * @param request the HTTP request
+     * @param etag    the ETag of the video
+     * @return the requested range (null if the whole video is to be sent)
+     */
+    private HttpRange requestedRange(final HttpServletRequest request, final String etag) {
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (null == rangeHeader) {
+            return null;
+        }
+
+        // only a strong validator can match, and the video has no Last-Modified date
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (null != ifRange && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+
+        try {
+            final List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return 1 == ranges.size() ? ranges.get(0) : null;
+        } catch (final IllegalArgumentException e) {
+            // an invalid Range header is ignored
+            return null;
+        }
+    }
+
+    /**
+     * Transfer part of a video file to the HTTP response.
+     *
+     * @param videoPath the path of the video file
+     * @param start     the offset of the first byte to transfer
+     * @param end       the offset of the last byte to transfer
+     * @param response  the HTTP response
+     * @throws IOException if the video could not be transferred
+     */
+    private void transfer(final Path videoPath, final long start, final long end, final HttpServletResponse response)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(videoPath, StandardOpenOption.READ)) {
+            final WritableByteChannel responseChannel = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                final long numTransferred = channel.transferTo(position, end + 1 - position, responseChannel);
+                if (0 == numTransferred && position >= channel.size()) {
+                    throw new EOFException("video " + videoPath + " is shorter than its stored size");
+                }
+                position += numTransferred;
+            }
+        }
+    }
+}
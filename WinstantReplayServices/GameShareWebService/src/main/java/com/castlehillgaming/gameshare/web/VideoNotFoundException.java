@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The Class VideoNotFoundException is thrown when the video of a ticket is
+ * requested before it has been recorded.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class VideoNotFoundException extends RuntimeException {
+
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = -6021870561838194526L;
+
+    /**
+     * Instantiates a new video not found exception.
+     */
+    public VideoNotFoundException() {
+        super("no video has been recorded for ticket.");
+    }
+}
@@ -0,0 +1,31 @@
+-- Moves the game recall data out of the ticket table into its own
+-- game_recall_data table, so that ticket lookups no longer read (or
+-- de-TOAST) the recall data text.
+--
+-- Existing recall data rows re-use the id of the ticket they belong to; both
+-- ids come from the shared hibernate_sequence, so they cannot collide with
+-- ids allocated afterwards.
+
+BEGIN;
+
+CREATE TABLE game_recall_data (
+    id          bigint NOT NULL PRIMARY KEY,
+    recall_data text   NOT NULL
+);
+
+INSERT INTO game_recall_data (id, recall_data)
+    SELECT id, game_recall_data FROM ticket;
+
+ALTER TABLE ticket ADD COLUMN game_recall_data_id bigint;
+UPDATE ticket SET game_recall_data_id = id;
+
+ALTER TABLE ticket
+    ALTER COLUMN game_recall_data_id SET NOT NULL,
+    ADD CONSTRAINT uk_ticket_game_recall_data UNIQUE (game_recall_data_id),
+    ADD CONSTRAINT fk_ticket_game_recall_data FOREIGN KEY (game_recall_data_id) REFERENCES game_recall_data (id),
+    DROP COLUMN game_recall_data;
+
+COMMIT;
+
+-- The rewritten ticket table can now be compacted with:
+--   VACUUM FULL ticket;
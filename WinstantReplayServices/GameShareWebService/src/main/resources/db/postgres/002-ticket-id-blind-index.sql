@@ -0,0 +1,44 @@
+-- Adds the ticket_id_index blind index column which all ticketId lookups are
+-- now made by, replacing lookups on the (encrypted) ticket_id column.
+--
+-- Run in three steps, with the service stopped:
+--
+--   1. this script's first transaction, which adds the (nullable) column;
+--   2. the service once with the ticketidmigration profile added to its
+--      active profiles (and --spring.main.web-application-type=none), which
+--      re-stores each ticket_id with the new cipher and fills in its
+--      ticket_id_index (see TicketIdIndexMigration);
+--   3. this script's second transaction, which enforces the new column and
+--      drops the unique constraint on ticket_id (ticket_id values are now
+--      encrypted with a random IV, so that constraint no longer means
+--      anything).
+
+-- step 1
+BEGIN;
+
+ALTER TABLE ticket ADD COLUMN ticket_id_index varchar(255);
+
+COMMIT;
+
+-- step 3
+BEGIN;
+
+ALTER TABLE ticket
+    ALTER COLUMN ticket_id_index SET NOT NULL,
+    ADD CONSTRAINT uk_ticket_ticket_id_index UNIQUE (ticket_id_index);
+
+DO $$
+DECLARE
+    ticket_id_constraint text;
+BEGIN
+    SELECT con.conname INTO ticket_id_constraint
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'ticket'::regclass AND con.contype = 'u' AND att.attname = 'ticket_id'
+          AND array_length(con.conkey, 1) = 1;
+    IF ticket_id_constraint IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE ticket DROP CONSTRAINT %I', ticket_id_constraint);
+    END IF;
+END $$;
+
+COMMIT;
@@ -0,0 +1,15 @@
+-- Adds the outbox_message table used when recall data messages are
+-- dispatched through the outbox (recall-data-outbox.enabled: true).
+--
+-- Outbox messages are deleted as they are relayed, so the table only holds
+-- the messages still waiting to be sent.
+
+BEGIN;
+
+CREATE TABLE outbox_message (
+    id         bigint    NOT NULL PRIMARY KEY,
+    ticket_id  bigint    NOT NULL REFERENCES ticket (id),
+    created_at timestamp NOT NULL
+);
+
+COMMIT;
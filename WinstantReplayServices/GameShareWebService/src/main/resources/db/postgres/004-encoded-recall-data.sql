@@ -0,0 +1,21 @@
+-- Replaces the game_recall_data text column with encoded_recall_data, which
+-- holds the recall data in the encoded form (see RecallDataEncoding) that is
+-- also sent to the video recorder: a format version byte followed by the
+-- (usually Deflate compressed) UTF-8 recall data.
+--
+-- Existing rows are converted to format version 0 (uncompressed UTF-8), which
+-- can be done in SQL; only recall data stored from now on is compressed.
+
+BEGIN;
+
+ALTER TABLE game_recall_data ADD COLUMN encoded_recall_data bytea;
+UPDATE game_recall_data SET encoded_recall_data = '\x00'::bytea || convert_to(recall_data, 'UTF8');
+
+ALTER TABLE game_recall_data
+    ALTER COLUMN encoded_recall_data SET NOT NULL,
+    DROP COLUMN recall_data;
+
+COMMIT;
+
+-- The rewritten game_recall_data table can now be compacted with:
+--   VACUUM FULL game_recall_data;
@@ -0,0 +1,14 @@
+-- Makes each fetch of hibernate_sequence reserve a block of 50 ids, to match
+-- the pooled-lo id generator now used by all entities (see
+-- model/package-info.java). With pooled-lo the value fetched is the first id
+-- of the block, so ids already allocated are never handed out again.
+--
+-- Apply this BEFORE any node runs the pooled-lo release (which would
+-- otherwise hand out ids that later fetches also return). Nodes still on the
+-- previous release are unaffected: they just use one id of each block.
+
+BEGIN;
+
+ALTER SEQUENCE hibernate_sequence INCREMENT BY 50;
+
+COMMIT;
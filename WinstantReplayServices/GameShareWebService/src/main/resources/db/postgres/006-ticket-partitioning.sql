@@ -0,0 +1,54 @@
+-- Rebuilds the ticket table as a table partitioned by month of created_at
+-- (requires Postgres 12 or later), so expired tickets can be removed by
+-- dropping whole partitions rather than by row-by-row deletes. See
+-- TicketRetentionJob, which creates the partitions for coming months and
+-- drops the expired ones.
+--
+-- Partitions are named ticket_pYYYYMM and bounded by UTC month starts. A
+-- ticket_default partition catches anything outside them; it stays empty
+-- while the retention job keeps partitions created ahead.
+--
+-- The primary key and unique constraints of a partitioned table must include
+-- the partition key, so they become (id, created_at) etc. Their single-column
+-- uniqueness still holds, since ids come from hibernate_sequence and
+-- ticket_id_index values are blind indexes of random UUIDs. For the same
+-- reason outbox_message can no longer reference ticket by a foreign key.
+--
+-- Run with the service stopped.
+
+BEGIN;
+
+SET LOCAL TIME ZONE 'UTC';
+
+ALTER TABLE outbox_message DROP CONSTRAINT IF EXISTS outbox_message_ticket_id_fkey;
+
+CREATE TABLE ticket_partitioned (LIKE ticket INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    month timestamptz;
+BEGIN
+    FOR month IN
+        SELECT generate_series(date_trunc('month', coalesce(oldest, now())),
+                               date_trunc('month', now()) + interval '3 months', interval '1 month')
+            FROM (SELECT min(created_at) AS oldest FROM ticket) t
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF ticket_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'ticket_p' || to_char(month, 'YYYYMM'), month, month + interval '1 month');
+    END LOOP;
+END $$;
+
+CREATE TABLE ticket_default PARTITION OF ticket_partitioned DEFAULT;
+
+INSERT INTO ticket_partitioned SELECT * FROM ticket;
+
+DROP TABLE ticket;
+ALTER TABLE ticket_partitioned RENAME TO ticket;
+
+ALTER TABLE ticket
+    ADD CONSTRAINT ticket_pkey PRIMARY KEY (id, created_at),
+    ADD CONSTRAINT uk_ticket_ticket_id_index UNIQUE (ticket_id_index, created_at),
+    ADD CONSTRAINT uk_ticket_game_recall_data UNIQUE (game_recall_data_id, created_at),
+    ADD CONSTRAINT fk_ticket_game_recall_data FOREIGN KEY (game_recall_data_id) REFERENCES game_recall_data (id);
+
+COMMIT;
@@ -0,0 +1,17 @@
+-- Adds the processed_message table used when job messages are consumed in
+-- local transactions (job-message-consumer.transaction-mode: local) to
+-- recognise redelivered messages.
+--
+-- Records are purged once older than
+-- job-message-consumer.processed-message-retention-millis.
+
+BEGIN;
+
+CREATE TABLE processed_message (
+    message_id   varchar(255) NOT NULL PRIMARY KEY,
+    processed_at timestamp    NOT NULL
+);
+
+CREATE INDEX ix_processed_message_processed_at ON processed_message (processed_at);
+
+COMMIT;
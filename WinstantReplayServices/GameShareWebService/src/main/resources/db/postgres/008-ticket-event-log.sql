@@ -0,0 +1,83 @@
+-- Moves the date-times of each ticket's statuses out of the ticket row into
+-- the append-only ticket_event log (see TicketEvent), so a status change only
+-- rewrites the ticket's status (and version) rather than a row carrying nine
+-- timestamps. Requires 006-ticket-partitioning.sql.
+--
+-- Each event is a ticket id, the ordinal of the status reached and the
+-- date-time (in epoch milliseconds) it was reached at. A ticket's Received
+-- date-time stays in ticket.created_at, so no Received events are written.
+--
+-- ticket_event is partitioned by month of at_millis, like ticket, and its
+-- partitions are created ahead and dropped by TicketRetentionJob in the same
+-- way. Events are appended in time order, so a BRIN index on at_millis keeps
+-- time-range lifecycle queries cheap at a fraction of a btree's size, e.g.
+--
+--   SELECT count(*) FROM ticket_event
+--    WHERE status = 6 AND at_millis >= $1 AND at_millis < $2;
+--
+-- The dropped ticket columns are only marked dropped (no table rewrite); their
+-- space is reclaimed as rows are next rewritten. The ticket partitions are set
+-- to leave a tenth of each page free, so status updates (which no longer touch
+-- an indexed column) can be made as HOT updates on the same page.
+--
+-- Run with the service stopped.
+
+BEGIN;
+
+SET LOCAL TIME ZONE 'UTC';
+
+CREATE TABLE ticket_event (
+    ticket_id bigint   NOT NULL,
+    status    smallint NOT NULL,
+    at_millis bigint   NOT NULL,
+    PRIMARY KEY (ticket_id, status, at_millis)
+) PARTITION BY RANGE (at_millis);
+
+DO $$
+DECLARE
+    month timestamptz;
+    partition text;
+BEGIN
+    FOR month IN
+        SELECT generate_series(date_trunc('month', coalesce(oldest, now())),
+                               date_trunc('month', now()) + interval '3 months', interval '1 month')
+            FROM (SELECT min(created_at) AS oldest FROM ticket) t
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF ticket_event FOR VALUES FROM (%s) TO (%s)',
+                       'ticket_event_p' || to_char(month, 'YYYYMM'),
+                       (extract(epoch FROM month) * 1000)::bigint,
+                       (extract(epoch FROM month + interval '1 month') * 1000)::bigint);
+    END LOOP;
+
+    FOR partition IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+         WHERE i.inhparent = 'ticket'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %I SET (fillfactor = 90)', partition);
+    END LOOP;
+END $$;
+
+CREATE TABLE ticket_event_default PARTITION OF ticket_event DEFAULT;
+
+CREATE INDEX ix_ticket_event_at_millis ON ticket_event USING brin (at_millis);
+
+INSERT INTO ticket_event (ticket_id, status, at_millis)
+SELECT t.id, e.status, (extract(epoch FROM e.at) * 1000)::bigint
+  FROM ticket t
+ CROSS JOIN LATERAL (VALUES (1, t.dispatched_at), (2, t.recording_at), (3, t.recorded_at),
+                            (4, t.uploading_at), (5, t.uploaded_at), (6, t.completed_at),
+                            (7, t.claimed_at), (8, t.failed_at)) AS e (status, at)
+ WHERE e.at > 'epoch'
+ ORDER BY 3;
+
+ALTER TABLE ticket
+    DROP COLUMN dispatched_at,
+    DROP COLUMN recording_at,
+    DROP COLUMN recorded_at,
+    DROP COLUMN uploading_at,
+    DROP COLUMN uploaded_at,
+    DROP COLUMN completed_at,
+    DROP COLUMN claimed_at,
+    DROP COLUMN failed_at;
+
+COMMIT;
@@ -0,0 +1,12 @@
+-- Drops the partial index on ticket (status) an earlier version of this script
+-- added for the recall data scheduler (recall-data-scheduler.enabled: true).
+-- An index on status makes every status update a non-HOT update, which undoes
+-- the fillfactor set by 008-ticket-event-log.sql; the scheduler now counts the
+-- tickets in flight from their Dispatched events in ticket_event instead (by
+-- its BRIN index on at_millis), so no index on ticket changes.
+
+BEGIN;
+
+DROP INDEX IF EXISTS ix_ticket_in_flight;
+
+COMMIT;
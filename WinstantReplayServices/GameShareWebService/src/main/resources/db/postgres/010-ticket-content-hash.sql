@@ -0,0 +1,14 @@
+-- Adds the content hash of each ticket's game share, by which repeated
+-- submissions of the same game share are recognised
+-- (submit-dedup.enabled: true).
+--
+-- Tickets submitted before this have no content hash, so are never treated
+-- as the original of a repeat.
+
+BEGIN;
+
+ALTER TABLE ticket ADD COLUMN content_hash varchar(64);
+
+CREATE INDEX ix_ticket_content_hash ON ticket (content_hash, created_at) WHERE content_hash IS NOT NULL;
+
+COMMIT;
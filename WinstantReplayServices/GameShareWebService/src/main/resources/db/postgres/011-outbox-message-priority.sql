@@ -0,0 +1,13 @@
+-- Adds the priority of each outbox message (the JMS priority of its
+-- ticket's priority class), by which the tickets held in the outbox are
+-- dispatched when recall data messages are prioritized
+-- (recall-data-priority.enabled: true).
+--
+-- Outbox messages written before this count as of the lowest priority until
+-- they have waited recall-data-priority.max-wait-millis.
+
+BEGIN;
+
+ALTER TABLE outbox_message ADD COLUMN priority smallint NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,13 @@
+-- Adds the ticket_status_tally table, which holds the number of recent
+-- tickets in each status as last counted by one of the nodes, for every
+-- node's ticket status gauges (see TicketStatusGauges).
+
+BEGIN;
+
+CREATE TABLE ticket_status_tally (
+    status       smallint  NOT NULL PRIMARY KEY,
+    ticket_count bigint    NOT NULL,
+    counted_at   timestamp NOT NULL
+);
+
+COMMIT;
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class AesGcmTicketIdCipherTest {
+
+    private final AesGcmTicketIdCipher cipher = new AesGcmTicketIdCipher("password", "salt", 1000);
+
+    private final String ticketId = UUID.randomUUID().toString();
+
+    @Test
+    public void testProtectRoundTrip() {
+        final String protectedTicketId = cipher.protect(ticketId);
+        assertNotEquals(ticketId, protectedTicketId);
+        assertEquals(ticketId, cipher.unprotect(protectedTicketId));
+    }
+
+    @Test
+    public void testProtectUsesRandomIv() {
+        assertNotEquals(cipher.protect(ticketId), cipher.protect(ticketId));
+    }
+
+    @Test
+    public void testIndexIsDeterministic() {
+        assertEquals(cipher.index(ticketId), new AesGcmTicketIdCipher("password", "salt", 1000).index(ticketId));
+        assertNotEquals(cipher.index(ticketId), new AesGcmTicketIdCipher("other", "salt", 1000).index(ticketId));
+        assertNotEquals(cipher.index(ticketId), cipher.index(UUID.randomUUID().toString()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnprotectRejectsTamperedValue() {
+        final char[] protectedTicketId = cipher.protect(ticketId).toCharArray();
+        protectedTicketId[20] = protectedTicketId[20] == 'A' ? 'B' : 'A';
+        cipher.unprotect(new String(protectedTicketId));
+    }
+}
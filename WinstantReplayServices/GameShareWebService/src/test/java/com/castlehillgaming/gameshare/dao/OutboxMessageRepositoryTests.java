@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.GameShareServiceApplication;
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.OutboxMessage;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The Class OutboxMessageRepositoryTests relays held outbox messages by
+ * priority while messages of the highest priority arrive faster than they are
+ * relayed, which must still relay a lower priority message once it has waited
+ * the maximum wait.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GameShareServiceApplication.class)
+@WebAppConfiguration
+@Profile("development")
+public class OutboxMessageRepositoryTests {
+
+    private static final int HIGHEST_PRIORITY = 9;
+
+    private static final int LOW_PRIORITY = 4;
+
+    private static final long MAX_WAIT_MILLIS = 60000;
+
+    /** The (simulated) time between relays. */
+    private static final long RELAY_INTERVAL_MILLIS = 10000;
+
+    private static final int ARRIVALS_PER_RELAY = 3;
+
+    private static final int RELAY_BATCH_SIZE = 2;
+
+    @Autowired
+    private OutboxMessageRepository outboxRepo;
+
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The ticket the outbox messages are for. */
+    private Ticket ticket;
+
+    @Before
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from outbox_message"));
+        ticket = transactionTemplate.execute(status -> ticketRepo.save(Ticket.createTicket(new ObjectMapper()
+                .convertValue(Map.of("casino", "Lucky Star", "cabinetType", "Atlas", "gameTitle", "New Money",
+                        "gamePlayedAt", System.currentTimeMillis(), "centsWon", 12, "gameRecallData", "held"),
+                        GameShareInfo.class))));
+    }
+
+    @Test
+    public void testLowPriorityWaitIsBounded() {
+        final long submittedAt = System.currentTimeMillis() - 3600000;
+        insert(1, submittedAt, LOW_PRIORITY);
+
+        long nextId = 2;
+        for (long now = submittedAt;; now += RELAY_INTERVAL_MILLIS) {
+            for (int i = 0; i < ARRIVALS_PER_RELAY; i++) {
+                insert(nextId++, now, HIGHEST_PRIORITY);
+            }
+
+            final Date agedBefore = new Date(now - MAX_WAIT_MILLIS);
+            final List<Long> relayed = transactionTemplate.execute(status -> {
+                final List<OutboxMessage> batch = outboxRepo.lockNextBatchByPriority(agedBefore, HIGHEST_PRIORITY,
+                        RELAY_BATCH_SIZE);
+                outboxRepo.deleteInBatch(batch);
+                return batch.stream().map(OutboxMessage::getId).collect(Collectors.toList());
+            });
+
+            // relayed by the first relay after it has waited the maximum wait
+            final long waited = now - submittedAt;
+            if (relayed.contains(1L)) {
+                assertTrue(waited > MAX_WAIT_MILLIS);
+                break;
+            }
+            assertTrue("waited " + waited + " ms", waited <= MAX_WAIT_MILLIS);
+        }
+    }
+
+    private void insert(final long id, final long createdAt, final int priority) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "insert into outbox_message (id, ticket_id, created_at, priority) values (?, ?, ?, ?)", id,
+                ticket.getId(), new Timestamp(createdAt), priority));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+public class TicketStatusTransitionsTest {
+
+    @Test
+    public void testFollowingStatusesInOrder() {
+        assertEquals(List.of(TicketStatusEnum.Recording, TicketStatusEnum.Recorded, TicketStatusEnum.Uploading),
+                TicketStatusTransitions.followingStatuses(List.of(TicketStatusEnum.Recording,
+                        TicketStatusEnum.Recorded, TicketStatusEnum.Uploading)));
+    }
+
+    @Test
+    public void testFollowingStatusesDropsDuplicates() {
+        // a redelivered message may repeat a status within one batch
+        assertEquals(List.of(TicketStatusEnum.Recording, TicketStatusEnum.Failed),
+                TicketStatusTransitions.followingStatuses(List.of(TicketStatusEnum.Recording,
+                        TicketStatusEnum.Failed, TicketStatusEnum.Failed)));
+        assertEquals(List.of(TicketStatusEnum.Failed), TicketStatusTransitions
+                .followingStatuses(List.of(TicketStatusEnum.Failed, TicketStatusEnum.Failed)));
+        assertEquals(List.of(TicketStatusEnum.Recording), TicketStatusTransitions
+                .followingStatuses(List.of(TicketStatusEnum.Recording, TicketStatusEnum.Recording)));
+    }
+
+    @Test
+    public void testFollowingStatusesDropsOutOfOrder() {
+        assertEquals(List.of(TicketStatusEnum.Uploading, TicketStatusEnum.Failed),
+                TicketStatusTransitions.followingStatuses(List.of(TicketStatusEnum.Uploading,
+                        TicketStatusEnum.Recorded, TicketStatusEnum.Claimed, TicketStatusEnum.Failed)));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import javax.jms.JMSException;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare.storage.VideoStore;
+import com.castlehillgaming.gameshare.web.TicketNotFoundException;
+import com.castlehillgaming.gameshare_commonutils.SharedConstants;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+public class GameShareJobMessageListenerTest {
+
+    private static final String TICKET = "0b6f4c1e-6c38-4a51-8a4e-2f0c3f0d8a11";
+
+    private GameShareService gameShareService;
+
+    private VideoStore videoStore;
+
+    private GameShareJobMessageListener jobMessageListener;
+
+    @Before
+    public void setUp() {
+        gameShareService = mock(GameShareService.class);
+        videoStore = mock(VideoStore.class);
+        jobMessageListener = new GameShareJobMessageListener();
+        ReflectionTestUtils.setField(jobMessageListener, "gameShareService", gameShareService);
+        ReflectionTestUtils.setField(jobMessageListener, "videoStore", videoStore);
+    }
+
+    @Test
+    public void testMessageWithInvalidTicketIsDropped() throws JMSException {
+        final ActiveMQMessage message = new ActiveMQMessage();
+        message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, "../../etc/passwd");
+        message.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY, TicketStatusEnum.Recorded.getIntValue());
+
+        assertNull(GameShareJobMessageListener.ticketUuidOf(message));
+        jobMessageListener.consumeMessage(message);
+        verifyNoInteractions(gameShareService, videoStore);
+    }
+
+    @Test
+    public void testVideoOfUnknownTicketIsDeleted() throws JMSException {
+        final ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, TICKET);
+        message.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY, TicketStatusEnum.Recorded.getIntValue());
+        message.writeBytes(new byte[16]);
+        message.reset();
+
+        final StoredVideo storedVideo = new StoredVideo("0b/" + TICKET, 16L, "00");
+        when(videoStore.store(any(), any())).thenReturn(storedVideo);
+        doThrow(new TicketNotFoundException()).when(gameShareService).saveVideo(TICKET, storedVideo);
+
+        try {
+            jobMessageListener.consumeMessage(message);
+            fail("expected TicketNotFoundException");
+        } catch (final TicketNotFoundException e) {
+            verify(videoStore).delete(storedVideo);
+        }
+        assertEquals(TICKET, GameShareJobMessageListener.ticketUuidOf(message));
+    }
+}
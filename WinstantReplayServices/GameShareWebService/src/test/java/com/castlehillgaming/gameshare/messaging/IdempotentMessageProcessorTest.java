@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.apache.activemq.command.ActiveMQMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.dao.ProcessedMessageRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class IdempotentMessageProcessorTest {
+
+    private ProcessedMessageRepository processedMessageRepo;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotentMessageProcessor processor;
+
+    @Before
+    public void setUp() {
+        processedMessageRepo = mock(ProcessedMessageRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        processor = new IdempotentMessageProcessor();
+        ReflectionTestUtils.setField(processor, "processedMessageRepo", processedMessageRepo);
+        ReflectionTestUtils.setField(processor, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(processor, "meterRegistry", meterRegistry);
+        processor.init();
+    }
+
+    @Test
+    public void testRedeliveredMessageIsProcessedOnce() throws JMSException {
+        // the redelivery finds the record its first delivery committed
+        when(processedMessageRepo.insertIfAbsent(eq("ID:1"), any())).thenReturn(1, 0);
+        final Message message = message("ID:1");
+        final AtomicInteger processed = new AtomicInteger();
+
+        processor.processOnce(message, processed::incrementAndGet);
+        processor.processOnce(message, processed::incrementAndGet);
+
+        assertEquals(1, processed.get());
+        assertEquals(1.0, meterRegistry.counter("gameshare.jobmessage.duplicates").count(), 0.0);
+    }
+
+    @Test
+    public void testFailedProcessingIsRethrown() throws JMSException {
+        when(processedMessageRepo.insertIfAbsent(eq("ID:1"), any())).thenReturn(1);
+
+        try {
+            processor.processOnce(message("ID:1"), () -> {
+                throw new IllegalStateException("failed");
+            });
+            fail("processing failure was swallowed");
+        } catch (final IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMarkProcessedSkipsDuplicatesInBatch() throws JMSException {
+        when(processedMessageRepo.insertIfAbsent(eq("ID:1"), any())).thenReturn(1);
+        when(processedMessageRepo.insertIfAbsent(eq("ID:2"), any())).thenReturn(0);
+        when(processedMessageRepo.insertIfAbsent(eq("ID:3"), any())).thenReturn(1);
+        final Message first = message("ID:1");
+        final Message third = message("ID:3");
+
+        assertEquals(List.of(first, third), processor.markProcessed(List.of(first, message("ID:2"), third)));
+        assertEquals(1.0, meterRegistry.counter("gameshare.jobmessage.duplicates").count(), 0.0);
+    }
+
+    private static Message message(final String messageId) throws JMSException {
+        final ActiveMQMessage message = new ActiveMQMessage();
+        message.setJMSMessageID(messageId);
+        return message;
+    }
+}
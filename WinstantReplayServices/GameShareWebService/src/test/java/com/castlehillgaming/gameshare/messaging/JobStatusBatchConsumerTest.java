@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare_commonutils.SharedConstants;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobStatusBatchConsumerTest {
+
+    private static final String TICKET_A = "0b6f4c1e-6c38-4a51-8a4e-2f0c3f0d8a11";
+
+    private static final String TICKET_B = "5d2a9e07-91b4-4f3c-b1d6-7e8f0a4c2b22";
+
+    private GameShareService gameShareService;
+
+    private GameShareJobMessageListener jobMessageListener;
+
+    private JobStatusBatchConsumer batchConsumer;
+
+    @Before
+    public void setUp() {
+        gameShareService = mock(GameShareService.class);
+        jobMessageListener = mock(GameShareJobMessageListener.class);
+        batchConsumer = new JobStatusBatchConsumer();
+        ReflectionTestUtils.setField(batchConsumer, "gameShareService", gameShareService);
+        ReflectionTestUtils.setField(batchConsumer, "jobMessageListener", jobMessageListener);
+        ReflectionTestUtils.setField(batchConsumer, "batchProps", new JobStatusBatchProperties());
+        ReflectionTestUtils.setField(batchConsumer, "meterRegistry", new SimpleMeterRegistry());
+        batchConsumer.init();
+    }
+
+    @Test
+    public void testCollapseEndsInFurthestPermittedStatus() throws JMSException {
+        final Map<String, List<TicketStatusEnum>> updates = batchConsumer.collapse(List.of(
+                statusMessage(TICKET_A, TicketStatusEnum.Recording),
+                statusMessage(TICKET_B, TicketStatusEnum.Dispatched),
+                statusMessage(TICKET_A, TicketStatusEnum.Uploading),
+                statusMessage(TICKET_A, TicketStatusEnum.Recording),
+                statusMessage(TICKET_A, TicketStatusEnum.Uploaded),
+                statusMessage(TICKET_B, TicketStatusEnum.Dispatched)));
+
+        assertEquals(List.of(TICKET_A, TICKET_B), List.copyOf(updates.keySet()));
+        assertEquals(List.of(TicketStatusEnum.Recording, TicketStatusEnum.Uploading, TicketStatusEnum.Uploaded),
+                updates.get(TICKET_A));
+        assertEquals(List.of(TicketStatusEnum.Dispatched), updates.get(TICKET_B));
+    }
+
+    @Test
+    public void testConsumeBatchAppliesCollapsedUpdates() throws JMSException {
+        when(gameShareService.updateJobStatuses(anyMap())).thenReturn(1);
+
+        batchConsumer.consumeBatch(List.of(statusMessage(TICKET_A, TicketStatusEnum.Recording),
+                statusMessage(TICKET_A, TicketStatusEnum.Failed),
+                statusMessage(TICKET_A, TicketStatusEnum.Uploading)));
+
+        verify(gameShareService)
+                .updateJobStatuses(Map.of(TICKET_A, List.of(TicketStatusEnum.Recording, TicketStatusEnum.Failed)));
+    }
+
+    @Test
+    public void testConsumeBatchKeepsTicketOrderAroundPayloads() throws JMSException {
+        when(gameShareService.updateJobStatuses(anyMap())).thenReturn(1);
+        final Message recorded = new ActiveMQBytesMessage();
+        recorded.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, TICKET_A);
+        recorded.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY, TicketStatusEnum.Recorded.getIntValue());
+
+        batchConsumer.consumeBatch(List.of(statusMessage(TICKET_A, TicketStatusEnum.Recording), recorded,
+                statusMessage(TICKET_A, TicketStatusEnum.Uploading),
+                statusMessage(TICKET_B, TicketStatusEnum.Recording)));
+
+        final InOrder inOrder = inOrder(gameShareService, jobMessageListener);
+        inOrder.verify(gameShareService).updateJobStatuses(Map.of(TICKET_A, List.of(TicketStatusEnum.Recording)));
+        inOrder.verify(jobMessageListener).processMessage(TICKET_A, recorded);
+        inOrder.verify(gameShareService).updateJobStatuses(Map.of(TICKET_A, List.of(TicketStatusEnum.Uploading),
+                TICKET_B, List.of(TicketStatusEnum.Recording)));
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void testCollapseDropsMessagesWithoutTicket() throws JMSException {
+        final ActiveMQMessage ticketless = new ActiveMQMessage();
+        ticketless.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY, TicketStatusEnum.Recording.getIntValue());
+
+        assertEquals(Map.of(TICKET_A, List.of(TicketStatusEnum.Recording)),
+                batchConsumer.collapse(List.of(ticketless, statusMessage(TICKET_A, TicketStatusEnum.Recording))));
+    }
+
+    private static Message statusMessage(final String ticketUuid, final TicketStatusEnum jobStatus)
+            throws JMSException {
+        final ActiveMQMessage message = new ActiveMQMessage();
+        message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, ticketUuid);
+        message.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY, jobStatus.getIntValue());
+        return message;
+    }
+}
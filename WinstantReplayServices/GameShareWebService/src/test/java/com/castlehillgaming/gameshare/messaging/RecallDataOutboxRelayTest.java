@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.castlehillgaming.gameshare.dao.OutboxMessageRepository;
+import com.castlehillgaming.gameshare.dao.TicketRepository;
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.OutboxMessage;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RecallDataOutboxRelayTest {
+
+    private OutboxMessageRepository outboxRepo;
+
+    private TicketRepository ticketRepo;
+
+    private GameShareService gameShareService;
+
+    private GameShareMessageProducer msgProducer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RecallDataOutboxRelay relay;
+
+    @Before
+    public void setUp() {
+        outboxRepo = mock(OutboxMessageRepository.class);
+        ticketRepo = mock(TicketRepository.class);
+        gameShareService = mock(GameShareService.class);
+        msgProducer = mock(GameShareMessageProducer.class);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new RecallDataOutboxRelay();
+        ReflectionTestUtils.setField(relay, "outboxRepo", outboxRepo);
+        ReflectionTestUtils.setField(relay, "ticketRepo", ticketRepo);
+        ReflectionTestUtils.setField(relay, "gameShareService", gameShareService);
+        ReflectionTestUtils.setField(relay, "msgProducer", msgProducer);
+        ReflectionTestUtils.setField(relay, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(relay, "outboxProps", new RecallDataOutboxProperties());
+        ReflectionTestUtils.setField(relay, "meterRegistry", meterRegistry);
+        relay.init();
+    }
+
+    @Test
+    public void testRelaySendsBeforeDispatchingAndDeletesOrphans() {
+        final Ticket ticket = ticket(1L);
+        // the second outbox message's ticket has been deleted
+        final List<OutboxMessage> batch = List.of(new OutboxMessage(ticket), new OutboxMessage(ticket(2L)));
+        when(outboxRepo.lockNextBatch(anyInt())).thenReturn(batch);
+        when(ticketRepo.findWithGameRecallDataByIdIn(anyList())).thenReturn(List.of(ticket));
+
+        relay.relay();
+
+        final InOrder inOrder = inOrder(msgProducer, gameShareService, outboxRepo);
+        inOrder.verify(msgProducer).sendGameShareProcessRecallDataMessagesLocally(List.of(ticket));
+        inOrder.verify(gameShareService)
+                .updateJobStatuses(Map.of(ticket.getTicketId(), List.of(TicketStatusEnum.Dispatched)));
+        inOrder.verify(outboxRepo).deleteInBatch(batch);
+        assertEquals(1.0, meterRegistry.counter("gameshare.outbox.relayed").count(), 0.0);
+        assertEquals(1.0, meterRegistry.counter("gameshare.outbox.orphaned").count(), 0.0);
+    }
+
+    private static Ticket ticket(final long id) {
+        final Ticket ticket = Ticket.createTicket(new ObjectMapper().convertValue(
+                Map.of("casino", "Lucky Star", "cabinetType", "Atlas", "gameTitle", "ArcticCash", "gamePlayedAt",
+                        1461870653220L, "centsWon", 1200000, "gameRecallData", "wow!"),
+                GameShareInfo.class));
+        ReflectionTestUtils.setField(ticket, "id", id);
+        return ticket;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.messaging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class RecallDataPrioritiesTest {
+
+    private RecallDataPriorities recallDataPriorities;
+
+    @Before
+    public void setUp() {
+        final RecallDataPriorityProperties priorityProps = new RecallDataPriorityProperties();
+        priorityProps.setMaxWaitMillis(60000);
+        priorityProps.getCasinoClasses().put("Lucky Star", "big-win");
+        recallDataPriorities = new RecallDataPriorities();
+        ReflectionTestUtils.setField(recallDataPriorities, "priorityProps", priorityProps);
+        ReflectionTestUtils.setField(recallDataPriorities, "schedulerProps", new RecallDataSchedulerProperties());
+        recallDataPriorities.init();
+    }
+
+    @Test
+    public void testClassify() {
+        assertEquals("jackpot", recallDataPriorities.classify("Bingo Palace", 120000).getName());
+        assertEquals("standard", recallDataPriorities.classify("Bingo Palace", 500).getName());
+        assertEquals("big-win", recallDataPriorities.classify("Lucky Star", 500).getName());
+        assertEquals("jackpot", recallDataPriorities.classify("Lucky Star", 150000).getName());
+    }
+
+    @Test
+    public void testPriorityRaisedAfterMaxWait() {
+        final GameShareInfo gameShareInfo = gameShareInfo(500);
+        final long now = System.currentTimeMillis();
+
+        assertEquals(4, recallDataPriorities.priorityOf(gameShareInfo, new Date(now - 30000)));
+        assertEquals(9, recallDataPriorities.priorityOf(gameShareInfo, new Date(now - 61000)));
+    }
+
+    private static GameShareInfo gameShareInfo(final int centsWon) {
+        return new ObjectMapper().convertValue(Map.of("casino", "Bingo Palace", "cabinetType", "Atlas", "gameTitle",
+                "ArcticCash", "gamePlayedAt", 1461870653220L, "centsWon", centsWon, "gameRecallData", "wow!"),
+                GameShareInfo.class);
+    }
+}
@@ -133,4 +133,25 @@ public class GameShareInfoTest {
                 "New Money", 12, gameRecallData);
         assertFalse(gsInfo.equals(gsInfo2));
     }
+
+    @Test
+    public void testContentHash() {
+        final String gameRecallData = "bummer, dude. Better luck next time.";
+        final GameShareInfo gsInfo = new GameShareInfo(1461870653220L, "Lucky Star", "Atlas", "New Money",
+                12, gameRecallData);
+        final GameShareInfo gsInfo2 = new GameShareInfo(1461870653220L, " Lucky Star", "Atlas",
+                "New Money", 12, gameRecallData);
+        assertEquals(64, gsInfo.contentHash().length());
+        assertEquals(gsInfo.contentHash(), gsInfo2.contentHash());
+        assertEquals(gsInfo, gsInfo2);
+    }
+
+    @Test
+    public void testContentHashInequality() {
+        final GameShareInfo gsInfo = new GameShareInfo(1461870653220L, "Lucky Star", "Atlas", "New Money",
+                12, "bummer");
+        final GameShareInfo gsInfo2 = new GameShareInfo(1461870653220L, "Lucky Star", "Atlas", "New Money",
+                1, "2bummer");
+        assertFalse(gsInfo.contentHash().equals(gsInfo2.contentHash()));
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RecallDataEncodingTest {
+
+    @Test
+    public void testRepetitiveRecallDataIsCompressed() {
+        final StringBuilder recallData = new StringBuilder();
+        for (int i = 0; recallData.length() < 16 * 1024; ++i) {
+            recallData.append("reel").append(i % 5).append(':').append((i * 7919) % 64).append(';');
+        }
+
+        final byte[] encoded = RecallDataEncoding.encode(recallData.toString());
+        assertEquals(RecallDataEncoding.VERSION_DEFLATE, encoded[0]);
+        assertTrue(encoded.length < recallData.length() / 2);
+        assertEquals(recallData.toString(), RecallDataEncoding.decode(encoded));
+    }
+
+    @Test
+    public void testIncompressibleRecallDataIsNotCompressed() {
+        final byte[] encoded = RecallDataEncoding.encode("x");
+        assertEquals(RecallDataEncoding.VERSION_UTF8, encoded[0]);
+        assertEquals(2, encoded.length);
+        assertEquals("x", RecallDataEncoding.decode(encoded));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (final String recallData : new String[] { "", "wow! what a win!", "£€🎰".repeat(500) }) {
+            assertEquals(recallData, RecallDataEncoding.decode(RecallDataEncoding.encode(recallData)));
+        }
+    }
+
+    @Test
+    public void testDecodeUncompressed() {
+        final byte[] utf8 = "wow! what a win!".getBytes(StandardCharsets.UTF_8);
+        final byte[] encoded = new byte[1 + utf8.length];
+        System.arraycopy(utf8, 0, encoded, 1, utf8.length);
+        assertEquals("wow! what a win!", RecallDataEncoding.decode(encoded));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeUnknownVersion() {
+        RecallDataEncoding.decode(new byte[] { 9, 1, 2, 3 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeTruncated() {
+        final byte[] encoded = RecallDataEncoding.encode("wow! what a win! ".repeat(100));
+        RecallDataEncoding.decode(Arrays.copyOf(encoded, encoded.length / 2));
+    }
+}
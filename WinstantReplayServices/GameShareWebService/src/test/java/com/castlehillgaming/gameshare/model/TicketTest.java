@@ -8,6 +8,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -32,21 +34,53 @@ public class TicketTest {
         final Ticket newTicket = Ticket.createTicket(gameShareInfo);
         assertNotNull(newTicket);
         assertTrue(SharedConstants.dateZero.getTime() < newTicket.getStatus().getCreatedAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getDispatchedAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getRecordingAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getRecordedAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getUploadingAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getUploadedAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getCompletedAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getClaimedAt().getTime());
-        assertEquals(SharedConstants.dateZero.getTime(), newTicket.getStatus().getFailedAt().getTime());
         assertEquals(TicketStatusEnum.Received, newTicket.getStatus().getStatus());
     }
 
     @Test
     public void testClaimTicket() {
-        assertEquals(SharedConstants.dateZero.getTime(), ticket.getStatus().getClaimedAt().getTime());
         assertFalse(ticket.claim());
+        assertEquals(TicketStatusEnum.Received, ticket.getCurrentStatus());
+    }
+
+    @Test
+    public void testTransitionPermitted() {
+        assertTrue(Ticket.isTransitionPermitted(TicketStatusEnum.Dispatched, TicketStatusEnum.Uploading));
+        assertFalse(Ticket.isTransitionPermitted(TicketStatusEnum.Uploading, TicketStatusEnum.Recorded));
+        assertFalse(Ticket.isTransitionPermitted(TicketStatusEnum.Recording, TicketStatusEnum.Recording));
+        assertTrue(Ticket.isTransitionPermitted(TicketStatusEnum.Claimed, TicketStatusEnum.Failed));
+        assertTrue(Ticket.isTransitionPermitted(TicketStatusEnum.Failed, TicketStatusEnum.Failed));
+        assertTrue(Ticket.isTransitionPermitted(TicketStatusEnum.Completed, TicketStatusEnum.Claimed));
+        assertFalse(Ticket.isTransitionPermitted(TicketStatusEnum.Uploaded, TicketStatusEnum.Claimed));
+    }
+
+    @Test
+    public void testTakeReachedStages() {
+        assertTrue(ticket.takeReachedStages().isEmpty());
+
+        ticket.setStatus(TicketStatusEnum.Dispatched);
+        ticket.setStatus(TicketStatusEnum.Recording);
+        ticket.setStatus(TicketStatusEnum.Dispatched);
+        final List<TicketStage> stages = ticket.takeReachedStages();
+        assertEquals(2, stages.size());
+        assertEquals(TicketStatusEnum.Dispatched, stages.get(0).getStatus());
+        assertEquals(TicketStatusEnum.Recording, stages.get(1).getStatus());
+        assertTrue(0 <= stages.get(1).getStageMillis());
+        assertTrue(stages.get(1).getStageMillis() <= stages.get(1).getAgeMillis());
+        assertTrue(ticket.takeReachedStages().isEmpty());
+    }
+
+    @Test
+    public void testTakeUnloggedStages() {
+        ticket.setStatus(TicketStatusEnum.Dispatched);
+        assertEquals(1, ticket.takeReachedStages().size());
+
+        final List<TicketStage> stages = ticket.takeUnloggedStages();
+        assertEquals(1, stages.size());
+        assertEquals(TicketStatusEnum.Dispatched, stages.get(0).getStatus());
+        assertEquals(ticket.getStatus().getCreatedAt().getTime() + stages.get(0).getAgeMillis(),
+                stages.get(0).getReachedAtMillis());
+        assertTrue(ticket.takeUnloggedStages().isEmpty());
     }
 
     @Test
@@ -60,6 +94,11 @@ public class TicketTest {
         Ticket.validateTicketValue("not a ticket value");
     }
 
+    @Test
+    public void testGetGameRecallData() {
+        assertEquals("wow! what a win!", ticket.getGameRecallData());
+    }
+
     @Test
     public void testObjEquality() {
         final Ticket newTicket = Ticket.createTicket(gameShareInfo);
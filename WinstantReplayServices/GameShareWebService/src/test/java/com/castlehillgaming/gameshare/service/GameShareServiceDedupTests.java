@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.castlehillgaming.gameshare.GameShareServiceApplication;
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The Class GameShareServiceDedupTests submits the same game share
+ * concurrently, which must give every submission the same ticket.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GameShareServiceApplication.class, properties = "submit-dedup.enabled=true")
+@WebAppConfiguration
+@Profile("development")
+public class GameShareServiceDedupTests {
+
+    /** The number of concurrent submissions. */
+    private static final int SUBMISSIONS = 8;
+
+    @Autowired
+    private GameShareService gameShareService;
+
+    @Test
+    public void testConcurrentSubmissionsShareOneTicket() throws Exception {
+        final GameShareInfo gameShareInfo = new ObjectMapper().convertValue(
+                Map.of("casino", "Lucky Star", "cabinetType", "Atlas", "gameTitle", "New Money", "gamePlayedAt",
+                        System.currentTimeMillis(), "centsWon", 12, "gameRecallData", "concurrent taps"),
+                GameShareInfo.class);
+
+        final CyclicBarrier barrier = new CyclicBarrier(SUBMISSIONS);
+        final ExecutorService executor = Executors.newFixedThreadPool(SUBMISSIONS);
+        try {
+            final List<Callable<String>> submissions = new ArrayList<>();
+            for (int i = 0; i < SUBMISSIONS; i++) {
+                submissions.add(() -> {
+                    barrier.await();
+                    return gameShareService.submitGameShareJob(gameShareInfo).getTicketId();
+                });
+            }
+
+            final Set<String> ticketIds = new HashSet<>();
+            for (final Future<String> ticketId : executor.invokeAll(submissions)) {
+                ticketIds.add(ticketId.get());
+            }
+            assertEquals(1, ticketIds.size());
+
+            final List<String> bulkTicketIds = gameShareService.submitGameShareJobs(List.of(gameShareInfo)).stream()
+                    .map(Ticket::getTicketId).collect(Collectors.toList());
+            assertEquals(List.copyOf(ticketIds), bulkTicketIds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+
+public class FileSystemVideoStoreTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private FileSystemVideoStore videoStore;
+    private VideoStoreProperties props;
+    private String ticketId;
+
+    @Before
+    public void setUp() throws Exception {
+        props = new VideoStoreProperties();
+        props.setRootDirectory(tempFolder.getRoot().getPath());
+        props.setArchiveDirectory(tempFolder.newFolder("archive").getPath());
+        props.setChunkSize(1024);
+
+        videoStore = new FileSystemVideoStore();
+        ReflectionTestUtils.setField(videoStore, "videoStoreProps", props);
+        ticketId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void testStoreCopiesAllChunks() throws Exception {
+        final byte[] video = new byte[10 * 1024 + 17];
+        new Random(42L).nextBytes(video);
+
+        final StoredVideo storedVideo = videoStore.store(ticketId, new ByteArrayInputStream(video));
+
+        assertEquals(Long.valueOf(video.length), storedVideo.getSizeBytes());
+        final Path videoPath = tempFolder.getRoot().toPath().resolve(storedVideo.getStorageHandle());
+        assertArrayEquals(video, Files.readAllBytes(videoPath));
+    }
+
+    @Test
+    public void testStoreEmptyVideo() {
+        final StoredVideo storedVideo = videoStore.store(ticketId, new ByteArrayInputStream(new byte[0]));
+        assertEquals(Long.valueOf(0L), storedVideo.getSizeBytes());
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", storedVideo.getChecksum());
+    }
+
+    @Test
+    public void testStoreReplacesEarlierRecording() throws Exception {
+        final StoredVideo first = videoStore.store(ticketId, new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+        final StoredVideo second = videoStore.store(ticketId, new ByteArrayInputStream(new byte[] { 4, 5 }));
+
+        assertEquals(first.getStorageHandle(), second.getStorageHandle());
+        assertNotEquals(first.getChecksum(), second.getChecksum());
+        final Path videoPath = tempFolder.getRoot().toPath().resolve(second.getStorageHandle());
+        assertArrayEquals(new byte[] { 4, 5 }, Files.readAllBytes(videoPath));
+        assertEquals(1, Files.list(videoPath.getParent()).count());
+    }
+
+    @Test
+    public void testArchiveThenDelete() throws Exception {
+        final byte[] video = new byte[3 * 1024];
+        new Random(7L).nextBytes(video);
+        final StoredVideo storedVideo = videoStore.store(ticketId, new ByteArrayInputStream(video));
+        final StoredVideo missingVideo = new StoredVideo("ab/missing", 1L, "00");
+
+        final String archiveName = videoStore.archive(Arrays.asList(storedVideo, missingVideo));
+
+        try (ZipFile archive = new ZipFile(Path.of(props.getArchiveDirectory(), archiveName).toFile())) {
+            assertEquals(1, archive.size());
+            final ZipEntry entry = archive.getEntry(storedVideo.getStorageHandle());
+            assertEquals(storedVideo.getChecksum(), entry.getComment());
+            assertArrayEquals(video, archive.getInputStream(entry).readAllBytes());
+        }
+
+        final Path videoPath = videoStore.locate(storedVideo);
+        assertEquals(video.length, videoStore.delete(storedVideo));
+        assertFalse(Files.exists(videoPath));
+        assertEquals(0, videoStore.delete(storedVideo));
+    }
+
+    @Test
+    public void testArchiveNothing() throws Exception {
+        assertNull(videoStore.archive(Collections.singletonList(new StoredVideo("ab/missing", 1L, "00"))));
+        assertEquals(0, Files.list(Path.of(props.getArchiveDirectory())).count());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RequestSizeLimitFilterTest {
+
+    private RequestSizeLimitFilter filter;
+
+    @Before
+    public void setUp() {
+        final RequestSizeLimitProperties sizeLimitProps = new RequestSizeLimitProperties();
+        sizeLimitProps.setMaxBytes(100);
+        final BulkSubmitProperties bulkSubmitProps = new BulkSubmitProperties();
+        bulkSubmitProps.setMaxGameShares(5);
+        filter = new RequestSizeLimitFilter();
+        ReflectionTestUtils.setField(filter, "sizeLimitProps", sizeLimitProps);
+        ReflectionTestUtils.setField(filter, "bulkSubmitProps", bulkSubmitProps);
+    }
+
+    @Test
+    public void testSubmissionOverLimitIsRejected() throws Exception {
+        final MockFilterChain filterChain = new MockFilterChain();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("/sharegame", 101), response, filterChain);
+
+        assertEquals(413, response.getStatus());
+        assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    public void testBulkSubmissionHasLimitOfItsGameShares() throws Exception {
+        final MockFilterChain filterChain = new MockFilterChain();
+        filter.doFilter(post("/sharegame/bulk", 500), new MockHttpServletResponse(), filterChain);
+        assertNotNull(filterChain.getRequest());
+
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("/sharegame/bulk", 501), response, new MockFilterChain());
+        assertEquals(413, response.getStatus());
+    }
+
+    private static MockHttpServletRequest post(final String path, final int contentLength) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setContent(new byte[contentLength]);
+        return request;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.validation.Validation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.castlehillgaming.gameshare.model.GameShareInfo;
+import com.castlehillgaming.gameshare.model.Ticket;
+import com.castlehillgaming.gameshare.service.GameShareService;
+import com.castlehillgaming.gameshare.service.RedeemedTicket;
+import com.castlehillgaming.gameshare.web.SubmitRateLimitProperties.Limit;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ShareGameControllerTest {
+
+    private static final String VIDEO_URL = "https://videos.example.com/video.mp4";
+
+    private GameShareService gameShareService;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        final SubmitRateLimitProperties rateLimitProps = new SubmitRateLimitProperties();
+        rateLimitProps.setCasino(new Limit(0.01, 3));
+        final SubmitAdmissionControl admissionControl = new SubmitAdmissionControl();
+        ReflectionTestUtils.setField(admissionControl, "rateLimitProps", rateLimitProps);
+        ReflectionTestUtils.setField(admissionControl, "meterRegistry", new SimpleMeterRegistry());
+        admissionControl.init();
+
+        gameShareService = mock(GameShareService.class);
+        when(gameShareService.submitGameShareJob(any())).thenAnswer(
+                invocation -> Ticket.createTicket(invocation.getArgument(0)));
+        when(gameShareService.submitGameShareJobs(anyList())).thenAnswer(invocation -> invocation
+                .<List<GameShareInfo>>getArgument(0).stream().map(Ticket::createTicket).collect(Collectors.toList()));
+        final ShareGameController controller = new ShareGameController();
+        ReflectionTestUtils.setField(controller, "gameShareService", gameShareService);
+        ReflectionTestUtils.setField(controller, "bulkSubmitProps", new BulkSubmitProperties());
+        ReflectionTestUtils.setField(controller, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(controller, "admissionControl", admissionControl);
+        ReflectionTestUtils.setField(controller, "redeemCacheProps", new RedeemCacheProperties());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void testBulkSubmissionOverCasinoLimitIsShed() throws Exception {
+        mockMvc.perform(post("/sharegame").contentType(MediaType.APPLICATION_JSON).content(gameShare(0)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/sharegame/bulk").contentType(MediaType.APPLICATION_JSON).content(gameShares(3)))
+                .andExpect(status().isTooManyRequests()).andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        verify(gameShareService, never()).submitGameShareJobs(anyList());
+    }
+
+    @Test
+    public void testBulkSubmissionChargedPerGameShare() throws Exception {
+        mockMvc.perform(post("/sharegame/bulk").contentType(MediaType.APPLICATION_JSON).content(gameShares(3)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/sharegame/bulk").contentType(MediaType.APPLICATION_JSON).content(gameShares(1)))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void testRedemptionPollMatchingCompletedTicketIsNotClaimed() throws Exception {
+        final String ticketValue = UUID.randomUUID().toString();
+        redeemCompletedTicket(ticketValue);
+
+        mockMvc.perform(get("/sharegame/redeemticket/" + ticketValue).header(HttpHeaders.IF_NONE_MATCH,
+                "\"5-Completed\"")).andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testRedemptionPollNotMatchingCompletedTicketClaimsIt() throws Exception {
+        final String ticketValue = UUID.randomUUID().toString();
+        redeemCompletedTicket(ticketValue);
+
+        mockMvc.perform(get("/sharegame/redeemticket/" + ticketValue).header(HttpHeaders.IF_NONE_MATCH,
+                "\"3-Recording\"")).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG,
+                        "\"6-Claimed\""));
+    }
+
+    /**
+     * Have a ticket redeemed as Completed (version 5) if the client already
+     * has that, or as claimed (version 6) otherwise.
+     *
+     * @param ticketValue the ticket value
+     */
+    private void redeemCompletedTicket(final String ticketValue) {
+        when(gameShareService.redeemTicket(eq(ticketValue), any())).thenAnswer(invocation -> {
+            final RedeemedTicket polledTicket = new RedeemedTicket(TicketStatusEnum.Completed, 5, VIDEO_URL);
+            return invocation.<Predicate<RedeemedTicket>>getArgument(1).test(polledTicket) ? polledTicket
+                    : new RedeemedTicket(TicketStatusEnum.Claimed, 6, VIDEO_URL);
+        });
+    }
+
+    private static String gameShare(final int i) throws Exception {
+        return new ObjectMapper().writeValueAsString(gameShareFields(i));
+    }
+
+    private static String gameShares(final int count) throws Exception {
+        return new ObjectMapper().writeValueAsString(
+                IntStream.range(0, count).mapToObj(ShareGameControllerTest::gameShareFields)
+                        .collect(Collectors.toList()));
+    }
+
+    private static Map<String, Object> gameShareFields(final int i) {
+        return Map.of("casino", "Lucky Star", "cabinetType", "Atlas", "gameTitle", "ArcticCash", "gamePlayedAt",
+                1461870653220L + i, "centsWon", 1200, "gameRecallData", "spin " + i);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.castlehillgaming.gameshare.web.SubmitRateLimitProperties.Limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SubmitAdmissionControlTest {
+
+    private MeterRegistry meterRegistry;
+    private SubmitAdmissionControl admissionControl;
+
+    @Before
+    public void setUp() {
+        final SubmitRateLimitProperties props = new SubmitRateLimitProperties();
+        props.setCasino(new Limit(0.01, 3));
+        props.setGlobal(new Limit(0.01, 5));
+
+        meterRegistry = new SimpleMeterRegistry();
+        admissionControl = new SubmitAdmissionControl();
+        ReflectionTestUtils.setField(admissionControl, "rateLimitProps", props);
+        ReflectionTestUtils.setField(admissionControl, "meterRegistry", meterRegistry);
+        admissionControl.init();
+    }
+
+    @Test
+    public void testCasinoLimit() {
+        for (int i = 0; i < 3; i++) {
+            admissionControl.admit("Lucky Star");
+        }
+        assertShed(() -> admissionControl.admit("Lucky Star"));
+        admissionControl.admit("Big Bend");
+
+        assertEquals(3, meterRegistry.get("gameshare.submit.admitted").tag("casino", "Lucky Star").counter()
+                .count(), 0);
+        assertEquals(1, meterRegistry.get("gameshare.submit.shed").tag("casino", "Lucky Star")
+                .tag("limit", "casino").counter().count(), 0);
+    }
+
+    @Test
+    public void testMissingCasinoChargedToGlobalLimitOnly() {
+        for (int i = 0; i < 4; i++) {
+            admissionControl.admit((String) null);
+        }
+        admissionControl.admit(" ");
+        assertShed(() -> admissionControl.admit((String) null));
+        assertShed(() -> admissionControl.admit("Lucky Star"));
+    }
+
+    @Test
+    public void testBatchAdmittedOrShedTogether() {
+        admissionControl.admit("Big Bend");
+        assertShed(() -> admissionControl.admit(Map.of("Lucky Star", 2, "Big Bend", 3)));
+
+        // no tokens were kept from the shed batch
+        admissionControl.admit(Collections.singletonMap("Lucky Star", 3));
+        assertShed(() -> admissionControl.admit("Lucky Star"));
+    }
+
+    private static void assertShed(final Runnable admission) {
+        try {
+            admission.run();
+            fail("expected the submission to be shed");
+        } catch (final TooManyRequestsException e) {
+            assertEquals(true, e.getRetryAfterSeconds() > 0);
+        }
+    }
+}
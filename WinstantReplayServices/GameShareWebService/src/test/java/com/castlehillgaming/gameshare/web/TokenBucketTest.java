@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.castlehillgaming.gameshare.web.SubmitRateLimitProperties.Limit;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now;
+    private TokenBucket bucket;
+
+    @Before
+    public void setUp() {
+        now = 1000 * SECOND;
+        bucket = new TokenBucket(new Limit(2, 3), now);
+    }
+
+    @Test
+    public void testBurstThenWait() {
+        assertEquals(0, bucket.tryTake(now));
+        assertEquals(0, bucket.tryTake(now));
+        assertEquals(0, bucket.tryTake(now));
+        assertEquals(SECOND / 2, bucket.tryTake(now));
+
+        assertEquals(0, bucket.tryTake(now + SECOND / 2));
+        assertTrue(0 < bucket.tryTake(now + SECOND / 2));
+    }
+
+    @Test
+    public void testRefillsToBurstOnly() {
+        assertEquals(0, bucket.tryTake(now));
+
+        final long later = now + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(later));
+        }
+        assertTrue(0 < bucket.tryTake(later));
+    }
+
+    @Test
+    public void testGiveBack() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(now));
+        }
+        bucket.giveBack();
+        assertEquals(0, bucket.tryTake(now));
+    }
+
+    @Test
+    public void testTakeSeveral() {
+        assertEquals(0, bucket.tryTake(now, 2));
+        assertEquals(SECOND / 2, bucket.tryTake(now, 2));
+        assertEquals(0, bucket.tryTake(now, 1));
+
+        bucket.giveBack(3);
+        assertEquals(0, bucket.tryTake(now, 3));
+    }
+
+    @Test
+    public void testTakeMoreThanBurstFromFullBucketOnly() {
+        assertEquals(0, bucket.tryTake(now));
+        assertEquals(SECOND / 2, bucket.tryTake(now, 5));
+
+        final long full = now + SECOND / 2;
+        assertEquals(0, bucket.tryTake(full, 5));
+        // the bucket is left in debt, beyond what the burst tolerates
+        assertEquals(3 * SECOND / 2, bucket.tryTake(full, 1));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.web;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.castlehillgaming.gameshare.model.StoredVideo;
+import com.castlehillgaming.gameshare.storage.VideoStore;
+
+public class VideoDownloadWriterTest {
+
+    private static final String CHECKSUM = "5f2b";
+
+    private static final String ETAG = "\"" + CHECKSUM + "\"";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private VideoDownloadWriter videoDownloadWriter;
+    private StoredVideo storedVideo;
+    private byte[] video;
+
+    @Before
+    public void setUp() throws Exception {
+        video = new byte[1000];
+        new Random(42L).nextBytes(video);
+        final Path videoPath = tempFolder.newFile("video.mp4").toPath();
+        Files.write(videoPath, video);
+        storedVideo = new StoredVideo("vi/video.mp4", (long) video.length, CHECKSUM);
+
+        final VideoStore videoStore = mock(VideoStore.class);
+        when(videoStore.locate(storedVideo)).thenReturn(videoPath);
+        videoDownloadWriter = new VideoDownloadWriter();
+        ReflectionTestUtils.setField(videoDownloadWriter, "videoStore", videoStore);
+        ReflectionTestUtils.setField(videoDownloadWriter, "videoDownloadProps", new VideoDownloadProperties());
+    }
+
+    @Test
+    public void testRangeIsAnsweredWithPartialContent() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sharegame/video/x");
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        videoDownloadWriter.write(storedVideo, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(video, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testUnsatisfiableRangeIsRejected() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sharegame/video/x");
+        request.addHeader(HttpHeaders.RANGE, "bytes=1000-");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        videoDownloadWriter.write(storedVideo, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testIfRangeMismatchSendsWholeVideo() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sharegame/video/x");
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        videoDownloadWriter.write(storedVideo, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(video, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testMatchingIfNoneMatchIsNotModified() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sharegame/video/x");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        videoDownloadWriter.write(storedVideo, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
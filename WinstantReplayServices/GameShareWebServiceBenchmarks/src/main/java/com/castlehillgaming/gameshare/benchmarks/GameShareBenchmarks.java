@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The Class GameShareBenchmarks is the entry point of the benchmarks jar. It
+ * takes the usual JMH command line options, but unless told otherwise it also
+ * runs the GC profiler (so allocation rates are reported alongside
+ * throughput) and writes the results as JSON, so that runs can be compared as
+ * the code changes:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [benchmark regexp] [JMH options]
+ * </pre>
+ */
+public class GameShareBenchmarks {
+
+    /** The default results file. */
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * The main method.
+     *
+     * @param args the JMH command line options
+     * @throws Exception if the benchmarks could not be run
+     */
+    public static void main(final String[] args) throws Exception {
+        final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+                || cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+        if (cmdOptions.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmdOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
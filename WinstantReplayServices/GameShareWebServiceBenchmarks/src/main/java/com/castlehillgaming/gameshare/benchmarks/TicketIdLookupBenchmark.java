@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.benchmarks;
+
+import java.security.Security;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
+import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
+import org.jasypt.salt.StringFixedSaltGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.castlehillgaming.gameshare.config.AesGcmTicketIdCipher;
+
+/**
+ * The Class TicketIdLookupBenchmark compares the per-lookup cost of turning a
+ * ticketId into the value a Ticket is looked up by, and of reading the stored
+ * ticketId back: under the legacy scheme the ticketId was encrypted (with a
+ * fixed salt) through the pooled PBE encryptor; under the blind index scheme
+ * it is HMACed, and stored with AES-GCM, using keys derived once. The results
+ * are lookups per second (excluding the database round trip itself), measured
+ * across several threads so the cap imposed by the encryptor pool size shows
+ * up.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar TicketIdLookupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TicketIdLookupBenchmark {
+
+    /** The data-encryptor salt (a stand-in for the production value). */
+    private static final String SALT = "8dGa3mM1pQx7Lz0b";
+
+    /** The data-encryptor password (a stand-in for the production value). */
+    private static final String PASSWORD = "benchmarkPassword";
+
+    /** The data-encryptor algorithm. */
+    @Param({ "PBEWITHSHA256AND256BITAES-CBC-BC" })
+    private String algorithm;
+
+    /** The data-encryptor key obtention iterations. */
+    @Param({ "1000" })
+    private int keyObtentionIterations;
+
+    /** The data-encryptor pool size. */
+    @Param({ "4" })
+    private int poolSize;
+
+    /** The legacy ticketId encryptor. */
+    private PooledPBEStringEncryptor legacyEncryptor;
+
+    /** The blind index ticketId cipher. */
+    private AesGcmTicketIdCipher ticketIdCipher;
+
+    /** The ticket id being looked up. */
+    private String ticketId;
+
+    /**
+     * Set up both schemes the way EncryptionConfig does.
+     */
+    @Setup
+    public void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+
+        final SimpleStringPBEConfig encConfig = new SimpleStringPBEConfig();
+        encConfig.setProviderName(BouncyCastleProvider.PROVIDER_NAME);
+        encConfig.setAlgorithm(algorithm);
+        encConfig.setKeyObtentionIterations(keyObtentionIterations);
+        encConfig.setPassword(PASSWORD);
+        encConfig.setPoolSize(poolSize);
+
+        legacyEncryptor = new PooledPBEStringEncryptor();
+        legacyEncryptor.setConfig(encConfig);
+        legacyEncryptor.setSaltGenerator(new StringFixedSaltGenerator(SALT));
+        legacyEncryptor.initialize();
+
+        ticketIdCipher = new AesGcmTicketIdCipher(PASSWORD, SALT, keyObtentionIterations);
+        ticketId = UUID.randomUUID().toString();
+    }
+
+    /**
+     * The legacy scheme: encrypt the ticketId lookup parameter.
+     *
+     * @return the lookup value
+     */
+    @Benchmark
+    public String legacyEncryptedLookup() {
+        return legacyEncryptor.encrypt(ticketId);
+    }
+
+    /**
+     * The legacy scheme's cost of reading back the stored ticketId of the
+     * ticket found.
+     *
+     * @return the ticket id
+     */
+    @Benchmark
+    public String legacyDecryptStored() {
+        return legacyEncryptor.decrypt(legacyEncryptor.encrypt(ticketId));
+    }
+
+    /**
+     * The blind index scheme: index the ticketId lookup parameter.
+     *
+     * @return the lookup value
+     */
+    @Benchmark
+    public String blindIndexLookup() {
+        return ticketIdCipher.index(ticketId);
+    }
+
+    /**
+     * The blind index scheme's cost of reading back the stored ticketId of the
+     * ticket found.
+     *
+     * @return the ticket id
+     */
+    @Benchmark
+    public String blindIndexDecryptStored() {
+        return ticketIdCipher.unprotect(ticketIdCipher.protect(ticketId));
+    }
+}
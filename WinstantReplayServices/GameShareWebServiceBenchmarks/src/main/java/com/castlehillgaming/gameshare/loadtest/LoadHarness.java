@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jms.connection.CachingConnectionFactory;
+
+import com.castlehillgaming.gameshare.GameShareServiceApplication;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * The Class LoadHarness is a self-contained end-to-end load test of the web
+ * service. It starts the web service against an in-VM ActiveMQ broker and a
+ * local (embedded) Postgres database, simulates the video recorder, submits
+ * tickets at a target rate and redeems them as clients do (each ticket is
+ * polled with redeemticket, and all outstanding tickets are periodically
+ * redeemed with one redeemtickets request). Throughput and p50/p99/p999
+ * latencies are reported for each stage:
+ * <ul>
+ * <li>submit - the POST /sharegame request</li>
+ * <li>dispatch - from submission until the recorder receives the recall
+ * data</li>
+ * <li>redeem-request, batch-redeem-request - the redeem requests</li>
+ * <li>completion-visible - from the Completed message being sent until a
+ * redeem request returns the video URL</li>
+ * <li>end-to-end - from submission until a redeem request returns the video
+ * URL</li>
+ * </ul>
+ * Latencies are measured from when each submission was scheduled to start, so
+ * a service which falls behind the target rate is not flattered by it.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.castlehillgaming.gameshare.loadtest.LoadHarness \
+ *     --rate=100 --duration-seconds=120 [--recall-data-outbox.enabled=true ...]
+ * </pre>
+ *
+ * See LoadHarnessOptions for the options.
+ */
+public class LoadHarness {
+
+    /** The name of the in-VM broker. */
+    private static final String BROKER_NAME = "gameshare-load";
+
+    /** The maximum number of tickets in one redeemtickets request. */
+    private static final int BATCH_REDEEM_SIZE = 1000;
+
+    /** The interval (in seconds) between progress reports. */
+    private static final int PROGRESS_SECONDS = 5;
+
+    /** The load harness options. */
+    private final LoadHarnessOptions options;
+
+    /** The base URI of the web service. */
+    private final String baseUri;
+
+    /** The HTTP client. */
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    /** The object mapper. */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** The scheduler. */
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+    /** The stage latencies. */
+    private final StageLatencies latencies = new StageLatencies();
+
+    /** The submission start (System.nanoTime()) of each outstanding ticket. */
+    private final Map<String, Long> submittedAt = new ConcurrentHashMap<>();
+
+    /**
+     * The time each ticket's recall data was received by the recorder, until
+     * its submission has been answered.
+     */
+    private final Map<String, Long> dispatchedAt = new ConcurrentHashMap<>();
+
+    /** The time each outstanding ticket's Completed message was sent. */
+    private final Map<String, Long> completedAt = new ConcurrentHashMap<>();
+
+    /** The tickets which have been submitted but not yet redeemed. */
+    private final Set<String> outstandingTickets = ConcurrentHashMap.newKeySet();
+
+    /** The number of failed requests. */
+    private final AtomicLong numErrors = new AtomicLong();
+
+    /** The submitted game recall data. */
+    private final String gameRecallData;
+
+    /**
+     * Instantiates a new load harness.
+     *
+     * @param options the load harness options
+     * @param port    the port the web service is listening on
+     */
+    LoadHarness(final LoadHarnessOptions options, final int port) {
+        this.options = options;
+        baseUri = "http://localhost:" + port + "/sharegame";
+        gameRecallData = "x".repeat(options.getRecallDataChars());
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the load harness options (see LoadHarnessOptions)
+     * @throws Exception if the load test could not be run
+     */
+    public static void main(final String[] args) throws Exception {
+        final LoadHarnessOptions options = LoadHarnessOptions.parse(args);
+        System.out.println("load harness: " + options);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_prepared_transactions", "200").setServerConfig("max_connections", "400")
+                .start()) {
+            final ConfigurableApplicationContext context = startWebService(postgres, options);
+            try {
+                new LoadHarness(options,
+                        Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"))).run();
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Start the web service.
+     *
+     * @param postgres the database
+     * @param options  the load harness options
+     * @return the web service application context
+     * @throws IOException if the working directories could not be created
+     */
+    private static ConfigurableApplicationContext startWebService(final EmbeddedPostgres postgres,
+            final LoadHarnessOptions options) throws IOException {
+        // the transaction journal is not needed for a throwaway database
+        System.setProperty("bitronix.tm.journal", "null");
+
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("spring.profiles.active", "development");
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.activemq.broker-url",
+                "vm://" + BROKER_NAME + "?broker.persistent=false&broker.useJmx=false");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jta.log-dir", Files.createTempDirectory("gameShareLoadTx").toString());
+        properties.put("video-store.root-directory", Files.createTempDirectory("gameShareLoadVideos").toString());
+        properties.put("server.port", "0");
+        properties.putAll(options.getApplicationProperties());
+
+        // passed as command line arguments so they override application.yml
+        return new SpringApplicationBuilder(GameShareServiceApplication.class).run(properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue()).toArray(String[]::new));
+    }
+
+    /**
+     * Run the load test and report the results.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    void run() throws InterruptedException {
+        final CachingConnectionFactory connectionFactory = new CachingConnectionFactory(
+                new ActiveMQConnectionFactory("vm://" + BROKER_NAME + "?create=false"));
+        connectionFactory.setSessionCacheSize(2 * options.getRecorderConcurrency());
+        final SimulatedRecorder recorder = new SimulatedRecorder(connectionFactory, scheduler, options,
+                this::dispatched, ticketId -> completedAt.put(ticketId, System.nanoTime()));
+        recorder.start();
+
+        final long startNanos = System.nanoTime();
+        final long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        final AtomicLong numSubmitted = new AtomicLong();
+        final ScheduledFuture<?> submitter = scheduler.scheduleAtFixedRate(
+                () -> submit(startNanos + numSubmitted.getAndIncrement() * periodNanos), 0, periodNanos,
+                TimeUnit.NANOSECONDS);
+        final ScheduledFuture<?> batchRedeemer = scheduler.scheduleWithFixedDelay(this::batchRedeem,
+                options.getBatchRedeemMillis(), options.getBatchRedeemMillis(), TimeUnit.MILLISECONDS);
+
+        final long submitEndNanos = startNanos + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        final long drainEndNanos = submitEndNanos + TimeUnit.SECONDS.toNanos(options.getDrainSeconds());
+        while (System.nanoTime() < drainEndNanos
+                && (System.nanoTime() < submitEndNanos || !outstandingTickets.isEmpty())) {
+            if (System.nanoTime() >= submitEndNanos) {
+                submitter.cancel(false);
+            }
+            Thread.sleep(TimeUnit.SECONDS.toMillis(PROGRESS_SECONDS));
+            System.out.print("outstanding " + outstandingTickets.size() + "  ");
+            latencies.reportInterval(System.out, PROGRESS_SECONDS);
+        }
+
+        submitter.cancel(false);
+        batchRedeemer.cancel(false);
+        final double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        System.out.println();
+        System.out.println("load harness: " + options);
+        System.out.println(String.format("submitted %d tickets in %.1fs; %d not redeemed; %d failed requests",
+                numSubmitted.get(), elapsedSeconds, outstandingTickets.size(), numErrors.get()));
+        latencies.report(System.out, elapsedSeconds);
+
+        scheduler.shutdownNow();
+        recorder.stop();
+        connectionFactory.destroy();
+    }
+
+    /**
+     * Submit a ticket.
+     *
+     * @param startNanos the time the submission was scheduled to start
+     */
+    private void submit(final long startNanos) {
+        final Map<String, Object> gameShareInfo = new HashMap<>();
+        gameShareInfo.put("gamePlayedAt", System.currentTimeMillis());
+        gameShareInfo.put("casino", "Casino " + (startNanos % 10));
+        gameShareInfo.put("cabinetType", "Atlas");
+        gameShareInfo.put("gameTitle", "ArcticCash");
+        gameShareInfo.put("centsWon", 1200);
+        gameShareInfo.put("gameRecallData", gameRecallData);
+
+        httpClient.sendAsync(HttpRequest.newBuilder(URI.create(baseUri)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(gameShareInfo))).build(),
+                HttpResponse.BodyHandlers.ofString()).thenAccept(response -> {
+                    if (201 != response.statusCode()) {
+                        numErrors.incrementAndGet();
+                        return;
+                    }
+                    latencies.record("submit", startNanos);
+
+                    final String ticketId = fromJson(response.body(), new TypeReference<Map<String, Object>>() {
+                    }).get("ticketId").toString();
+                    submittedAt.put(ticketId, startNanos);
+                    outstandingTickets.add(ticketId);
+                    recordDispatch(ticketId);
+                    scheduleRedeem(ticketId);
+                }).exceptionally(this::failed);
+    }
+
+    /**
+     * Note that a ticket's recall data has been received by the recorder.
+     *
+     * @param ticketId the ticket id
+     */
+    private void dispatched(final String ticketId) {
+        // the recall data may arrive before the submission has been answered
+        dispatchedAt.put(ticketId, System.nanoTime());
+        if (submittedAt.containsKey(ticketId)) {
+            recordDispatch(ticketId);
+        }
+    }
+
+    /**
+     * Record the dispatch latency of a ticket once both its submission has been
+     * answered and its recall data has been received (exactly once, whichever
+     * happens last).
+     *
+     * @param ticketId the ticket id
+     */
+    private void recordDispatch(final String ticketId) {
+        final Long dispatchedNanos = dispatchedAt.remove(ticketId);
+        final Long submittedNanos = submittedAt.get(ticketId);
+        if (null != dispatchedNanos && null != submittedNanos) {
+            latencies.recordLatency("dispatch", dispatchedNanos - submittedNanos);
+        }
+    }
+
+    /**
+     * Schedule the next redeemticket request for a ticket.
+     *
+     * @param ticketId the ticket id
+     */
+    private void scheduleRedeem(final String ticketId) {
+        scheduler.schedule(() -> redeem(ticketId), options.getRedeemPollMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Redeem a ticket with a redeemticket request.
+     *
+     * @param ticketId the ticket id
+     */
+    private void redeem(final String ticketId) {
+        if (!outstandingTickets.contains(ticketId)) {
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+        httpClient.sendAsync(HttpRequest.newBuilder(URI.create(baseUri + "/redeemticket/" + ticketId)).build(),
+                HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {
+                    if (200 != response.statusCode()) {
+                        numErrors.incrementAndGet();
+                    }
+                    latencies.record("redeem-request", startNanos);
+
+                    if (response.headers().firstValue("Location").isPresent()) {
+                        redeemed(ticketId);
+                    } else {
+                        scheduleRedeem(ticketId);
+                    }
+                }).exceptionally(this::failed);
+    }
+
+    /**
+     * Redeem outstanding tickets with one redeemtickets request.
+     */
+    private void batchRedeem() {
+        final List<String> ticketIds = new ArrayList<>();
+        for (final String ticketId : outstandingTickets) {
+            if (ticketIds.size() == BATCH_REDEEM_SIZE) {
+                break;
+            }
+            ticketIds.add(ticketId);
+        }
+        if (ticketIds.isEmpty()) {
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+        httpClient.sendAsync(HttpRequest.newBuilder(URI.create(baseUri + "/redeemtickets"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(ticketIds))).build(),
+                HttpResponse.BodyHandlers.ofString()).thenAccept(response -> {
+                    if (200 != response.statusCode()) {
+                        numErrors.incrementAndGet();
+                        return;
+                    }
+                    latencies.record("batch-redeem-request", startNanos);
+
+                    fromJson(response.body(), new TypeReference<Map<String, String>>() {
+                    }).keySet().forEach(this::redeemed);
+                }).exceptionally(this::failed);
+    }
+
+    /**
+     * Note that a ticket has been redeemed (recording its end-to-end latency the
+     * first time it is).
+     *
+     * @param ticketId the ticket id
+     */
+    private void redeemed(final String ticketId) {
+        if (outstandingTickets.remove(ticketId)) {
+            latencies.record("end-to-end", submittedAt.remove(ticketId));
+
+            final Long completedNanos = completedAt.remove(ticketId);
+            if (null != completedNanos) {
+                latencies.record("completion-visible", completedNanos);
+            }
+        }
+    }
+
+    /**
+     * Count a failed request.
+     *
+     * @param e the failure
+     * @return null
+     */
+    private Void failed(final Throwable e) {
+        numErrors.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Write a value as JSON.
+     *
+     * @param value the value
+     * @return the JSON
+     */
+    private String toJson(final Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read a value from JSON.
+     *
+     * @param <T>  the value type
+     * @param json the JSON
+     * @param type the value type
+     * @return the value
+     */
+    private <T> T fromJson(final String json, final TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * The Class LoadHarnessOptions holds the load harness options, parsed from
+ * --name=value command line arguments. Arguments which are not load harness
+ * options (for example --recall-data-outbox.enabled=true) are passed on to the
+ * web service as application properties.
+ */
+class LoadHarnessOptions {
+
+    /** The target ticket submission rate (tickets per second). */
+    private @Getter double rate = 50;
+
+    /** The time (in seconds) tickets are submitted for. */
+    private @Getter int durationSeconds = 60;
+
+    /**
+     * The time (in seconds) to wait, after the last submission, for outstanding
+     * tickets to be completed.
+     */
+    private @Getter int drainSeconds = 30;
+
+    /** The number of concurrent simulated recorder consumers. */
+    private @Getter int recorderConcurrency = 8;
+
+    /** The simulated time (in milliseconds) taken to record a video. */
+    private @Getter long recordMillis = 500;
+
+    /** The simulated time (in milliseconds) taken to upload a video. */
+    private @Getter long uploadMillis = 500;
+
+    /** The size (in bytes) of the simulated recorded videos. */
+    private @Getter int videoBytes = 1024 * 1024;
+
+    /** The size (in characters) of the submitted game recall data. */
+    private @Getter int recallDataChars = 4096;
+
+    /** The interval (in milliseconds) at which each ticket is redeemed. */
+    private @Getter long redeemPollMillis = 250;
+
+    /**
+     * The interval (in milliseconds) at which all outstanding tickets are
+     * redeemed with one redeemtickets request.
+     */
+    private @Getter long batchRedeemMillis = 1000;
+
+    /** The application properties passed on to the web service. */
+    private final @Getter Map<String, String> applicationProperties = new LinkedHashMap<>();
+
+    /**
+     * Parse the load harness options.
+     *
+     * @param args the command line arguments
+     * @return the load harness options
+     */
+    static LoadHarnessOptions parse(final String[] args) {
+        final LoadHarnessOptions options = new LoadHarnessOptions();
+
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got '" + arg + "'");
+            }
+            final String name = arg.substring(2, arg.indexOf('='));
+            final String value = arg.substring(arg.indexOf('=') + 1);
+
+            switch (name) {
+            case "rate":
+                options.rate = Double.parseDouble(value);
+                break;
+            case "duration-seconds":
+                options.durationSeconds = Integer.parseInt(value);
+                break;
+            case "drain-seconds":
+                options.drainSeconds = Integer.parseInt(value);
+                break;
+            case "recorder-concurrency":
+                options.recorderConcurrency = Integer.parseInt(value);
+                break;
+            case "record-millis":
+                options.recordMillis = Long.parseLong(value);
+                break;
+            case "upload-millis":
+                options.uploadMillis = Long.parseLong(value);
+                break;
+            case "video-bytes":
+                options.videoBytes = Integer.parseInt(value);
+                break;
+            case "recall-data-chars":
+                options.recallDataChars = Integer.parseInt(value);
+                break;
+            case "redeem-poll-millis":
+                options.redeemPollMillis = Long.parseLong(value);
+                break;
+            case "batch-redeem-millis":
+                options.batchRedeemMillis = Long.parseLong(value);
+                break;
+            default:
+                options.applicationProperties.put(name, value);
+                break;
+            }
+        }
+
+        return options;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s duration=" + durationSeconds + "s drain=" + drainSeconds + "s recorders="
+                + recorderConcurrency + " record=" + recordMillis + "ms upload=" + uploadMillis + "ms video="
+                + videoBytes + "B recallData=" + recallDataChars + "chars redeemPoll=" + redeemPollMillis
+                + "ms batchRedeem=" + batchRedeemMillis + "ms " + applicationProperties;
+    }
+}
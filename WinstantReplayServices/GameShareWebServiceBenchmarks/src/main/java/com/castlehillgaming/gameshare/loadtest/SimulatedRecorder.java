@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.loadtest;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.jms.BytesMessage;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import com.castlehillgaming.gameshare_commonutils.SharedConstants;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+
+/**
+ * The Class SimulatedRecorder stands in for the video recorder service (and
+ * the video uploader): it consumes recall data processing messages and, for
+ * each, sends the job status messages the recorder would, after the configured
+ * recording and uploading delays.
+ */
+class SimulatedRecorder {
+
+    /**
+     * The message group property job messages are sent with, as the recorder
+     * does: the broker dispatches each ticket's messages to one consumer, in
+     * order.
+     */
+    private static final String JOB_MESSAGE_GROUP_KEY = "JMSXGroupID";
+
+    /** The JMS template (for sending job status messages). */
+    private final JmsTemplate jmsTemplate;
+
+    /** The listener container (for consuming recall data messages). */
+    private final DefaultMessageListenerContainer listenerContainer = new DefaultMessageListenerContainer();
+
+    /** The scheduler the simulated delays are run on. */
+    private final ScheduledExecutorService scheduler;
+
+    /** The load harness options. */
+    private final LoadHarnessOptions options;
+
+    /** The simulated recorded video. */
+    private final byte[] video;
+
+    /**
+     * Instantiates a new simulated recorder.
+     *
+     * @param connectionFactory the JMS connection factory
+     * @param scheduler         the scheduler the simulated delays are run on
+     * @param options           the load harness options
+     * @param dispatched        called with the ticketId of each recall data
+     *                          message consumed
+     * @param completed         called with the ticketId of each ticket once its
+     *                          Completed message has been sent
+     */
+    SimulatedRecorder(final ConnectionFactory connectionFactory, final ScheduledExecutorService scheduler,
+            final LoadHarnessOptions options, final Consumer<String> dispatched, final Consumer<String> completed) {
+        this.scheduler = scheduler;
+        this.options = options;
+        jmsTemplate = new JmsTemplate(connectionFactory);
+        video = new byte[options.getVideoBytes()];
+
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.setDestinationName(SharedConstants.RECALLDATA_PROCESSING_MESSAGE_QUEUE_NAME);
+        listenerContainer.setConcurrentConsumers(options.getRecorderConcurrency());
+        listenerContainer.setMessageListener((MessageListener) message -> {
+            final String ticketId = ticketIdOf(message);
+            dispatched.accept(ticketId);
+            record(ticketId, completed);
+        });
+        listenerContainer.afterPropertiesSet();
+    }
+
+    /**
+     * Start consuming recall data messages.
+     */
+    void start() {
+        listenerContainer.start();
+    }
+
+    /**
+     * Stop consuming recall data messages.
+     */
+    void stop() {
+        listenerContainer.shutdown();
+    }
+
+    /**
+     * Simulate recording and uploading the video of a ticket.
+     *
+     * @param ticketId  the ticket id
+     * @param completed called with the ticketId once its Completed message has
+     *                  been sent
+     */
+    private void record(final String ticketId, final Consumer<String> completed) {
+        sendStatus(ticketId, TicketStatusEnum.Recording);
+
+        scheduler.schedule(() -> {
+            jmsTemplate.send(SharedConstants.JOB_INFO_MESSAGE_QUEUE_NAME, session -> {
+                final BytesMessage message = session.createBytesMessage();
+                message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, ticketId);
+                message.setStringProperty(JOB_MESSAGE_GROUP_KEY, ticketId);
+                message.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY,
+                        TicketStatusEnum.Recorded.getIntValue());
+                message.writeBytes(video);
+                return message;
+            });
+            sendStatus(ticketId, TicketStatusEnum.Uploading);
+
+            scheduler.schedule(() -> {
+                sendStatus(ticketId, TicketStatusEnum.Uploaded);
+                jmsTemplate.send(SharedConstants.JOB_INFO_MESSAGE_QUEUE_NAME, session -> {
+                    final TextMessage message = session
+                            .createTextMessage("https://videos.example.com/" + ticketId + ".mp4");
+                    message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, ticketId);
+                    message.setStringProperty(JOB_MESSAGE_GROUP_KEY, ticketId);
+                    message.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY,
+                            TicketStatusEnum.Completed.getIntValue());
+                    return message;
+                });
+                completed.accept(ticketId);
+            }, options.getUploadMillis(), TimeUnit.MILLISECONDS);
+        }, options.getRecordMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send a plain job status message.
+     *
+     * @param ticketId  the ticket id
+     * @param jobStatus the job status
+     */
+    private void sendStatus(final String ticketId, final TicketStatusEnum jobStatus) {
+        jmsTemplate.send(SharedConstants.JOB_INFO_MESSAGE_QUEUE_NAME, session -> {
+            final Message message = session.createMessage();
+            message.setStringProperty(SharedConstants.TICKET_MESSAGE_KEY, ticketId);
+            message.setStringProperty(JOB_MESSAGE_GROUP_KEY, ticketId);
+            message.setIntProperty(SharedConstants.JOB_STATUS_MESSAGE_KEY, jobStatus.getIntValue());
+            return message;
+        });
+    }
+
+    /**
+     * Gets the ticketId of a message.
+     *
+     * @param message the message
+     * @return the ticket id
+     */
+    private static String ticketIdOf(final Message message) {
+        try {
+            return message.getStringProperty(SharedConstants.TICKET_MESSAGE_KEY);
+        } catch (final JMSException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.loadtest;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The Class StageLatencies records the latency of each stage of the ticket
+ * lifecycle (and of each kind of request) in HDR histograms, and reports their
+ * throughput and latency percentiles.
+ */
+class StageLatencies {
+
+    /** The highest latency recorded (longer latencies are clamped to it). */
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /** The recorders, by stage name (in the order stages are first recorded). */
+    private final Map<String, Recorder> recorders = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /** The accumulated histograms, by stage name. */
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    /**
+     * Record the latency of a stage.
+     *
+     * @param stage      the stage name
+     * @param startNanos the System.nanoTime() the stage started at
+     */
+    void record(final String stage, final long startNanos) {
+        recordLatency(stage, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Record the latency of a stage.
+     *
+     * @param stage        the stage name
+     * @param latencyNanos the latency in nanoseconds
+     */
+    void recordLatency(final String stage, final long latencyNanos) {
+        recorders.computeIfAbsent(stage, name -> new Recorder(MAX_LATENCY_NANOS, 3))
+                .recordValue(Math.max(0, Math.min(latencyNanos, MAX_LATENCY_NANOS)));
+    }
+
+    /**
+     * Accumulate the latencies recorded since the last call, and report the
+     * count of each stage in that interval.
+     *
+     * @param out             the output stream
+     * @param intervalSeconds the length of the interval in seconds
+     */
+    synchronized void reportInterval(final PrintStream out, final double intervalSeconds) {
+        final StringBuilder line = new StringBuilder();
+        recorders.forEach((stage, recorder) -> {
+            final Histogram interval = recorder.getIntervalHistogram();
+            histograms.computeIfAbsent(stage, name -> new Histogram(MAX_LATENCY_NANOS, 3)).add(interval);
+            line.append(String.format("%s %.1f/s  ", stage, interval.getTotalCount() / intervalSeconds));
+        });
+        out.println(line);
+    }
+
+    /**
+     * Report the throughput and latency percentiles of every stage.
+     *
+     * @param out            the output stream
+     * @param elapsedSeconds the elapsed time (for throughput) in seconds
+     */
+    synchronized void report(final PrintStream out, final double elapsedSeconds) {
+        reportInterval(new PrintStream(PrintStream.nullOutputStream()), 1);
+
+        out.println(String.format("%-20s %10s %10s %10s %10s %10s %10s", "stage", "count", "per sec", "p50 ms",
+                "p99 ms", "p999 ms", "max ms"));
+        histograms.forEach((stage, histogram) -> out.println(String.format(
+                "%-20s %10d %10.1f %10.2f %10.2f %10.2f %10.2f", stage, histogram.getTotalCount(),
+                histogram.getTotalCount() / elapsedSeconds, millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()))));
+    }
+
+    /**
+     * Convert nanoseconds to (fractional) milliseconds.
+     *
+     * @param nanos the nanoseconds
+     * @return the milliseconds
+     */
+    private static double millis(final long nanos) {
+        return nanos / 1e6;
+    }
+}
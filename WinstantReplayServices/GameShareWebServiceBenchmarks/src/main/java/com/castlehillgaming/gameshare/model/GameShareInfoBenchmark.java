@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class GameShareInfoBenchmark measures GameShareInfo construction and its
+ * (Lombok generated) equals and hashCode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g", "-XX:+UseParallelGC" })
+public class GameShareInfoBenchmark {
+
+    /** The game recall data (of a realistic size). */
+    private String gameRecallData;
+
+    /** The game share info. */
+    private GameShareInfo gameShareInfo;
+
+    /** An equal game share info. */
+    private GameShareInfo equalGameShareInfo;
+
+    /**
+     * Set up the fixed benchmark inputs.
+     */
+    @Setup
+    public void setUp() {
+        final StringBuilder recallData = new StringBuilder();
+        for (int i = 0; recallData.length() < 16 * 1024; ++i) {
+            recallData.append("reel").append(i % 5).append(':').append((i * 7919) % 64).append(';');
+        }
+        gameRecallData = recallData.toString();
+
+        gameShareInfo = newGameShareInfo();
+        equalGameShareInfo = newGameShareInfo();
+    }
+
+    /**
+     * Construct a game share info.
+     *
+     * @return the game share info
+     */
+    @Benchmark
+    public GameShareInfo newGameShareInfo() {
+        return new GameShareInfo(1461870653220L, " Lucky Star ", "Atlas", " ArcticCash", 1200000,
+                gameRecallData);
+    }
+
+    /**
+     * Compare equal (but not identical) game share infos.
+     *
+     * @return true
+     */
+    @Benchmark
+    public boolean gameShareInfoEquals() {
+        return gameShareInfo.equals(equalGameShareInfo);
+    }
+
+    /**
+     * Hash a game share info.
+     *
+     * @return the hash code
+     */
+    @Benchmark
+    public int gameShareInfoHashCode() {
+        return gameShareInfo.hashCode();
+    }
+}
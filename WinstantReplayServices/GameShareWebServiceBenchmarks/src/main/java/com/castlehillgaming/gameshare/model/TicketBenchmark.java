@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020 Castle Hill Gaming, LLC. All rights reserved.
+ */
+package com.castlehillgaming.gameshare.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.castlehillgaming.gameshare.web.InvalidTicketException;
+import com.castlehillgaming.gameshare_commonutils.TicketStatusEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The Class TicketBenchmark measures the Ticket (and TicketStatus) operations
+ * on the request and job message hot paths. It lives in the model package so
+ * that it can use the package-private constructors and methods, as the model
+ * unit tests do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g", "-XX:+UseParallelGC" })
+public class TicketBenchmark {
+
+    /** The object mapper, configured as Spring Boot configures it. */
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /** The game share info tickets are created for. */
+    private GameShareInfo gameShareInfo;
+
+    /** The ticket. */
+    private Ticket ticket;
+
+    /** A valid ticketId value. */
+    private String validTicketValue;
+
+    /**
+     * Set up the fixed benchmark inputs.
+     */
+    @Setup
+    public void setUp() {
+        gameShareInfo = new GameShareInfo(1461870653220L, "Lucky Star", "Atlas", "ArcticCash", 1200000,
+                "wow! what a win!");
+        ticket = Ticket.createTicket(gameShareInfo);
+        ticket.setStatus(TicketStatusEnum.Dispatched);
+        validTicketValue = ticket.getTicketId();
+    }
+
+    /**
+     * Validate a valid ticketId value.
+     */
+    @Benchmark
+    public void validateValidTicketValue() {
+        Ticket.validateTicketValue(validTicketValue);
+    }
+
+    /**
+     * Validate an invalid ticketId value.
+     *
+     * @return the exception thrown
+     */
+    @Benchmark
+    public Object validateInvalidTicketValue() {
+        try {
+            Ticket.validateTicketValue("not a ticket value");
+            return null;
+        } catch (final InvalidTicketException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Create a ticket.
+     *
+     * @return the ticket
+     */
+    @Benchmark
+    public Ticket createTicket() {
+        return Ticket.createTicket(gameShareInfo);
+    }
+
+    /**
+     * Take a new ticket status through a full job lifecycle.
+     *
+     * @return the ticket status
+     */
+    @Benchmark
+    public TicketStatus setStatusLifecycle() {
+        final TicketStatus status = TicketStatus.createNewTicketStatus();
+        status.setStatus(TicketStatusEnum.Dispatched);
+        status.setStatus(TicketStatusEnum.Recording);
+        status.setStatus(TicketStatusEnum.Recorded);
+        status.setStatus(TicketStatusEnum.Uploading);
+        status.setStatus(TicketStatusEnum.Uploaded);
+        status.setStatus(TicketStatusEnum.Completed);
+        status.setStatus(TicketStatusEnum.Claimed);
+        return status;
+    }
+
+    /**
+     * Set a ticket status which is not a forward transition (and so is
+     * ignored).
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void setStatusIgnored(final Blackhole blackhole) {
+        ticket.setStatus(TicketStatusEnum.Received);
+        blackhole.consume(ticket);
+    }
+
+    /**
+     * Convert a ticket to a String.
+     *
+     * @return the string
+     */
+    @Benchmark
+    public String ticketToString() {
+        return ticket.toString();
+    }
+
+    /**
+     * Serialize a ticket to JSON (as the submit endpoint does).
+     *
+     * @return the JSON
+     * @throws JsonProcessingException the json processing exception
+     */
+    @Benchmark
+    public String serializeTicket() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ticket);
+    }
+}